@@ -0,0 +1,55 @@
+package com.iavtar.benchmarks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.iavtar.security.jwt.JwtTokenUtil;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Auth components wired by hand, without a Spring context, for the micro-benchmarks
+ */
+final class AuthFixtures {
+
+    /** Same length and alphabet as the application.yml development secret */
+    static final String SECRET = "benchmark-jwt-secret-key-of-the-same-length-as-the-dev-default-0";
+
+    static final String USERNAME = "bench_user";
+
+    private AuthFixtures() {
+    }
+
+    /**
+     * A {@link JwtTokenUtil} with the application's default expirations
+     */
+    static JwtTokenUtil jwtTokenUtil() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "refreshExpiration", 604_800_000L);
+        return jwtTokenUtil;
+    }
+
+    /**
+     * The principal {@code CustomUserDetailsService} builds for a user holding the USER role
+     */
+    static UserDetails userDetails() {
+        return User.builder()
+                .username(USERNAME)
+                .password("{noop}bench_password")
+                .authorities(new SimpleGrantedAuthority("ROLE_USER"))
+                .build();
+    }
+
+    /**
+     * Raises application loggers to WARN so the suites measure the code path, not INFO logging;
+     * {@link LoggingOverheadBenchmark} covers that separately
+     */
+    static void quietLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.getLogger("com.iavtar").setLevel(Level.WARN);
+    }
+}
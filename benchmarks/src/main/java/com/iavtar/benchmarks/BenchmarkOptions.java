@@ -0,0 +1,56 @@
+package com.iavtar.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared helpers for benchmark entry points
+ */
+final class BenchmarkOptions {
+
+    private BenchmarkOptions() {
+    }
+
+    /**
+     * Parses {@code --key=value} arguments; a bare {@code --flag} maps to "true"
+     */
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Command-line arguments for an in-process benchmark run: random port, private H2 database,
+     * and logging/SQL echo turned down so the benchmark measures request handling, not the console.
+     * Passed as arguments rather than default properties so they override application.yml.
+     */
+    static String[] quietApplicationArguments(String databaseName, String... extra) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";NON_KEYWORDS=USER",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.iavtar=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        for (String argument : extra) {
+            arguments.add("--" + argument);
+        }
+        return arguments.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,91 @@
+package com.iavtar.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iavtar.domain.exception.DomainException;
+import com.iavtar.domain.exception.ResourceNotFoundException;
+import com.iavtar.web.exception.DomainErrorResponses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a request for a missing user, from the throw in the service to the error body bytes.
+ * <p>
+ * {@code legacy} is the previous path: a {@code RuntimeException} with a stack trace, turned into a map and
+ * serialized by Jackson. {@code stackless} throws a {@link ResourceNotFoundException} and renders it with
+ * {@link DomainErrorResponses}. The throw happens {@code depth} frames down, since stack capture grows with
+ * depth; a request through the servlet, security and Spring MVC stacks is about 150 frames deep at the
+ * service call.
+ * <pre>
+ * java -cp benchmarks.jar:... org.openjdk.jmh.Main ErrorPathBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final String TRANSACTION_ID = "TXN-0A8XD5JC5MG00";
+    private static final String PATH = "/api/users/424242";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Param({"20", "150"})
+    public int depth;
+
+    private long id = 424242;
+
+    @Benchmark
+    public byte[] legacy() throws JsonProcessingException {
+        try {
+            throwAt(depth, false);
+            return null;
+        } catch (RuntimeException ex) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("timestamp", LocalDateTime.now().toString());
+            response.put("status", 500);
+            response.put("error", "Runtime Exception");
+            response.put("message", ex.getMessage());
+            response.put("transactionId", TRANSACTION_ID);
+            response.put("path", PATH);
+            return objectMapper.writeValueAsBytes(response);
+        }
+    }
+
+    @Benchmark
+    public byte[] stackless() {
+        try {
+            throwAt(depth, true);
+            return null;
+        } catch (DomainException ex) {
+            return DomainErrorResponses.body(ex, TRANSACTION_ID, PATH);
+        }
+    }
+
+    private void throwAt(int remaining, boolean stackless) {
+        if (remaining > 0) {
+            throwAt(remaining - 1, stackless);
+            return;
+        }
+        if (stackless) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        throw new RuntimeException("User not found with id: " + id);
+    }
+}
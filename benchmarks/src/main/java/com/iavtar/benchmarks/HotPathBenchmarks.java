@@ -0,0 +1,54 @@
+package com.iavtar.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Baseline run of the auth and request-context micro-benchmarks.
+ * <p>
+ * Runs every suite below with the GC profiler, so each result has both throughput (or time per
+ * operation) and allocation per operation ({@code gc.alloc.rate.norm}), and writes them as JSON for
+ * comparison against the previous baseline, e.g. with jmh.morethan.io.
+ * <pre>
+ * java -cp benchmarks.jar:... com.iavtar.benchmarks.HotPathBenchmarks \
+ *      --result=jmh-baseline.json [--include=JwtTokenBenchmark,PasswordEncoderBenchmark] [--quick]
+ * </pre>
+ * {@code --quick} cuts warmup and measurement to one second each, for a smoke run only.
+ */
+public class HotPathBenchmarks {
+
+    private static final List<Class<?>> SUITES = List.of(
+            JwtTokenBenchmark.class,
+            JwtAuthenticationFilterBenchmark.class,
+            UserDetailsServiceBenchmark.class,
+            TransactionIdBenchmark.class,
+            PasswordEncoderBenchmark.class,
+            ErrorPathBenchmark.class);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkOptions.parse(args);
+
+        ChainedOptionsBuilder jmh = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(options.getOrDefault("result", "jmh-baseline.json"));
+        String include = options.get("include");
+        for (Class<?> suite : SUITES) {
+            if (include == null || List.of(include.split(",")).contains(suite.getSimpleName())) {
+                jmh.include("\\." + suite.getSimpleName() + "\\.");
+            }
+        }
+        if (options.containsKey("quick")) {
+            jmh.warmupIterations(1).warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(1).measurementTime(TimeValue.seconds(1));
+        }
+        new Runner(jmh.build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.iavtar.benchmarks;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.security.jwt.JwtAuthenticationFilter;
+import com.iavtar.security.jwt.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One request through {@link JwtAuthenticationFilter}, as the servlet container would run it.
+ * <p>
+ * Each operation opens a request context, builds a mock {@code GET /api/users/1}, runs the filter and a
+ * terminal chain, then clears the security context. The user lookup is an in-memory stub, so the numbers
+ * are token parsing, verification, authentication setup and the verify timer;
+ * {@link UserDetailsServiceBenchmark} measures the database lookup on its own. Token kinds:
+ * <ul>
+ *   <li>{@code valid}: the authenticated path</li>
+ *   <li>{@code tampered}: signature check fails, request continues anonymously</li>
+ *   <li>{@code none}: no Authorization header, the filter's floor cost</li>
+ * </ul>
+ * <pre>
+ * java -cp benchmarks.jar:... org.openjdk.jmh.Main JwtAuthenticationFilterBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"valid", "tampered", "none"})
+    public String token;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        AuthFixtures.quietLogging();
+        JwtTokenUtil jwtTokenUtil = AuthFixtures.jwtTokenUtil();
+        UserDetails userDetails = AuthFixtures.userDetails();
+        UserDetailsService userDetailsService = username -> userDetails;
+
+        filter = new JwtAuthenticationFilter(jwtTokenUtil, userDetailsService, new SimpleMeterRegistry());
+
+        String jwt = jwtTokenUtil.generateToken(userDetails);
+        authorization = switch (token) {
+            case "valid" -> "Bearer " + jwt;
+            case "tampered" -> "Bearer " + jwt.substring(0, jwt.length() - 4) + "AAAA";
+            case "none" -> null;
+            default -> throw new IllegalArgumentException("Unknown token kind: " + token);
+        };
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/1");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try (TransactionContext.Scope ignored = TransactionContext.open(RequestContext.start(null, Duration.ofSeconds(30)))) {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
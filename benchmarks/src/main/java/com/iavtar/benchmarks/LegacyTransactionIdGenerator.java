@@ -0,0 +1,32 @@
+package com.iavtar.benchmarks;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verbatim copy of the original TransactionIdGenerator (TXN-YYYYMMDDHHMMSS-XXXXX), kept only as
+ * the baseline for {@link TransactionIdBenchmark}
+ */
+final class LegacyTransactionIdGenerator {
+
+    private static final AtomicLong sequence = new AtomicLong(0);
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private LegacyTransactionIdGenerator() {
+    }
+
+    static String generateTransactionId() {
+        LocalDateTime now = LocalDateTime.now();
+        String timestamp = now.format(formatter);
+        long seq = sequence.incrementAndGet() % 100000;
+        return String.format("TXN-%s-%05d", timestamp, seq);
+    }
+
+    static boolean isValidTransactionId(String transactionId) {
+        if (transactionId == null || transactionId.trim().isEmpty()) {
+            return false;
+        }
+        return transactionId.matches("^[A-Z]+-\\d{14}-\\d{5}$");
+    }
+}
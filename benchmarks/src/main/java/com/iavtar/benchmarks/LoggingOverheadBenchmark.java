@@ -0,0 +1,138 @@
+package com.iavtar.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.iavtar.domain.util.TransactionIdGenerator;
+import com.iavtar.web.logging.TransactionSamplingTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost of one request on the service hot path.
+ * <p>
+ * Each operation replays the INFO lines of an authenticated {@code GET /api/users/{id}}: user details
+ * load, JWT filter, controller and service. It uses the application's console pattern and a fresh
+ * transaction ID in the MDC. Output is discarded, so the numbers are formatting, queueing and
+ * contention, not terminal speed. Modes:
+ * <ul>
+ *   <li>{@code off}: application loggers at WARN, only the disabled-level checks remain</li>
+ *   <li>{@code sync}: the previous setup, formatting and writing on the calling thread</li>
+ *   <li>{@code async}: bounded AsyncAppender, neverBlock, as in logback-spring.xml</li>
+ *   <li>{@code async-sampled}: async plus {@link TransactionSamplingTurboFilter} at the default budget</li>
+ * </ul>
+ * <pre>
+ * java -cp benchmarks.jar:... org.openjdk.jmh.Main LoggingOverheadBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingOverheadBenchmark {
+
+    private static final String PATTERN =
+            "[ecom-service] [%X{transactionId}] %d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private static final Logger userDetailsLogger = LoggerFactory.getLogger("com.iavtar.security.service.CustomUserDetailsService");
+    private static final Logger jwtFilterLogger = LoggerFactory.getLogger("com.iavtar.security.jwt.JwtAuthenticationFilter");
+    private static final Logger controllerLogger = LoggerFactory.getLogger("com.iavtar.web.controller.UserController");
+    private static final Logger serviceLogger = LoggerFactory.getLogger("com.iavtar.service.impl.UserServiceImpl");
+
+    @Param({"off", "sync", "async", "async-sampled"})
+    public String mode;
+
+    private LoggerContext context;
+
+    @Setup
+    public void configure() {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setName("SINK");
+        sink.setEncoder(encoder);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        sink.start();
+
+        Appender<ILoggingEvent> appender = sink;
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(sink);
+            async.start();
+            appender = async;
+        }
+        if (mode.equals("async-sampled")) {
+            TransactionSamplingTurboFilter filter = new TransactionSamplingTurboFilter();
+            filter.setContext(context);
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.iavtar").setLevel(mode.equals("off") ? Level.WARN : Level.INFO);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void request() {
+        String transactionId = TransactionIdGenerator.generateTransactionId();
+        String username = "bench_user";
+        long id = 42L;
+        MDC.put("transactionId", transactionId);
+        try {
+            jwtFilterLogger.debug("JWT token found for user: {} with transaction ID: {}", username, transactionId);
+            userDetailsLogger.info("Loading user details for username: {} with transaction ID: {}", username, transactionId);
+            userDetailsLogger.info("User details loaded successfully for username: {} with {} roles and transaction ID: {}",
+                    username, 1, transactionId);
+            jwtFilterLogger.info("Authentication successful for user: {} with transaction ID: {}", username, transactionId);
+            controllerLogger.info("Received get user by ID request: {} with transaction ID: {}", id, transactionId);
+            serviceLogger.info("Finding user by ID: {} with transaction ID: {}", id, transactionId);
+            serviceLogger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
+            controllerLogger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
+        } finally {
+            MDC.remove("transactionId");
+        }
+    }
+}
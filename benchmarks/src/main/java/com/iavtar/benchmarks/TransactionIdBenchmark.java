@@ -0,0 +1,92 @@
+package com.iavtar.benchmarks;
+
+import com.iavtar.domain.util.SnowflakeIdGenerator;
+import com.iavtar.domain.util.TransactionId;
+import com.iavtar.domain.util.TransactionIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy vs node-aware transaction ID generation and validation.
+ * <p>
+ * Generation runs under contention on all cores by default, since the shared sequence is the
+ * interesting part; pass {@code --threads=1} for the uncontended cost. Run with -prof gc through the
+ * JMH launcher to compare allocation per ID.
+ * <pre>
+ * java -cp benchmarks.jar:... com.iavtar.benchmarks.TransactionIdBenchmark --threads=1,4,16
+ * java -cp benchmarks.jar:... org.openjdk.jmh.Main TransactionIdBenchmark -t max -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TransactionIdBenchmark {
+
+    private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+    private final String legacyId = LegacyTransactionIdGenerator.generateTransactionId();
+    private final String currentId = TransactionIdGenerator.generateTransactionId();
+
+    @Benchmark
+    public String legacyGenerate() {
+        return LegacyTransactionIdGenerator.generateTransactionId();
+    }
+
+    @Benchmark
+    public String snowflakeGenerate() {
+        return generator.next().toString();
+    }
+
+    @Benchmark
+    public long snowflakeGenerateBinary() {
+        return generator.nextValue();
+    }
+
+    @Benchmark
+    public boolean legacyValidate() {
+        return LegacyTransactionIdGenerator.isValidTransactionId(legacyId);
+    }
+
+    @Benchmark
+    public boolean currentValidate() {
+        return TransactionIdGenerator.isValidTransactionId(currentId);
+    }
+
+    @Benchmark
+    public boolean currentValidateLegacyFormat() {
+        return TransactionIdGenerator.isValidTransactionId(legacyId);
+    }
+
+    @Benchmark
+    public long parse() {
+        return TransactionId.parse(currentId).value();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkOptions.parse(args);
+        for (String threads : options.getOrDefault("threads", "1," + Runtime.getRuntime().availableProcessors()).split(",")) {
+            Options jmh = new OptionsBuilder()
+                    .include(TransactionIdBenchmark.class.getSimpleName())
+                    .threads(Integer.parseInt(threads.trim()))
+                    .build();
+            new Runner(jmh).run();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.iavtar.benchmarks;
+
+import com.iavtar.Application;
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.infrastructure.repository.RoleRepository;
+import com.iavtar.infrastructure.repository.UserRepository;
+import com.iavtar.security.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CustomUserDetailsService#loadUserByUsername} against H2, as wired in the application.
+ * <p>
+ * Boots {@link Application} without a web server on a private in-memory database, seeds one user with
+ * the USER role and looks it up through the Spring proxy, so the read-only transaction, the user query
+ * and the lazy role fetch are all included. {@code missing} measures the not-found path a bad token or
+ * login attempt takes.
+ * <pre>
+ * java -cp benchmarks.jar:... org.openjdk.jmh.Main UserDetailsServiceBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsServiceBenchmark {
+
+    @Param({"existing", "missing"})
+    public String user;
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+    private String username;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class)
+                .run(BenchmarkOptions.quietApplicationArguments("udsbench",
+                        "spring.main.web-application-type=none"));
+        AuthFixtures.quietLogging();
+        seed(context);
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        username = "existing".equals(user) ? AuthFixtures.USERNAME : "no_such_user";
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            Role role = roleRepository.findByName("USER").orElseGet(() -> {
+                Role created = new Role();
+                created.setName("USER");
+                created.setActive(true);
+                return roleRepository.save(created);
+            });
+            User user = new User();
+            user.setUsername(AuthFixtures.USERNAME);
+            user.setPassword("{noop}bench_password");
+            user.setActive(true);
+            user.addRole(role);
+            userRepository.save(user);
+        });
+    }
+}
@@ -0,0 +1,154 @@
+package com.iavtar.benchmarks;
+
+import com.iavtar.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop throughput benchmark of the web application with platform vs virtual request threads.
+ * <p>
+ * Boots {@link Application} once per mode on a random port with its own H2 database, then drives it
+ * with a fixed number of concurrent clients. The mix is username checks (blocking JDBC) with a
+ * share of logins (BCrypt + JDBC).
+ * <pre>
+ * java -cp benchmarks.jar:... com.iavtar.benchmarks.VirtualThreadThroughputBenchmark \
+ *      --concurrency=1000 --duration=30 --warmup=10 --login-ratio=0.05
+ * </pre>
+ */
+public class VirtualThreadThroughputBenchmark {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkOptions.parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        double loginRatio = Double.parseDouble(options.getOrDefault("login-ratio", "0.05"));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual").split(","));
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            results.add(run(mode.trim(), concurrency, warmupSeconds, durationSeconds, loginRatio));
+        }
+
+        System.out.printf("%n%-10s %12s %12s %10s %12s%n", "mode", "requests", "req/s", "errors", "mean (ms)");
+        for (Result result : results) {
+            System.out.printf("%-10s %12d %12.1f %10d %12.2f%n", result.mode, result.requests,
+                    result.requests / (double) durationSeconds, result.errors, result.meanMillis());
+        }
+    }
+
+    private static Result run(String mode, int concurrency, int warmupSeconds, int durationSeconds, double loginRatio)
+            throws Exception {
+        boolean virtual = "virtual".equals(mode);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .run(BenchmarkOptions.quietApplicationArguments("vtbench_" + mode,
+                        "spring.threads.virtual.enabled=" + virtual))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port;
+
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            String credentials = "{\"username\":\"bench_user\",\"password\":\"bench_password\"}";
+            send(client, post(baseUrl + "/api/auth/register", credentials));
+            String token = extractToken(send(client, post(baseUrl + "/api/auth/login", credentials)).body());
+
+            System.out.printf("[%s] warming up for %d s with %d clients%n", mode, warmupSeconds, concurrency);
+            drive(client, baseUrl, token, credentials, concurrency, warmupSeconds, loginRatio, mode);
+            System.out.printf("[%s] measuring for %d s with %d clients%n", mode, durationSeconds, concurrency);
+            return drive(client, baseUrl, token, credentials, concurrency, durationSeconds, loginRatio, mode);
+        }
+    }
+
+    private static Result drive(HttpClient client, String baseUrl, String token, String credentials, int concurrency,
+                                int seconds, double loginRatio, String mode) throws InterruptedException {
+        LongAdder requests = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder totalNanos = new LongAdder();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                clients.submit(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            HttpRequest request = ThreadLocalRandom.current().nextDouble() < loginRatio
+                                    ? post(baseUrl + "/api/auth/login", credentials)
+                                    : get(baseUrl + "/api/users/check-username/bench_user", token);
+                            long start = System.nanoTime();
+                            try {
+                                int status = send(client, request).statusCode();
+                                if (status != 200) {
+                                    errors.increment();
+                                }
+                            } catch (Exception e) {
+                                errors.increment();
+                            }
+                            totalNanos.add(System.nanoTime() - start);
+                            requests.increment();
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        return new Result(mode, requests.sum(), errors.sum(), totalNanos.sum());
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws Exception {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String extractToken(String body) {
+        Matcher matcher = ACCESS_TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login did not return an access token: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private record Result(String mode, long requests, long errors, long totalNanos) {
+        double meanMillis() {
+            return requests == 0 ? 0 : totalNanos / (double) requests / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.iavtar.domain.accesslog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Layout of access log segment files, shared by the writer and offline readers.
+ * <p>
+ * A segment is a {@value #HEADER_SIZE}-byte header followed by fixed {@value #RECORD_SIZE}-byte records,
+ * all big-endian. Unused space is zero; a record whose timestamp is zero ends the segment, so a reader
+ * can open a segment that is still being written. Strings are UTF-8, zero-padded and truncated to their
+ * field. Record layout:
+ * <pre>
+ *   0  long   timestamp (epoch ms; written last)
+ *   8  long   latency (ns)
+ *  16  long   DB time (ns)
+ *  24  short  status (unsigned)
+ *  26  short  SQL statements (unsigned, saturating)
+ *  28  byte   method code (index in {@link #METHODS})
+ *  32  [64]   transaction ID
+ *  96  [96]   route
+ * 192  [64]   principal
+ * </pre>
+ */
+public final class AccessLogFormat {
+
+    /** "ACCLOG" followed by the format version */
+    public static final long MAGIC = 0x4143434C4F470001L;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 256;
+
+    /** Method codes; anything else is stored as 0 and read back as "OTHER" */
+    public static final List<String> METHODS = List.of("OTHER", "GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS");
+
+    private static final int TIMESTAMP = 0;
+    private static final int LATENCY = 8;
+    private static final int DB_TIME = 16;
+    private static final int STATUS = 24;
+    private static final int STATEMENTS = 26;
+    private static final int METHOD = 28;
+    private static final int TRANSACTION_ID = 32;
+    private static final int TRANSACTION_ID_SIZE = 64;
+    private static final int ROUTE = 96;
+    private static final int ROUTE_SIZE = 96;
+    private static final int PRINCIPAL = 192;
+    private static final int PRINCIPAL_SIZE = 64;
+
+    private AccessLogFormat() {
+    }
+
+    /**
+     * Writes a segment header at the start of {@code segment}
+     */
+    public static void writeHeader(ByteBuffer segment, long createdMillis) {
+        segment.putLong(0, MAGIC);
+        segment.putInt(8, HEADER_SIZE);
+        segment.putInt(12, RECORD_SIZE);
+        segment.putLong(16, createdMillis);
+    }
+
+    /**
+     * Checks that {@code segment} starts with a header this version can read
+     * @throws IllegalArgumentException if it does not
+     */
+    public static void checkHeader(ByteBuffer segment) {
+        if (segment.limit() < HEADER_SIZE || segment.getLong(0) != MAGIC) {
+            throw new IllegalArgumentException("Not an access log segment");
+        }
+        if (segment.getInt(8) != HEADER_SIZE || segment.getInt(12) != RECORD_SIZE) {
+            throw new IllegalArgumentException("Unsupported access log layout: header " + segment.getInt(8)
+                    + ", record " + segment.getInt(12));
+        }
+    }
+
+    /**
+     * Records a segment of {@code segmentBytes} can hold
+     */
+    public static int capacity(long segmentBytes) {
+        return (int) Math.min(Integer.MAX_VALUE, (segmentBytes - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * Writes record number {@code index} of a segment
+     */
+    public static void write(ByteBuffer segment, int index, AccessLogRecord record) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        segment.putLong(offset + LATENCY, record.latencyNanos());
+        segment.putLong(offset + DB_TIME, record.dbNanos());
+        segment.putShort(offset + STATUS, (short) Math.min(record.status(), 0xFFFF));
+        segment.putShort(offset + STATEMENTS, (short) Math.min(record.statements(), 0xFFFF));
+        int method = METHODS.indexOf(record.method());
+        segment.put(offset + METHOD, (byte) Math.max(method, 0));
+        putString(segment, offset + TRANSACTION_ID, TRANSACTION_ID_SIZE, record.transactionId());
+        putString(segment, offset + ROUTE, ROUTE_SIZE, record.route());
+        putString(segment, offset + PRINCIPAL, PRINCIPAL_SIZE, record.principal());
+        segment.putLong(offset + TIMESTAMP, record.timestampMillis());
+    }
+
+    /**
+     * Reads record number {@code index} of a segment
+     * @return the record, or null if it was never written
+     */
+    public static AccessLogRecord read(ByteBuffer segment, int index) {
+        int offset = HEADER_SIZE + index * RECORD_SIZE;
+        if (offset + RECORD_SIZE > segment.limit()) {
+            return null;
+        }
+        long timestamp = segment.getLong(offset + TIMESTAMP);
+        if (timestamp == 0) {
+            return null;
+        }
+        int method = segment.get(offset + METHOD) & 0xFF;
+        return new AccessLogRecord(
+                timestamp,
+                getString(segment, offset + TRANSACTION_ID, TRANSACTION_ID_SIZE),
+                method < METHODS.size() ? METHODS.get(method) : METHODS.get(0),
+                getString(segment, offset + ROUTE, ROUTE_SIZE),
+                Short.toUnsignedInt(segment.getShort(offset + STATUS)),
+                getString(segment, offset + PRINCIPAL, PRINCIPAL_SIZE),
+                segment.getLong(offset + LATENCY),
+                segment.getLong(offset + DB_TIME),
+                Short.toUnsignedInt(segment.getShort(offset + STATEMENTS)));
+    }
+
+    private static void putString(ByteBuffer segment, int offset, int size, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int length = Math.min(bytes.length, size);
+        // do not cut a multi-byte character in half
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        segment.put(offset, bytes, 0, length);
+        for (int i = length; i < size; i++) {
+            segment.put(offset + i, (byte) 0);
+        }
+    }
+
+    private static String getString(ByteBuffer segment, int offset, int size) {
+        int length = 0;
+        while (length < size && segment.get(offset + length) != 0) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
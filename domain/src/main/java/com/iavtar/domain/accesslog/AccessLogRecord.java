@@ -0,0 +1,24 @@
+package com.iavtar.domain.accesslog;
+
+/**
+ * One served request in the binary access log
+ * @param timestampMillis when the request arrived, epoch milliseconds
+ * @param transactionId the request's transaction ID
+ * @param method HTTP method
+ * @param route matched handler pattern, e.g. {@code /api/users/{id}}
+ * @param status response status
+ * @param principal authenticated username, or empty
+ * @param latencyNanos time from entering the filter chain to leaving it
+ * @param dbNanos time spent executing SQL statements for the request
+ * @param statements SQL statements executed for the request
+ */
+public record AccessLogRecord(long timestampMillis,
+                              String transactionId,
+                              String method,
+                              String route,
+                              int status,
+                              String principal,
+                              long latencyNanos,
+                              long dbNanos,
+                              int statements) {
+}
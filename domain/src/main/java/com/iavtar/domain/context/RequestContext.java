@@ -0,0 +1,117 @@
+package com.iavtar.domain.context;
+
+import com.iavtar.domain.util.TransactionIdGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable per-request context: request ID, transaction ID, authenticated principal, start time and
+ * deadline.
+ * <p>
+ * Bound once per request by the web layer through {@link TransactionContext#open(RequestContext)}.
+ * Deriving a context (for example after authentication) returns a new instance that is bound in a
+ * nested scope; the original is never mutated, so child tasks that captured it stay consistent.
+ */
+public final class RequestContext {
+
+    private static final AtomicLong requestIds = new AtomicLong();
+
+    private final long requestId;
+    private final String transactionId;
+    private final String principal;
+    private final Instant startTime;
+    private final long startNanos;
+    private final long deadlineNanos;
+
+    private RequestContext(long requestId, String transactionId, String principal, Instant startTime, long startNanos,
+                           long deadlineNanos) {
+        this.requestId = requestId;
+        this.transactionId = transactionId;
+        this.principal = principal;
+        this.startTime = startTime;
+        this.startNanos = startNanos;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a context starting now
+     * @param transactionId the transaction ID, or null to generate one
+     * @param timeout time budget for the unit of work
+     * @return new context without a principal
+     */
+    public static RequestContext start(String transactionId, Duration timeout) {
+        long now = System.nanoTime();
+        String id = transactionId != null ? transactionId : TransactionIdGenerator.generateTransactionId();
+        return new RequestContext(requestIds.incrementAndGet(), id, null, Instant.now(), now, now + timeout.toNanos());
+    }
+
+    /**
+     * Returns a copy of this context carrying the given principal
+     * @param principal authenticated principal name
+     * @return derived context; this instance is unchanged
+     */
+    public RequestContext withPrincipal(String principal) {
+        return new RequestContext(requestId, transactionId, principal, startTime, startNanos, deadlineNanos);
+    }
+
+    /**
+     * Key of the unit of work, assigned on this node when it starts and kept by derived contexts.
+     * The transaction ID may come from the client and be reused by concurrent requests; this cannot.
+     */
+    public long getRequestId() {
+        return requestId;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    /**
+     * Authenticated principal name, or null for anonymous requests
+     */
+    public String getPrincipal() {
+        return principal;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Wall-clock deadline derived from the start time and timeout
+     */
+    public Instant getDeadline() {
+        return startTime.plusNanos(deadlineNanos - startNanos);
+    }
+
+    /**
+     * Time elapsed since the context started
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Time left before the deadline; negative once expired
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestContext{" +
+                "requestId=" + requestId +
+                ", transactionId='" + transactionId + '\'' +
+                ", principal='" + principal + '\'' +
+                ", startTime=" + startTime +
+                ", deadline=" + getDeadline() +
+                '}';
+    }
+}
@@ -2,46 +2,135 @@ package com.iavtar.domain.context;
 
 import com.iavtar.domain.util.TransactionIdGenerator;
 
+import java.util.concurrent.Callable;
+
 /**
- * Thread-local context holder for transaction ID
+ * Scoped holder for the current {@link RequestContext}.
+ * <p>
+ * The API follows {@code ScopedValue} semantics: a context is bound for the extent of a scope
+ * ({@link #open}, {@link #runWhere}, {@link #callWhere}), nested bindings shadow and then restore the
+ * outer one, and nothing is ever mutated in place. {@code ScopedValue} is still a preview API on
+ * Java 21, so the binding is carried by a ThreadLocal; it is always restored when the scope closes,
+ * which keeps pooled and virtual threads free of stale state. Child tasks do not inherit the binding
+ * implicitly and must be wrapped with {@link #wrap(Runnable)} / {@link #wrap(Callable)}.
  */
-public class TransactionContext {
-    
-    private static final ThreadLocal<String> transactionIdHolder = new ThreadLocal<>();
-    
+public final class TransactionContext {
+
+    private static final ThreadLocal<RequestContext> binding = new ThreadLocal<>();
+
+    private TransactionContext() {
+    }
+
     /**
-     * Sets the transaction ID for the current thread
-     * @param transactionId the transaction ID to set
+     * Binds a context until the returned scope is closed
+     * @param context the context to bind
+     * @return scope that restores the previous binding on close
      */
-    public static void setTransactionId(String transactionId) {
-        transactionIdHolder.set(transactionId);
+    public static Scope open(RequestContext context) {
+        RequestContext previous = binding.get();
+        binding.set(context);
+        return new Scope(context, previous);
     }
-    
+
     /**
-     * Gets the transaction ID for the current thread
-     * @return the current transaction ID, or generates a new one if not set
+     * Runs an action with the given context bound
      */
-    public static String getTransactionId() {
-        String transactionId = transactionIdHolder.get();
-        if (transactionId == null) {
-            transactionId = TransactionIdGenerator.generateTransactionId();
-            setTransactionId(transactionId);
+    public static void runWhere(RequestContext context, Runnable action) {
+        try (Scope ignored = open(context)) {
+            action.run();
+        }
+    }
+
+    /**
+     * Calls an action with the given context bound
+     */
+    public static <T> T callWhere(RequestContext context, Callable<T> action) throws Exception {
+        try (Scope ignored = open(context)) {
+            return action.call();
         }
-        return transactionId;
     }
-    
+
+    /**
+     * Gets the context bound to the current scope
+     * @return the current context, or null outside any request or job scope
+     */
+    public static RequestContext current() {
+        return binding.get();
+    }
+
     /**
-     * Clears the transaction ID for the current thread
+     * Gets the transaction ID of the current scope
+     * @return the bound transaction ID; outside any scope a fresh ID is returned on every call and
+     *         nothing is cached, so background work should bind its own context instead
      */
-    public static void clear() {
-        transactionIdHolder.remove();
+    public static String getTransactionId() {
+        RequestContext context = binding.get();
+        return context != null ? context.getTransactionId() : TransactionIdGenerator.generateTransactionId();
     }
-    
+
     /**
-     * Checks if a transaction ID is set for the current thread
-     * @return true if transaction ID is set, false otherwise
+     * Checks if a context is bound to the current scope
+     * @return true if a transaction ID is bound, false otherwise
      */
     public static boolean hasTransactionId() {
-        return transactionIdHolder.get() != null;
+        return binding.get() != null;
+    }
+
+    /**
+     * Captures the current context so the task runs with it on another thread
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext captured = binding.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> runWhere(captured, task);
+    }
+
+    /**
+     * Captures the current context so the task runs with it on another thread
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RequestContext captured = binding.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> callWhere(captured, task);
+    }
+
+    /**
+     * A bound context; closing it restores whatever was bound before
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestContext context;
+        private final RequestContext previous;
+        private boolean closed;
+
+        private Scope(RequestContext context, RequestContext previous) {
+            this.context = context;
+            this.previous = previous;
+        }
+
+        public RequestContext context() {
+            return context;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            boolean outOfOrder = binding.get() != context;
+            if (previous == null) {
+                binding.remove();
+            } else {
+                binding.set(previous);
+            }
+            if (outOfOrder) {
+                throw new IllegalStateException("Request context scopes closed out of order");
+            }
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.iavtar.domain.entity;
+
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.enums.ActivityMetric;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of events of one metric in one minute or hour, summed over all nodes. The unique key also
+ * serves range reads of a metric's buckets.
+ */
+@Entity
+@Table(name = "activity_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_activity_rollups_bucket", columnNames = {"metric", "granularity", "bucketStart"}))
+public class ActivityRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ActivityMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ActivityGranularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long events;
+
+    public ActivityRollup() {
+    }
+
+    public ActivityRollup(ActivityMetric metric, ActivityGranularity granularity, LocalDateTime bucketStart, long events) {
+        this.metric = metric;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.events = events;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ActivityMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(ActivityMetric metric) {
+        this.metric = metric;
+    }
+
+    public ActivityGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(ActivityGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public void setEvents(long events) {
+        this.events = events;
+    }
+}
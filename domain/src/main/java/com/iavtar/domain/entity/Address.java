@@ -1,5 +1,6 @@
 package com.iavtar.domain.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.iavtar.domain.enums.AddressType;
 import jakarta.persistence.*;
 
@@ -12,6 +13,7 @@ public class Address {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "profile_id")
     private Profile profile;
@@ -0,0 +1,109 @@
+package com.iavtar.domain.entity;
+
+import com.iavtar.domain.enums.ChangeTarget;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed user or role write, appended in the writing transaction and tailed by every node
+ * to invalidate what it holds in memory. The identity ID is the sequence nodes read in order. Entries
+ * past {@code invalidation.retention-ms} are deleted, or moved to the audit archive when it is enabled.
+ */
+@Entity
+@Table(name = "change_log", indexes = {
+        @Index(name = "idx_change_log_created_at", columnList = "createdAt"),
+        @Index(name = "idx_change_log_transaction_id", columnList = "transactionId")})
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ChangeTarget target;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    /** Node that made the write; it skips its own entries when tailing */
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    private String transactionId;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(ChangeTarget target, Long entityId, String originNode, String transactionId) {
+        this.target = target;
+        this.entityId = entityId;
+        this.originNode = originNode;
+        this.transactionId = transactionId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ChangeTarget getTarget() {
+        return target;
+    }
+
+    public void setTarget(ChangeTarget target) {
+        this.target = target;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public void setOriginNode(String originNode) {
+        this.originNode = originNode;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeLogEntry{" +
+                "id=" + id +
+                ", target=" + target +
+                ", entityId=" + entityId +
+                ", originNode='" + originNode + '\'' +
+                ", transactionId='" + transactionId + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.iavtar.domain.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stores a small set of names as one comma-separated column; null stays null, so "not set" and "empty"
+ * remain distinct
+ */
+@Converter
+public class NameSetConverter implements AttributeConverter<Set<String>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Set<String> names) {
+        return names == null ? null : String.join(",", names);
+    }
+
+    @Override
+    public Set<String> convertToEntityAttribute(String column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(column.split(","))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -1,11 +1,16 @@
 package com.iavtar.domain.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.iavtar.domain.util.ContactKeys;
 import jakarta.persistence.*;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_profile_email_key", columnList = "emailKey"),
+        @Index(name = "idx_profile_phone_key", columnList = "phoneKey")})
 public class Profile {
 
     @Id
@@ -22,6 +27,14 @@ public class Profile {
 
     private String countryCode;
 
+    /** Canonical email (see {@link ContactKeys}), kept in step with {@code email} for duplicate lookups */
+    @JsonIgnore
+    private String emailKey;
+
+    /** E.164 number of {@code phone} and {@code countryCode}, kept in step for duplicate lookups */
+    @JsonIgnore
+    private Long phoneKey;
+
     @OneToMany(mappedBy = "profile", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<Address> addresses = new HashSet<>();
 
@@ -73,6 +86,21 @@ public class Profile {
         this.countryCode = countryCode;
     }
 
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    public Long getPhoneKey() {
+        return phoneKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateContactKeys() {
+        emailKey = ContactKeys.canonicalEmail(email);
+        phoneKey = ContactKeys.phoneNumber(phone, countryCode);
+    }
+
     public Set<Address> getAddresses() {
         return addresses;
     }
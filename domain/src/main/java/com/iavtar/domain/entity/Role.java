@@ -1,5 +1,7 @@
 package com.iavtar.domain.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -23,11 +25,28 @@ public class Role {
 
     private boolean active = true;
 
+    /** Names of {@link com.iavtar.domain.enums.Permission}s; null for the configured default */
+    @Convert(converter = NameSetConverter.class)
+    @Column(length = 500)
+    private Set<String> permissions;
+
+    /** Roles whose permissions this one inherits, transitively; null for the configured default */
+    @Convert(converter = NameSetConverter.class)
+    @Column(length = 500)
+    private Set<String> parents;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
     private String transactionId;
 
+    /** Incremented on every update; the basis of the role's ETag */
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    /** Inverse side; not serialized, a role can have millions of members */
+    @JsonIgnore
     @ManyToMany(mappedBy = "roles", fetch = FetchType.LAZY)
     private Set<User> users = new HashSet<>();
 
@@ -63,6 +82,22 @@ public class Role {
         this.active = active;
     }
 
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    public void setPermissions(Set<String> permissions) {
+        this.permissions = permissions;
+    }
+
+    public Set<String> getParents() {
+        return parents;
+    }
+
+    public void setParents(Set<String> parents) {
+        this.parents = parents;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -79,6 +114,14 @@ public class Role {
         this.transactionId = transactionId;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<User> getUsers() {
         return users;
     }
@@ -104,6 +147,8 @@ public class Role {
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
                 ", active=" + active +
+                ", permissions=" + permissions +
+                ", parents=" + parents +
                 ", createdAt=" + createdAt +
                 ", transactionId='" + transactionId + '\'' +
                 '}';
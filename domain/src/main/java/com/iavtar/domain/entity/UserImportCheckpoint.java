@@ -0,0 +1,77 @@
+package com.iavtar.domain.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a bulk user import, advanced in the same transaction as each batch it covers, so a rerun
+ * with the same import ID resumes after the last committed record
+ */
+@Entity
+@Table(name = "user_import_checkpoints")
+public class UserImportCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String importId;
+
+    /** CSV records (after the header) whose outcome is committed: imported or reported as rejected */
+    private long recordsCommitted;
+
+    private long usersImported;
+
+    private long recordsRejected;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public String getImportId() {
+        return importId;
+    }
+
+    public void setImportId(String importId) {
+        this.importId = importId;
+    }
+
+    public long getRecordsCommitted() {
+        return recordsCommitted;
+    }
+
+    public void setRecordsCommitted(long recordsCommitted) {
+        this.recordsCommitted = recordsCommitted;
+    }
+
+    public long getUsersImported() {
+        return usersImported;
+    }
+
+    public void setUsersImported(long usersImported) {
+        this.usersImported = usersImported;
+    }
+
+    public long getRecordsRejected() {
+        return recordsRejected;
+    }
+
+    public void setRecordsRejected(long recordsRejected) {
+        this.recordsRejected = recordsRejected;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
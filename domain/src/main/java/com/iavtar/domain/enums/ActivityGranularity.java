@@ -0,0 +1,39 @@
+package com.iavtar.domain.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of an activity histogram bucket. Rollups are stored per minute and per hour; days are summed
+ * from hours.
+ */
+public enum ActivityGranularity {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    ActivityGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Start of the bucket containing {@code time}
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * The finest stored granularity from which buckets of this one are summed
+     */
+    public ActivityGranularity stored() {
+        return this == DAY ? HOUR : this;
+    }
+}
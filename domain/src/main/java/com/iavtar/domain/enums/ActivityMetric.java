@@ -0,0 +1,12 @@
+package com.iavtar.domain.enums;
+
+/**
+ * Kind of event counted in the activity rollups
+ */
+public enum ActivityMetric {
+
+    USERS_CREATED,
+    ROLES_CHANGED,
+    LOGINS
+
+}
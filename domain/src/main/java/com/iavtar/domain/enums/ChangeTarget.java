@@ -0,0 +1,11 @@
+package com.iavtar.domain.enums;
+
+/**
+ * Kind of entity a change-log entry refers to
+ */
+public enum ChangeTarget {
+
+    USER,
+    ROLE
+
+}
@@ -0,0 +1,25 @@
+package com.iavtar.domain.enums;
+
+/**
+ * What a role may do; a role holds its own permissions and those of the roles it inherits from
+ */
+public enum Permission {
+
+    /** Read and write users, their profiles and roles through /api/users */
+    USERS,
+    /** Bulk import users */
+    USERS_IMPORT,
+    /** Look up and scan for duplicate profiles */
+    USERS_DUPLICATES,
+    /** Manage roles and role membership */
+    ROLES,
+    /** Read transaction audit data and activity histograms */
+    AUDIT,
+    /** Run diagnostics */
+    DIAGNOSTICS,
+    /** Prometheus scrape endpoint */
+    METRICS,
+    /** Actuator endpoints other than health, info and prometheus */
+    ACTUATOR
+
+}
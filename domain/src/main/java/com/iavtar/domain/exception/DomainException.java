@@ -0,0 +1,14 @@
+package com.iavtar.domain.exception;
+
+/**
+ * Base of the expected failures the services signal to callers: a missing entity, a duplicate name,
+ * bad credentials. These are answered with a 4xx and are cheap to provoke, so they carry no stack trace
+ * (capturing one dominates the cost of a failed request) and cannot collect suppressed exceptions.
+ * Unexpected failures should keep using ordinary exceptions.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * An entity with the same unique name already exists
+ */
+public class DuplicateResourceException extends DomainException {
+
+    public DuplicateResourceException(String message) {
+        super(message);
+    }
+}
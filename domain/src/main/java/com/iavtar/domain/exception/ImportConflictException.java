@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * Another run of the same bulk import committed progress first
+ */
+public class ImportConflictException extends DomainException {
+
+    public ImportConflictException(String message) {
+        super(message);
+    }
+}
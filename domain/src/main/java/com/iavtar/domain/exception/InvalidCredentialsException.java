@@ -0,0 +1,12 @@
+package com.iavtar.domain.exception;
+
+/**
+ * Login or token refresh rejected. Messages are deliberately generic, so callers cannot tell an unknown
+ * username from a wrong password.
+ */
+public class InvalidCredentialsException extends DomainException {
+
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * A bulk import that cannot start: an unusable header or import ID
+ */
+public class InvalidImportException extends DomainException {
+
+    public InvalidImportException(String message) {
+        super(message);
+    }
+}
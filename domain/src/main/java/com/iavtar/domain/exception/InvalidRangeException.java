@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * A requested time range that cannot be answered: empty, reversed or split into too many buckets
+ */
+public class InvalidRangeException extends DomainException {
+
+    public InvalidRangeException(String message) {
+        super(message);
+    }
+}
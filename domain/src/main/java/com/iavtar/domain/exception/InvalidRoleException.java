@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * A role write naming an unknown permission or an unusable parent role
+ */
+public class InvalidRoleException extends DomainException {
+
+    public InvalidRoleException(String message) {
+        super(message);
+    }
+}
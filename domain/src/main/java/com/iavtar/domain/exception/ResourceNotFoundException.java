@@ -0,0 +1,11 @@
+package com.iavtar.domain.exception;
+
+/**
+ * A user, role or other entity referenced by the caller does not exist
+ */
+public class ResourceNotFoundException extends DomainException {
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.iavtar.domain.projection;
+
+import com.iavtar.domain.enums.ActivityMetric;
+
+import java.time.LocalDateTime;
+
+/**
+ * Events of one metric in one stored rollup bucket
+ */
+public record ActivityCount(ActivityMetric metric, LocalDateTime bucketStart, long events) {
+}
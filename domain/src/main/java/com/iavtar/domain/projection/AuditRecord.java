@@ -0,0 +1,18 @@
+package com.iavtar.domain.projection;
+
+import com.iavtar.domain.enums.ChangeTarget;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user or role write from the change log, read from the table or from the audit archive
+ * @param archived whether it was read from an archive segment
+ */
+public record AuditRecord(long id,
+                          ChangeTarget target,
+                          Long entityId,
+                          String originNode,
+                          String transactionId,
+                          LocalDateTime createdAt,
+                          boolean archived) {
+}
@@ -0,0 +1,7 @@
+package com.iavtar.domain.projection;
+
+/**
+ * A profile found by its canonical email or phone, with the user it belongs to (null for an orphaned profile)
+ */
+public record ProfileMatch(Long profileId, Long userId, String username, String emailKey, Long phoneKey) {
+}
@@ -0,0 +1,31 @@
+package com.iavtar.domain.projection;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * What authentication needs to know about a user: the password hash, whether the user is active, and
+ * the names of the user's active roles. Read with one joined query instead of loading the entity.
+ */
+public record UserCredentials(String username, String passwordHash, boolean active, Set<String> roleNames) {
+
+    /**
+     * Folds the rows of a user-to-active-role outer join, {@code [username, password, active, roleName]}
+     * with a null role name for a user without active roles, into one value
+     * @return null if there are no rows
+     */
+    public static UserCredentials fromRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] first = rows.get(0);
+        Set<String> roleNames = new TreeSet<>();
+        for (Object[] row : rows) {
+            if (row[3] != null) {
+                roleNames.add((String) row[3]);
+            }
+        }
+        return new UserCredentials((String) first[0], (String) first[1], (Boolean) first[2], Set.copyOf(roleNames));
+    }
+}
@@ -0,0 +1,18 @@
+package com.iavtar.domain.projection;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A user read with only the requested fields.
+ * <p>
+ * {@code values} holds the requested fields in request order: columns as plain values, {@code profile}
+ * as a {@link com.iavtar.domain.entity.Profile} and {@code roles} as a list of
+ * {@link com.iavtar.domain.entity.Role}. {@code id} and {@code version} are always read, for the ETag.
+ */
+public record UserFields(Long id, long version, Map<String, Object> values) {
+
+    /** Fields a sparse read can return; the password hash is never one of them */
+    public static final Set<String> FIELDS = Set.of("id", "username", "active", "createdAt", "transactionId",
+            "version", "profile", "roles");
+}
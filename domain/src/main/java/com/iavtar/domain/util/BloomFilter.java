@@ -0,0 +1,198 @@
+package com.iavtar.domain.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free Bloom filter over string keys.
+ * <p>
+ * Bits live in an {@link AtomicLongArray}, so concurrent {@link #put} and {@link #mightContain}
+ * calls need no locking. Positions are derived with double hashing from two seeded
+ * MurmurHash3-style hashes over the key's chars, so no intermediate byte[] is allocated.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int numHashFunctions;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitSize, int numHashFunctions, long expectedInsertions) {
+        long words = (bitSize + 63) >>> 6;
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bitSize + " bits");
+        }
+        this.bits = new AtomicLongArray((int) words);
+        this.bitSize = words << 6;
+        this.numHashFunctions = numHashFunctions;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Creates a filter sized for the given number of insertions and target false-positive rate
+     * @param expectedInsertions number of keys the filter is expected to hold
+     * @param falsePositiveRate target false-positive probability, between 0 and 1 exclusive
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(Math.max(64, m), k, n);
+    }
+
+    /**
+     * Adds a key to the filter
+     * @param key the key to add
+     * @return true if at least one bit changed, i.e. the key was definitely not present before
+     */
+    public boolean put(CharSequence key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1L;
+        boolean changed = false;
+        long combined = h1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            if (setBit(index)) {
+                changed = true;
+            }
+            combined += h2;
+        }
+        insertions.increment();
+        return changed;
+    }
+
+    /**
+     * Checks whether a key may be in the filter
+     * @param key the key to check
+     * @return false if the key is definitely absent, true if it might be present
+     */
+    public boolean mightContain(CharSequence key) {
+        long h1 = hash(key, 0x9E3779B97F4A7C15L);
+        long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1L;
+        long combined = h1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    /**
+     * Number of bits in the filter
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Number of hash functions applied per key
+     */
+    public int hashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * Number of insertions the filter was sized for
+     */
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * Number of put calls made so far (duplicates included)
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    /**
+     * Approximate heap footprint of the bit array in bytes
+     */
+    public long sizeInBytes() {
+        return bitSize >>> 3;
+    }
+
+    /**
+     * Counts set bits; walks the whole array, so meant for reporting only
+     */
+    public long bitCount() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Theoretical false-positive rate for the current number of insertions
+     */
+    public double expectedFalsePositiveRate() {
+        double n = insertions();
+        return Math.pow(1 - Math.exp(-numHashFunctions * n / bitSize), numHashFunctions);
+    }
+
+    /**
+     * False-positive rate estimated from the observed fill ratio of the bit array
+     */
+    public double estimatedFalsePositiveRate() {
+        return Math.pow((double) bitCount() / bitSize, numHashFunctions);
+    }
+
+    private static long hash(CharSequence key, long seed) {
+        long h = seed ^ (key.length() * 0x87C37B91114253D5L);
+        int length = key.length();
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            long block = key.charAt(i)
+                    | ((long) key.charAt(i + 1) << 16)
+                    | ((long) key.charAt(i + 2) << 32)
+                    | ((long) key.charAt(i + 3) << 48);
+            block *= 0x87C37B91114253D5L;
+            block = Long.rotateLeft(block, 31);
+            block *= 0x4CF5AD432745937FL;
+            h ^= block;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729;
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) key.charAt(i) << shift;
+        }
+        if (tail != 0) {
+            tail *= 0x87C37B91114253D5L;
+            tail = Long.rotateLeft(tail, 31);
+            tail *= 0x4CF5AD432745937FL;
+            h ^= tail;
+        }
+        return fmix(h);
+    }
+
+    private static long fmix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,139 @@
+package com.iavtar.domain.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Canonical forms of a profile's free-form email and phone, under which the same customer's contact
+ * details compare equal however they were typed.
+ * <p>
+ * Emails are lower-cased; for mailbox providers known to ignore them, {@code +tag} suffixes (and, for
+ * Gmail, dots) are removed from the local part. Phones become their E.164 number as a long: the digits
+ * after {@code +} or {@code 00}, or a national number with its trunk {@code 0} dropped and the profile's
+ * country calling code ({@code +91}, {@code 91} or an ISO code such as {@code IN}) in front.
+ */
+public final class ContactKeys {
+
+    /** E.164 numbers have at most 15 digits; shorter than 8 is not a full international number */
+    private static final int MIN_PHONE_DIGITS = 8;
+    private static final int MAX_PHONE_DIGITS = 15;
+
+    private static final Set<String> SUBADDRESSING_DOMAINS = Set.of(
+            "gmail.com", "outlook.com", "hotmail.com", "live.com", "icloud.com", "me.com",
+            "fastmail.com", "proton.me", "protonmail.com");
+
+    private static final Map<String, String> CALLING_CODES = Map.ofEntries(
+            Map.entry("US", "1"), Map.entry("CA", "1"), Map.entry("IN", "91"), Map.entry("GB", "44"),
+            Map.entry("UK", "44"), Map.entry("DE", "49"), Map.entry("FR", "33"), Map.entry("SG", "65"),
+            Map.entry("JP", "81"), Map.entry("AU", "61"), Map.entry("AE", "971"), Map.entry("CN", "86"),
+            Map.entry("ES", "34"), Map.entry("IT", "39"), Map.entry("NL", "31"), Map.entry("BR", "55"));
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private ContactKeys() {
+    }
+
+    /**
+     * @return the canonical email, or null if {@code email} is not an address
+     */
+    public static String canonicalEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String address = email.strip().toLowerCase(Locale.ROOT);
+        int at = address.indexOf('@');
+        if (at < 1 || at != address.lastIndexOf('@') || at == address.length() - 1) {
+            return null;
+        }
+        String local = address.substring(0, at);
+        String domain = address.substring(at + 1);
+        if (domain.equals("googlemail.com")) {
+            domain = "gmail.com";
+        }
+        if (SUBADDRESSING_DOMAINS.contains(domain)) {
+            int plus = local.indexOf('+');
+            if (plus > 0) {
+                local = local.substring(0, plus);
+            }
+            if (domain.equals("gmail.com")) {
+                local = local.replace(".", "");
+            }
+        }
+        return local + '@' + domain;
+    }
+
+    /**
+     * 64-bit fingerprint of a canonical email, for grouping many of them without keeping the strings.
+     * FNV-1a over the UTF-16 code units, then the SplitMix64 finalizer so every bit can pick a partition;
+     * the function is fixed, so fingerprints stay comparable across versions.
+     */
+    public static long emailFingerprint(String canonicalEmail) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < canonicalEmail.length(); i++) {
+            char c = canonicalEmail.charAt(i);
+            h = (h ^ (c & 0xFF)) * FNV_PRIME;
+            h = (h ^ (c >>> 8)) * FNV_PRIME;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * @param countryCode calling code or ISO country code used for numbers without an international prefix
+     * @return the E.164 number without the {@code +}, or null if {@code phone} cannot be made into one
+     */
+    public static Long phoneNumber(String phone, String countryCode) {
+        if (phone == null) {
+            return null;
+        }
+        String number = phone.strip();
+        boolean international = number.startsWith("+");
+        StringBuilder digits = new StringBuilder(16);
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (Character.isLetter(c)) {
+                // extension ("x12", "ext. 12") or text: the number ends here
+                break;
+            }
+        }
+        if (!international && digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+            international = true;
+        }
+        if (!international) {
+            String callingCode = callingCode(countryCode);
+            if (callingCode == null) {
+                return null;
+            }
+            if (!digits.isEmpty() && digits.charAt(0) == '0') {
+                digits.deleteCharAt(0);
+            }
+            digits.insert(0, callingCode);
+        }
+        if (digits.length() < MIN_PHONE_DIGITS || digits.length() > MAX_PHONE_DIGITS || digits.charAt(0) == '0') {
+            return null;
+        }
+        return Long.parseLong(digits, 0, digits.length(), 10);
+    }
+
+    private static String callingCode(String countryCode) {
+        if (countryCode == null) {
+            return null;
+        }
+        String code = countryCode.strip();
+        if (code.startsWith("+")) {
+            code = code.substring(1);
+        } else if (code.startsWith("00")) {
+            code = code.substring(2);
+        }
+        if (!code.isEmpty() && code.length() <= 3 && code.chars().allMatch(c -> c >= '0' && c <= '9') && code.charAt(0) != '0') {
+            return code;
+        }
+        return CALLING_CODES.get(code.toUpperCase(Locale.ROOT));
+    }
+}
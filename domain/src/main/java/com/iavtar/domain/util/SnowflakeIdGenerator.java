@@ -0,0 +1,101 @@
+package com.iavtar.domain.util;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, node-aware generator of {@link TransactionId}s.
+ * <p>
+ * The last issued timestamp and sequence are packed into one {@link AtomicLong} and advanced with a
+ * single CAS. When a millisecond's 4096 sequence values run out, or the wall clock steps backwards,
+ * the generator keeps counting on a logical clock slightly ahead of the wall clock instead of
+ * blocking, so IDs from one node are strictly increasing. IDs from different nodes never collide as
+ * long as each node has its own node ID.
+ */
+public final class SnowflakeIdGenerator {
+
+    public static final String NODE_ID_PROPERTY = "txn.node-id";
+    public static final String NODE_ID_ENV = "TXN_NODE_ID";
+
+    private static final int SEQUENCE_BITS = TransactionId.SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = TransactionId.NODE_BITS + TransactionId.SEQUENCE_BITS;
+
+    private final long nodeBits;
+
+    /** (timestamp << SEQUENCE_BITS) | sequence of the last issued ID */
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > TransactionId.MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + TransactionId.MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    public TransactionId next() {
+        return new TransactionId(nextValue());
+    }
+
+    /**
+     * Issues the next ID in its numeric form, without allocating
+     */
+    public long nextValue() {
+        long now = System.currentTimeMillis() - TransactionId.EPOCH;
+        for (;;) {
+            long current = state.get();
+            // A full sequence carries into the timestamp, borrowing the next millisecond
+            long next = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                if (timestamp > TransactionId.MAX_TIMESTAMP) {
+                    throw new IllegalStateException("Transaction ID timestamp range exhausted");
+                }
+                return timestamp << TIMESTAMP_SHIFT | nodeBits | (next & TransactionId.MAX_SEQUENCE);
+            }
+        }
+    }
+
+    /**
+     * Resolves this JVM's node ID from the {@value #NODE_ID_PROPERTY} system property, then the
+     * {@value #NODE_ID_ENV} environment variable. Without either, a value is derived from the host name
+     * and process ID; that is only unlikely to collide, so multi-instance deployments should set it.
+     */
+    public static int resolveNodeId() {
+        String configured = System.getProperty(NODE_ID_PROPERTY);
+        if (configured == null || configured.isBlank()) {
+            configured = System.getenv(NODE_ID_ENV);
+        }
+        if (configured != null && !configured.isBlank()) {
+            try {
+                int nodeId = Integer.parseInt(configured.trim());
+                if (nodeId >= 0 && nodeId <= TransactionId.MAX_NODE_ID) {
+                    return nodeId;
+                }
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid transaction node ID '" + configured
+                    + "'; expected 0.." + TransactionId.MAX_NODE_ID);
+        }
+        return deriveNodeId();
+    }
+
+    private static int deriveNodeId() {
+        String host = System.getenv("HOSTNAME");
+        if (host == null || host.isBlank()) {
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+        }
+        int hash = (host + '/' + ManagementFactory.getRuntimeMXBean().getPid()).hashCode();
+        hash ^= hash >>> 16;
+        return hash & TransactionId.MAX_NODE_ID;
+    }
+}
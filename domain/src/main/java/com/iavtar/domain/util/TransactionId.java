@@ -0,0 +1,190 @@
+package com.iavtar.domain.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * 64-bit transaction identifier: 41 bits of milliseconds since {@link #EPOCH}, a 10-bit node ID and a
+ * 12-bit per-millisecond sequence, most significant first, so numeric order is generation order.
+ * <p>
+ * The text form is {@code PREFIX-} followed by 13 Crockford base32 characters
+ * (e.g. {@code TXN-01HZX3M8Q0G1K}). The alphabet is in ASCII order, so text order matches numeric order.
+ * {@link #toBytes()} gives an 8-byte big-endian form for binary storage. The sign bit is always clear.
+ */
+public record TransactionId(long value) implements Comparable<TransactionId> {
+
+    /** Custom epoch, 2024-01-01T00:00:00Z; 41 bits of milliseconds last until 2093 */
+    public static final long EPOCH = 1_704_067_200_000L;
+
+    public static final int TIMESTAMP_BITS = 41;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    public static final long MAX_TIMESTAMP = (1L << TIMESTAMP_BITS) - 1;
+
+    public static final String DEFAULT_PREFIX = "TXN";
+    public static final int ENCODED_LENGTH = 13;
+
+    private static final int BYTES = Long.BYTES;
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    public TransactionId {
+        if (value < 0) {
+            throw new IllegalArgumentException("Transaction ID value must not be negative: " + value);
+        }
+    }
+
+    /**
+     * Composes an ID from its fields
+     * @param timestamp milliseconds since {@link #EPOCH}
+     * @param nodeId node ID, 0..{@link #MAX_NODE_ID}
+     * @param sequence sequence within the millisecond, 0..{@link #MAX_SEQUENCE}
+     */
+    public static TransactionId of(long timestamp, int nodeId, int sequence) {
+        if (timestamp < 0 || timestamp > MAX_TIMESTAMP) {
+            throw new IllegalArgumentException("Timestamp out of range: " + timestamp);
+        }
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID out of range: " + nodeId);
+        }
+        if (sequence < 0 || sequence > MAX_SEQUENCE) {
+            throw new IllegalArgumentException("Sequence out of range: " + sequence);
+        }
+        return new TransactionId(timestamp << (NODE_BITS + SEQUENCE_BITS) | (long) nodeId << SEQUENCE_BITS | sequence);
+    }
+
+    /**
+     * Milliseconds since {@link #EPOCH}
+     */
+    public long timestamp() {
+        return value >>> (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    public int nodeId() {
+        return (int) (value >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    public int sequence() {
+        return (int) value & MAX_SEQUENCE;
+    }
+
+    public Instant getCreatedAt() {
+        return Instant.ofEpochMilli(EPOCH + timestamp());
+    }
+
+    /**
+     * Big-endian binary form
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        long v = value;
+        for (int i = BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) v;
+            v >>>= 8;
+        }
+        return bytes;
+    }
+
+    public static TransactionId fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != BYTES) {
+            throw new IllegalArgumentException("Transaction ID must be " + BYTES + " bytes");
+        }
+        long v = 0;
+        for (byte b : bytes) {
+            v = v << 8 | (b & 0xFF);
+        }
+        return new TransactionId(v);
+    }
+
+    /**
+     * Text form with the given prefix
+     * @param prefix upper-case ASCII letters
+     */
+    public String format(String prefix) {
+        int prefixLength = prefix.length();
+        byte[] out = new byte[prefixLength + 1 + ENCODED_LENGTH];
+        for (int i = 0; i < prefixLength; i++) {
+            out[i] = (byte) prefix.charAt(i);
+        }
+        out[prefixLength] = '-';
+        int end = out.length - 1;
+        long v = value;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            out[end - i] = ALPHABET[(int) v & 31];
+            v >>>= 5;
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return format(DEFAULT_PREFIX);
+    }
+
+    @Override
+    public int compareTo(TransactionId other) {
+        return Long.compare(value, other.value);
+    }
+
+    /**
+     * Parses the text form; any prefix of upper-case letters is accepted
+     * @throws IllegalArgumentException if the text is not a well-formed ID
+     */
+    public static TransactionId parse(CharSequence text) {
+        long decoded = decode(text);
+        if (decoded < 0) {
+            throw new IllegalArgumentException("Invalid transaction ID: " + text);
+        }
+        return new TransactionId(decoded);
+    }
+
+    /**
+     * Checks the text form without allocating
+     */
+    public static boolean isValid(CharSequence text) {
+        return decode(text) >= 0;
+    }
+
+    /**
+     * Decodes {@code PREFIX-XXXXXXXXXXXXX}, returning -1 for malformed input. Only the canonical
+     * upper-case alphabet is accepted, so equal IDs always have equal strings.
+     */
+    private static long decode(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int length = text.length();
+        int dash = length - ENCODED_LENGTH - 1;
+        if (dash < 1 || text.charAt(dash) != '-') {
+            return -1;
+        }
+        for (int i = 0; i < dash; i++) {
+            char c = text.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return -1;
+            }
+        }
+        long v = 0;
+        for (int i = dash + 1; i < length; i++) {
+            char c = text.charAt(i);
+            int digit = c < 128 ? DECODE[c] : -1;
+            // The leading character carries the top 4 bits and the sign bit is never set
+            if (digit < 0 || (i == dash + 1 && digit > 7)) {
+                return -1;
+            }
+            v = v << 5 | digit;
+        }
+        return v;
+    }
+}
@@ -1,38 +1,40 @@
 package com.iavtar.domain.util;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
  * Utility class for generating unique transaction IDs
+ * <p>
+ * IDs come from a per-JVM {@link SnowflakeIdGenerator}: time-ordered, unique across nodes with
+ * distinct node IDs, and formatted as {@code TXN-} plus 13 base32 characters (see {@link TransactionId}).
  */
 public class TransactionIdGenerator {
     
-    private static final AtomicLong sequence = new AtomicLong(0);
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.resolveNodeId());
     
     /**
-     * Generates a unique transaction ID with format: TXN-YYYYMMDDHHMMSS-XXXXX
+     * Generates a unique transaction ID with format: TXN-XXXXXXXXXXXXX
      * @return unique transaction ID
      */
     public static String generateTransactionId() {
-        LocalDateTime now = LocalDateTime.now();
-        String timestamp = now.format(formatter);
-        long seq = sequence.incrementAndGet() % 100000;
-        return String.format("TXN-%s-%05d", timestamp, seq);
+        return generator.next().toString();
     }
     
     /**
      * Generates a transaction ID with custom prefix
-     * @param prefix custom prefix for the transaction ID
+     * @param prefix custom prefix for the transaction ID, upper-case letters only
      * @return unique transaction ID with custom prefix
      */
     public static String generateTransactionId(String prefix) {
-        LocalDateTime now = LocalDateTime.now();
-        String timestamp = now.format(formatter);
-        long seq = sequence.incrementAndGet() % 100000;
-        return String.format("%s-%s-%05d", prefix, timestamp, seq);
+        if (!isPrefix(prefix, prefix.length())) {
+            throw new IllegalArgumentException("Transaction ID prefix must be upper-case letters: " + prefix);
+        }
+        return generator.next().format(prefix);
+    }
+    
+    /**
+     * Gets the node ID this JVM stamps into its transaction IDs
+     */
+    public static int getNodeId() {
+        return generator.getNodeId();
     }
     
     /**
@@ -41,10 +43,54 @@ public class TransactionIdGenerator {
      * @return true if valid format, false otherwise
      */
     public static boolean isValidTransactionId(String transactionId) {
-        if (transactionId == null || transactionId.trim().isEmpty()) {
+        if (transactionId == null || transactionId.isEmpty()) {
+            return false;
+        }
+        return TransactionId.isValid(transactionId) || isLegacyTransactionId(transactionId);
+    }
+    
+    /**
+     * Checks the format issued before node-aware IDs, PREFIX-YYYYMMDDHHMMSS-XXXXX, which still
+     * appears on stored records
+     * @param transactionId the transaction ID to check
+     * @return true if it has the legacy format
+     */
+    public static boolean isLegacyTransactionId(String transactionId) {
+        if (transactionId == null) {
+            return false;
+        }
+        int length = transactionId.length();
+        // PREFIX '-' 14 digits '-' 5 digits
+        int prefixLength = length - 21;
+        if (prefixLength < 1 || !isPrefix(transactionId, prefixLength)) {
             return false;
         }
-        // Basic format validation: PREFIX-YYYYMMDDHHMMSS-XXXXX
-        return transactionId.matches("^[A-Z]+-\\d{14}-\\d{5}$");
+        return transactionId.charAt(prefixLength) == '-'
+                && isDigits(transactionId, prefixLength + 1, prefixLength + 15)
+                && transactionId.charAt(prefixLength + 15) == '-'
+                && isDigits(transactionId, prefixLength + 16, length);
+    }
+    
+    private static boolean isPrefix(String value, int end) {
+        if (end < 1) {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
-} 
\ No newline at end of file
+} 
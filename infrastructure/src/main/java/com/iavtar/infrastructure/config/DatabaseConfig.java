@@ -1,13 +1,51 @@
 package com.iavtar.infrastructure.config;
 
+import com.iavtar.infrastructure.sql.StatementCounter;
+import com.iavtar.infrastructure.sql.TimedDataSource;
+import com.iavtar.infrastructure.sql.TransactionStatementInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.sql.DataSource;
+
 @Configuration
 @EnableJpaRepositories(basePackages = "com.iavtar.infrastructure.repository")
 @EnableTransactionManagement
 public class DatabaseConfig {
     // Database configuration is handled by Spring Boot auto-configuration
     // This class enables JPA repositories and transaction management
-} 
\ No newline at end of file
+    
+    /**
+     * Registers the Spring-managed statement inspector, which Hibernate would otherwise instantiate itself
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(TransactionStatementInspector statementInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementInspector);
+    }
+    
+    /**
+     * Wraps the pool so statement execution time is charged to the request (see {@link TimedDataSource});
+     * static, as bean post-processors are created before regular beans. Only the access log reads the
+     * time, so without it every JDBC call goes straight to the pool instead of through a proxy.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "access-log.enabled", havingValue = "true")
+    public static BeanPostProcessor sqlTimingPostProcessor(ObjectProvider<StatementCounter> statementCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof TimedDataSource)) {
+                    return new TimedDataSource(dataSource, statementCounter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.iavtar.infrastructure.repository;
+
+import com.iavtar.domain.entity.ActivityRollup;
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.projection.ActivityCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ActivityRollupRepository extends JpaRepository<ActivityRollup, Long> {
+
+    /**
+     * Add events to an existing bucket
+     * @return 1 if the bucket exists, 0 if it must be inserted
+     */
+    @Modifying
+    @Query("UPDATE ActivityRollup r SET r.events = r.events + :events "
+            + "WHERE r.metric = :metric AND r.granularity = :granularity AND r.bucketStart = :bucketStart")
+    int addEvents(@Param("metric") ActivityMetric metric,
+                  @Param("granularity") ActivityGranularity granularity,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("events") long events);
+
+    /**
+     * Stored buckets of the given metrics starting in {@code [start, end)}
+     */
+    @Query("SELECT new com.iavtar.domain.projection.ActivityCount(r.metric, r.bucketStart, r.events) FROM ActivityRollup r "
+            + "WHERE r.metric IN :metrics AND r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    List<ActivityCount> findCounts(@Param("metrics") Collection<ActivityMetric> metrics,
+                                   @Param("granularity") ActivityGranularity granularity,
+                                   @Param("start") LocalDateTime start,
+                                   @Param("end") LocalDateTime end);
+
+    /**
+     * Remove buckets of one granularity older than its retention window
+     */
+    @Modifying
+    @Query("DELETE FROM ActivityRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteBucketsBefore(@Param("granularity") ActivityGranularity granularity, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,67 @@
+package com.iavtar.infrastructure.repository;
+
+import com.iavtar.domain.entity.ChangeLogEntry;
+import com.iavtar.domain.projection.AuditRecord;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    /**
+     * Entries after a position in the log, oldest first
+     */
+    List<ChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Entries by ID; used to pick up writes that committed after a higher ID was already read
+     */
+    List<ChangeLogEntry> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Current end of the log, or null when it is empty
+     */
+    @Query("SELECT MAX(c.id) FROM ChangeLogEntry c")
+    Long findMaxId();
+
+    /**
+     * Remove entries older than the retention window
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Oldest entries created before a cutoff, by ID; the next batch to archive
+     */
+    List<ChangeLogEntry> findByCreatedAtBeforeOrderByIdAsc(LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Remove entries that have been archived
+     */
+    @Modifying
+    @Query("DELETE FROM ChangeLogEntry c WHERE c.id IN :ids")
+    int deleteEntries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Writes made in one transaction, by index lookup
+     */
+    @Query("SELECT new com.iavtar.domain.projection.AuditRecord(c.id, c.target, c.entityId, c.originNode, c.transactionId, c.createdAt, false) "
+            + "FROM ChangeLogEntry c WHERE c.transactionId = :transactionId ORDER BY c.id")
+    List<AuditRecord> findAuditRecordsByTransactionId(@Param("transactionId") String transactionId);
+
+    /**
+     * Writes made in {@code [start, end]}, oldest first
+     */
+    @Query("SELECT new com.iavtar.domain.projection.AuditRecord(c.id, c.target, c.entityId, c.originNode, c.transactionId, c.createdAt, false) "
+            + "FROM ChangeLogEntry c WHERE c.createdAt >= :start AND c.createdAt <= :end ORDER BY c.createdAt, c.id")
+    List<AuditRecord> findAuditRecordsByCreatedAt(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, Limit limit);
+}
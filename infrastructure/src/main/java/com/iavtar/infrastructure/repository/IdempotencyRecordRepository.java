@@ -0,0 +1,58 @@
+package com.iavtar.infrastructure.repository;
+
+import com.iavtar.domain.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Insert an in-flight marker; fails with a duplicate key if the key is already recorded
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, completed, created_at, expires_at) " +
+            "VALUES (:key, :fingerprint, FALSE, :createdAt, :expiresAt)", nativeQuery = true)
+    int insertInFlight(@Param("key") String key,
+                       @Param("fingerprint") String fingerprint,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Replace an in-flight marker with the response
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.completed = true, r.responseStatus = :status, r.contentType = :contentType, " +
+            "r.responseBody = :body, r.expiresAt = :expiresAt WHERE r.idempotencyKey = :key AND r.completed = false")
+    int complete(@Param("key") String key,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Remove an in-flight marker
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.completed = false")
+    int deleteInFlight(@Param("key") String key);
+
+    /**
+     * Remove one key if it has expired
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Remove all expired keys
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
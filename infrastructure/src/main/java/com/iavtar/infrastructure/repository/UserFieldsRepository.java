@@ -0,0 +1,26 @@
+package com.iavtar.infrastructure.repository;
+
+import com.iavtar.domain.projection.UserFields;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sparse user reads: only the requested columns are selected and only the requested associations loaded.
+ */
+public interface UserFieldsRepository {
+
+    /**
+     * Find the requested fields of a user by ID
+     *
+     * @throws IllegalArgumentException if a field is not in {@link UserFields#FIELDS}
+     */
+    Optional<UserFields> findFieldsById(Long id, Set<String> fields);
+
+    /**
+     * Find the requested fields of a user by username
+     *
+     * @throws IllegalArgumentException if a field is not in {@link UserFields#FIELDS}
+     */
+    Optional<UserFields> findFieldsByUsername(String username, Set<String> fields);
+}
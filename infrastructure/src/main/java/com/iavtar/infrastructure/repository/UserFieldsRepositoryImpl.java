@@ -0,0 +1,117 @@
+package com.iavtar.infrastructure.repository;
+
+import com.iavtar.domain.entity.Profile;
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.UserFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Criteria-based implementation of {@link UserFieldsRepository}.
+ * <p>
+ * Requested columns come from one tuple query on the user table. {@code profile} reads the foreign key
+ * from that row and then loads the profile with its addresses; {@code roles} runs one join query.
+ * Associations that were not requested are never touched.
+ */
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    private static final String PROFILE_ID = "profile_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<UserFields> findFieldsById(Long id, Set<String> fields) {
+        return findFields("id", id, fields);
+    }
+
+    @Override
+    public Optional<UserFields> findFieldsByUsername(String username, Set<String> fields) {
+        return findFields("username", username, fields);
+    }
+
+    private Optional<UserFields> findFields(String key, Object value, Set<String> fields) {
+        EntityType<User> type = entityManager.getMetamodel().entity(User.class);
+        Set<String> columns = new LinkedHashSet<>(List.of("id", "version"));
+        boolean profile = false;
+        for (String field : fields) {
+            Attribute.PersistentAttributeType kind = attribute(type, field).getPersistentAttributeType();
+            if (kind == Attribute.PersistentAttributeType.BASIC) {
+                columns.add(field);
+            } else if (field.equals("profile")) {
+                profile = true;
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String column : columns) {
+            selections.add(user.get(column).alias(column));
+        }
+        if (profile) {
+            // the foreign key column of the user row; no join
+            selections.add(user.get("profile").get("id").alias(PROFILE_ID));
+        }
+        query.multiselect(selections).where(cb.equal(user.get(key), value));
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(1).getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Tuple row = rows.get(0);
+        Long id = row.get("id", Long.class);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            switch (field) {
+                case "profile" -> values.put(field, loadProfile(row.get(PROFILE_ID, Long.class)));
+                case "roles" -> values.put(field, loadRoles(id));
+                default -> values.put(field, row.get(field));
+            }
+        }
+        return Optional.of(new UserFields(id, row.get("version", Long.class), values));
+    }
+
+    private Attribute<? super User, ?> attribute(EntityType<User> type, String field) {
+        if (!UserFields.FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Unknown user field: " + field);
+        }
+        return type.getAttribute(field);
+    }
+
+    private Profile loadProfile(Long profileId) {
+        if (profileId == null) {
+            return null;
+        }
+        return entityManager.createQuery(
+                        "SELECT DISTINCT p FROM Profile p LEFT JOIN FETCH p.addresses WHERE p.id = :id", Profile.class)
+                .setParameter("id", profileId)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private List<Role> loadRoles(Long userId) {
+        return entityManager.createQuery("SELECT r FROM User u JOIN u.roles r WHERE u.id = :id", Role.class)
+                .setParameter("id", userId)
+                .getResultList();
+    }
+}
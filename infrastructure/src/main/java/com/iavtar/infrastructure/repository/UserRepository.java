@@ -1,22 +1,102 @@
 package com.iavtar.infrastructure.repository;
 
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.ProfileMatch;
+import com.iavtar.domain.projection.UserCredentials;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
     
     Optional<User> findByUsername(String username);
+
+    /**
+     * Find a user with roles, profile and addresses loaded, ready to serialize outside the transaction
+     */
+    @EntityGraph(attributePaths = {"roles", "profile", "profile.addresses"})
+    Optional<User> findWithDetailsById(Long id);
+
+    /**
+     * Find a user by username with roles, profile and addresses loaded
+     */
+    @EntityGraph(attributePaths = {"roles", "profile", "profile.addresses"})
+    Optional<User> findWithDetailsByUsername(String username);
+
+    /**
+     * Password hash, active flag and active role names of a user, in one query, for login and token refresh
+     */
+    default Optional<UserCredentials> findCredentialsByUsername(String username) {
+        return Optional.ofNullable(UserCredentials.fromRows(findCredentialRowsByUsername(username)));
+    }
+
+    /**
+     * One row per active role of the user, or a single row with a null role name if there are none
+     */
+    @Query("SELECT u.username, u.password, u.active, r.name FROM User u LEFT JOIN u.roles r ON r.active = true "
+            + "WHERE u.username = :username")
+    List<Object[]> findCredentialRowsByUsername(@Param("username") String username);
     
     boolean existsByUsername(String username);
-    
+
+    /**
+     * Replaces a user's password hash unless it changed since {@code currentHash} was read
+     * @return 1 if replaced, 0 if the user is gone or the hash changed meanwhile
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash, u.version = u.version + 1 "
+            + "WHERE u.username = :username AND u.password = :currentHash")
+    int replacePasswordHash(@Param("username") String username,
+                            @Param("currentHash") String currentHash,
+                            @Param("newHash") String newHash);
+
+    /**
+     * Stream all usernames without loading entities (caller must hold a transaction)
+     */
+    @Query("SELECT u.username FROM User u WHERE u.username IS NOT NULL")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllUsernames();
+
+    /**
+     * Usernames of the given users; deleted users are simply missing
+     */
+    @Query("SELECT u.username FROM User u WHERE u.id IN :ids AND u.username IS NOT NULL")
+    List<String> findUsernamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Profiles with the given canonical email, by index lookup, with their users
+     */
+    @Query("SELECT new com.iavtar.domain.projection.ProfileMatch(p.id, u.id, u.username, p.emailKey, p.phoneKey) "
+            + "FROM Profile p LEFT JOIN User u ON u.profile = p WHERE p.emailKey = :emailKey")
+    List<ProfileMatch> findProfileMatchesByEmailKey(@Param("emailKey") String emailKey);
+
+    /**
+     * Profiles with the given E.164 phone number, by index lookup, with their users
+     */
+    @Query("SELECT new com.iavtar.domain.projection.ProfileMatch(p.id, u.id, u.username, p.emailKey, p.phoneKey) "
+            + "FROM Profile p LEFT JOIN User u ON u.profile = p WHERE p.phoneKey = :phoneKey")
+    List<ProfileMatch> findProfileMatchesByPhoneKey(@Param("phoneKey") Long phoneKey);
+
+    /**
+     * The given profiles with their users
+     */
+    @Query("SELECT new com.iavtar.domain.projection.ProfileMatch(p.id, u.id, u.username, p.emailKey, p.phoneKey) "
+            + "FROM Profile p LEFT JOIN User u ON u.profile = p WHERE p.id IN :profileIds")
+    List<ProfileMatch> findProfileMatchesByProfileIdIn(@Param("profileIds") Collection<Long> profileIds);
+
     /**
      * Find users by role name
      */
@@ -0,0 +1,88 @@
+package com.iavtar.infrastructure.sql;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+
+import java.util.Map;
+
+/**
+ * Counts the statements issued while it is open; meant for asserting exact query counts per endpoint
+ * or service call:
+ * <pre>
+ * try (StatementCapture capture = statementCounter.capture()) {
+ *     mockMvc.perform(get("/api/users/1").header("X-Transaction-ID", capture.getTransactionId()));
+ *     capture.assertCount(2);
+ * }
+ * </pre>
+ */
+public class StatementCapture implements AutoCloseable {
+
+    private final StatementCounter counter;
+    private final RequestContext context;
+    private final TransactionContext.Scope scope;
+    private StatementTally tally;
+
+    StatementCapture(StatementCounter counter, RequestContext context, TransactionContext.Scope scope) {
+        this.counter = counter;
+        this.context = context;
+        this.scope = scope;
+    }
+
+    public String getTransactionId() {
+        return context.getTransactionId();
+    }
+
+    /**
+     * Statements counted so far
+     */
+    public int getCount() {
+        return snapshot().getCount();
+    }
+
+    public Map<String, Integer> getStatements() {
+        return snapshot().getStatements();
+    }
+
+    /**
+     * @throws AssertionError listing the statements if the count differs
+     */
+    public void assertCount(int expected) {
+        int actual = getCount();
+        if (actual != expected) {
+            throw new AssertionError("Expected " + expected + " SQL statements but " + actual + " were executed:" + describe());
+        }
+    }
+
+    /**
+     * @throws AssertionError listing the statements if more than {@code maximum} ran
+     */
+    public void assertAtMost(int maximum) {
+        int actual = getCount();
+        if (actual > maximum) {
+            throw new AssertionError("Expected at most " + maximum + " SQL statements but " + actual + " were executed:" + describe());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (tally == null) {
+            tally = counter.end(context);
+            counter.release(this);
+        }
+        scope.close();
+    }
+
+    private StatementTally snapshot() {
+        if (tally != null) {
+            return tally;
+        }
+        StatementTally live = counter.peek(context);
+        return live != null ? live : new StatementTally();
+    }
+
+    private String describe() {
+        StringBuilder description = new StringBuilder();
+        getStatements().forEach((sql, times) -> description.append("\n  ").append(times).append("x ").append(sql));
+        return description.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.iavtar.infrastructure.sql;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the SQL statements issued on behalf of each request.
+ * <p>
+ * Counting is keyed by {@link RequestContext#getRequestId()} rather than by thread, so work handed to
+ * other threads with {@link TransactionContext#wrap(Runnable)} is charged to the request that started it.
+ * The transaction ID is only a label: it can come from the client, and concurrent requests reusing one
+ * still get separate tallies and budgets. A tally exists only between {@link #begin} and the matching
+ * {@link #end}; nested begin/end pairs for the same request share one tally.
+ * <p>
+ * A {@link StatementCapture} is the one place the label counts: it also sees the statements of every
+ * request sent with its transaction ID.
+ */
+@Component
+public class StatementCounter {
+
+    private final ConcurrentHashMap<Long, StatementTally> tallies = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StatementTally> captures = new ConcurrentHashMap<>();
+
+    /**
+     * Starts (or joins) counting for a request
+     */
+    public void begin(RequestContext context) {
+        tallies.compute(context.getRequestId(), (id, tally) -> {
+            StatementTally active = tally != null ? tally : new StatementTally();
+            active.retain();
+            return active;
+        });
+    }
+
+    /**
+     * Leaves counting for a request
+     * @return the tally if this was the outermost begin, or null while an enclosing begin is still open
+     */
+    public StatementTally end(RequestContext context) {
+        StatementTally[] finished = new StatementTally[1];
+        tallies.computeIfPresent(context.getRequestId(), (id, tally) -> {
+            if (tally.release()) {
+                finished[0] = tally;
+                return null;
+            }
+            return tally;
+        });
+        return finished[0];
+    }
+
+    /**
+     * Live tally of a request still being counted, or null
+     */
+    public StatementTally peek(RequestContext context) {
+        return tallies.get(context.getRequestId());
+    }
+
+    /**
+     * Records a statement against a request; a no-op outside a counted scope
+     */
+    void record(RequestContext context, String sql) {
+        StatementTally tally = tallies.get(context.getRequestId());
+        if (tally != null) {
+            tally.record(sql);
+        }
+        StatementTally capture = capture(context, tally);
+        if (capture != null) {
+            capture.record(sql);
+        }
+    }
+
+    /**
+     * Adds statement execution time to a request; a no-op outside a counted scope
+     */
+    void recordTime(RequestContext context, long nanos) {
+        StatementTally tally = tallies.get(context.getRequestId());
+        if (tally != null) {
+            tally.recordTime(nanos);
+        }
+        StatementTally capture = capture(context, tally);
+        if (capture != null) {
+            capture.recordTime(nanos);
+        }
+    }
+
+    /**
+     * Opens a fresh request context and counts every statement issued under it until closed.
+     * Pass {@link StatementCapture#getTransactionId()} as the X-Transaction-ID header to count the
+     * statements of an HTTP request made through MockMvc or a real client as well.
+     */
+    public StatementCapture capture() {
+        RequestContext context = RequestContext.start(null, Duration.ofMinutes(5));
+        TransactionContext.Scope scope = TransactionContext.open(context);
+        begin(context);
+        captures.put(context.getTransactionId(), tallies.get(context.getRequestId()));
+        return new StatementCapture(this, context, scope);
+    }
+
+    void release(StatementCapture capture) {
+        captures.remove(capture.getTransactionId());
+    }
+
+    /**
+     * The capture labelled with the request's transaction ID, unless the request is the capture itself
+     */
+    private StatementTally capture(RequestContext context, StatementTally tally) {
+        if (captures.isEmpty()) {
+            return null;
+        }
+        StatementTally capture = captures.get(context.getTransactionId());
+        return capture != tally ? capture : null;
+    }
+}
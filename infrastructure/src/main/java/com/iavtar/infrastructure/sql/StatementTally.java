@@ -0,0 +1,73 @@
+package com.iavtar.infrastructure.sql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statements issued by one request, with the number of times each distinct SQL string ran.
+ * Hibernate binds parameters as {@code ?}, so an N+1 shows up as one string repeated N times.
+ */
+public class StatementTally {
+
+    /** Distinct statements kept per request; the total count is still exact beyond this */
+    private static final int MAX_DISTINCT_STATEMENTS = 256;
+
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+    private int count;
+    private long executionNanos;
+    private int references;
+
+    synchronized void retain() {
+        references++;
+    }
+
+    synchronized boolean release() {
+        return --references == 0;
+    }
+
+    synchronized void record(String sql) {
+        count++;
+        if (statements.size() < MAX_DISTINCT_STATEMENTS || statements.containsKey(sql)) {
+            statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    synchronized void recordTime(long nanos) {
+        executionNanos += nanos;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Time spent executing statements, as measured by {@link TimedDataSource}
+     */
+    public synchronized long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    /**
+     * Distinct statements in first-execution order, with their execution counts
+     */
+    public synchronized Map<String, Integer> getStatements() {
+        return new LinkedHashMap<>(statements);
+    }
+
+    /**
+     * Statements executed at least {@code threshold} times, most repeated first
+     */
+    public synchronized List<Map.Entry<String, Integer>> getRepeatedStatements(int threshold) {
+        List<Map.Entry<String, Integer>> repeated = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : statements.entrySet()) {
+            if (entry.getValue() >= threshold) {
+                repeated.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        repeated.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        return repeated;
+    }
+}
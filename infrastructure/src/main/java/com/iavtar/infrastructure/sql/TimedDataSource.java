@@ -0,0 +1,90 @@
+package com.iavtar.infrastructure.sql;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Charges the time spent in JDBC {@code execute*} calls to the current request's
+ * {@link StatementTally}, next to the statement count the {@link TransactionStatementInspector} keeps.
+ * <p>
+ * Connections and statements are wrapped in JDK proxies; everything but execution is passed straight
+ * through, including {@code unwrap} and {@code isWrapperFor}, so callers unwrapping to the driver's
+ * connection get the driver's and not the proxy. Statements run outside a counted request scope are not
+ * timed.
+ */
+public class TimedDataSource extends DelegatingDataSource {
+
+    private final StatementCounter statementCounter;
+
+    public TimedDataSource(DataSource dataSource, StatementCounter statementCounter) {
+        super(dataSource);
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return (Connection) wrap(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return (Connection) wrap(Connection.class, super.getConnection(username, password));
+    }
+
+    private Object wrap(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[]{type}, new TimingHandler(target));
+    }
+
+    private final class TimingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        private TimingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            RequestContext context = name.startsWith("execute") ? TransactionContext.current() : null;
+            long start = context != null ? System.nanoTime() : 0;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (context != null) {
+                    statementCounter.recordTime(context, System.nanoTime() - start);
+                }
+            }
+            if (target instanceof Connection) {
+                Class<?> type = method.getReturnType();
+                if (result != null && (type == Statement.class || type == PreparedStatement.class || type == CallableStatement.class)) {
+                    return wrap(type, result);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.iavtar.infrastructure.sql;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sees every SQL string Hibernate prepares: charges it to the current request and, optionally,
+ * prefixes it with a {@code txn=<transaction ID>} SQL comment so slow-query logs and
+ * {@code SHOW PROCESSLIST} can be traced back to the request.
+ * <p>
+ * Tagging makes every request's SQL text unique, which defeats driver- and server-side prepared
+ * statement caches keyed by SQL text, so it is off unless {@code sql-budget.tag-statements} is set
+ * while diagnosing a slow query.
+ */
+@Component
+public class TransactionStatementInspector implements StatementInspector {
+
+    private static final int MAX_TAG_LENGTH = 64;
+
+    private final StatementCounter statementCounter;
+    private final boolean tagStatements;
+
+    public TransactionStatementInspector(StatementCounter statementCounter,
+                                         @Value("${sql-budget.tag-statements:false}") boolean tagStatements) {
+        this.statementCounter = statementCounter;
+        this.tagStatements = tagStatements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestContext context = TransactionContext.current();
+        if (context == null) {
+            return sql;
+        }
+        statementCounter.record(context, sql);
+        if (!tagStatements) {
+            return sql;
+        }
+        return "/* txn=" + sanitize(context.getTransactionId()) + " */ " + sql;
+    }
+
+    /**
+     * Keeps only characters that cannot end the comment or inject SQL, whatever bound the context
+     */
+    static String sanitize(String transactionId) {
+        int length = Math.min(transactionId.length(), MAX_TAG_LENGTH);
+        StringBuilder safe = null;
+        for (int i = 0; i < length; i++) {
+            char c = transactionId.charAt(i);
+            boolean allowed = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed && safe == null) {
+                safe = new StringBuilder(length).append(transactionId, 0, i);
+            }
+            if (safe != null) {
+                safe.append(allowed ? c : '_');
+            }
+        }
+        if (safe != null) {
+            return safe.toString();
+        }
+        return length == transactionId.length() ? transactionId : transactionId.substring(0, length);
+    }
+}
@@ -0,0 +1,130 @@
+package com.iavtar.loadtest;
+
+import com.iavtar.Application;
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.service.RoleCatalogVersion;
+import com.iavtar.service.RoleService;
+import com.iavtar.service.UserService;
+import com.iavtar.service.invalidation.InvalidationBus;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Two-node check of the invalidation bus.
+ * <p>
+ * Boots {@link Application} twice in this process, as nodes {@code node-a} and {@code node-b} sharing one
+ * in-memory H2 database. Roles are then created on node A, each waiting until node B's role catalog version
+ * moves, and users are created on node B, each waiting until node A's username check finds them (its Bloom
+ * filter would otherwise report them absent). Prints propagation latencies and both nodes' counters, and
+ * exits with status 1 if a write is not seen within {@code --timeout} seconds.
+ * <pre>
+ * java -cp loadtest.jar:... com.iavtar.loadtest.InvalidationCheck --writes=50 --timeout=10 \
+ *      --app.invalidation.poll.max-interval-ms=500
+ * </pre>
+ */
+public class InvalidationCheck {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (pair[0].startsWith("app.")) {
+                applicationArguments.add("--" + pair[0].substring(4) + "=" + (pair.length > 1 ? pair[1] : "true"));
+            } else {
+                options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+            }
+        }
+        int writes = Integer.parseInt(options.getOrDefault("writes", "50"));
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("timeout", "10")));
+
+        try (ConfigurableApplicationContext nodeA = start("node-a", applicationArguments);
+             ConfigurableApplicationContext nodeB = start("node-b", applicationArguments)) {
+            RoleService rolesOnA = nodeA.getBean(RoleService.class);
+            RoleCatalogVersion catalogOnB = nodeB.getBean(RoleCatalogVersion.class);
+            UserService usersOnA = nodeA.getBean(UserService.class);
+            UserService usersOnB = nodeB.getBean(UserService.class);
+
+            long[] roleLatencies = new long[writes];
+            long[] userLatencies = new long[writes];
+            boolean failed = false;
+            for (int i = 0; i < writes && !failed; i++) {
+                Role role = new Role();
+                role.setName("INVALIDATION_CHECK_" + i);
+                long seen = catalogOnB.current();
+                long start = System.nanoTime();
+                rolesOnA.createRole(role);
+                roleLatencies[i] = await(start, timeoutNanos, () -> catalogOnB.current() != seen);
+
+                User user = new User();
+                user.setUsername("invalidation_check_" + i);
+                user.setPassword("unused");
+                start = System.nanoTime();
+                usersOnB.createUser(user);
+                String username = user.getUsername();
+                userLatencies[i] = await(start, timeoutNanos, () -> usersOnA.existsByUsername(username));
+
+                if (roleLatencies[i] < 0 || userLatencies[i] < 0) {
+                    System.out.printf("FAILED: write %d not seen on the other node within the timeout%n", i);
+                    failed = true;
+                }
+            }
+
+            if (!failed) {
+                summary("role A -> B", roleLatencies);
+                summary("user B -> A", userLatencies);
+            }
+            counters("node-a", nodeA.getBean(InvalidationBus.class));
+            counters("node-b", nodeB.getBean(InvalidationBus.class));
+            System.exit(failed ? 1 : 0);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId, List<String> extraArguments) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:invalidation-check;DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER",
+                "--spring.jmx.enabled=false",
+                "--invalidation.node-id=" + nodeId,
+                "--logging.level.root=WARN",
+                "--logging.level.com.iavtar=WARN",
+                "--logging.level.org.hibernate.SQL=WARN"));
+        arguments.addAll(extraArguments);
+        return new SpringApplicationBuilder(Application.class).run(arguments.toArray(String[]::new));
+    }
+
+    /**
+     * Milliseconds until {@code condition} holds, or -1 on timeout
+     */
+    private static long await(long start, long timeoutNanos, BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - start > timeoutNanos) {
+                return -1;
+            }
+            Thread.sleep(1);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void summary(String name, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-12s propagation ms: min %4d, median %4d, p99 %4d, max %4d%n", name,
+                sorted[0], sorted[sorted.length / 2], sorted[(int) Math.ceil(sorted.length * 0.99) - 1], sorted[sorted.length - 1]);
+    }
+
+    private static void counters(String node, InvalidationBus bus) {
+        System.out.printf("%s: published %d, received %d, remote batches %d, position %d, pending gaps %d, expired gaps %d%n",
+                node, bus.getPublished(), bus.getReceived(), bus.getRemoteBatches(), bus.getPosition(),
+                bus.getPendingGaps(), bus.getExpiredGaps());
+    }
+}
@@ -0,0 +1,174 @@
+package com.iavtar.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator.
+ * <p>
+ * The target rate is split evenly over {@code concurrency} connections, each a virtual thread that
+ * sends its requests on a fixed schedule (constant or Poisson spacing) whatever the server does. A
+ * connection waiting on a slow response falls behind its schedule and sends the backlog as soon as it
+ * can, and every request's latency is measured from its scheduled start. The offered load therefore
+ * stays at the configured rate, and queueing caused by the server shows up in the percentiles instead
+ * of silently lowering the rate. Concurrency only caps how many requests can be outstanding; set it
+ * above rate x expected latency so the connections can keep up.
+ */
+final class LoadDriver {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestFixture fixture;
+    private final LoadTestOptions options;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private volatile boolean running;
+
+    LoadDriver(HttpClient client, String baseUrl, LoadTestFixture fixture, LoadTestOptions options) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.fixture = fixture;
+        this.options = options;
+
+        operations = options.mix().keySet().toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats(operations[i]));
+        }
+    }
+
+    /**
+     * Runs the warmup and measurement phases, printing a progress line per report interval
+     */
+    LoadReport run(PrintStream out) throws InterruptedException {
+        running = true;
+        long startNanos = System.nanoTime();
+        List<Thread> connections = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            int index = i;
+            connections.add(Thread.ofVirtual().name("loadtest-", i).start(() -> connection(index, startNanos)));
+        }
+
+        try {
+            out.printf("warming up for %d s at %.0f req/s over %d connections%n",
+                    options.warmupSeconds(), options.rate(), options.concurrency());
+            TimeUnit.SECONDS.sleep(options.warmupSeconds());
+            stats.values().forEach(operationStats -> operationStats.drain(false));
+
+            out.printf("measuring for %d s%n", options.durationSeconds());
+            out.printf("%8s %10s %8s %10s %10s %10s%n", "time (s)", "req/s", "errors", "p50 (ms)", "p99 (ms)", "max (ms)");
+            long measureStart = System.nanoTime();
+            long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+            long interval = TimeUnit.SECONDS.toNanos(options.reportIntervalSeconds());
+            long tickStart = measureStart;
+            while (tickStart < measureEnd) {
+                long tickEnd = Math.min(tickStart + interval, measureEnd);
+                TimeUnit.NANOSECONDS.sleep(tickEnd - System.nanoTime());
+                printInterval(out, (tickEnd - measureStart) / 1e9, (tickEnd - tickStart) / 1e9);
+                tickStart = tickEnd;
+            }
+            return new LoadReport(List.copyOf(stats.values()), (System.nanoTime() - measureStart) / 1e9, options);
+        } finally {
+            running = false;
+            for (Thread connection : connections) {
+                LockSupport.unpark(connection);
+            }
+            for (Thread connection : connections) {
+                if (!connection.join(Operation.REQUEST_TIMEOUT.plusSeconds(1))) {
+                    connection.interrupt();
+                }
+            }
+        }
+    }
+
+    private void printInterval(PrintStream out, double elapsedSeconds, double intervalSeconds) {
+        Histogram interval = null;
+        long errors = 0;
+        for (OperationStats operationStats : stats.values()) {
+            operationStats.drain(true);
+            Histogram responseTimes = operationStats.getIntervalResponseTimes();
+            if (interval == null) {
+                interval = responseTimes.copy();
+            } else {
+                interval.add(responseTimes);
+            }
+            errors += operationStats.getIntervalErrors();
+        }
+        out.printf("%8.0f %10.1f %8d %10.2f %10.2f %10.2f%n", elapsedSeconds,
+                interval.getTotalCount() / intervalSeconds, errors,
+                interval.getValueAtPercentile(50) / 1000.0,
+                interval.getValueAtPercentile(99) / 1000.0,
+                interval.getMaxValue() / 1000.0);
+    }
+
+    private void connection(int index, long startNanos) {
+        Session session = fixture.session(index);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanIntervalNanos = 1e9 * options.concurrency() / options.rate();
+        // Spread the first requests over one interval so the connections do not fire in lockstep
+        long scheduled = startNanos + (long) (random.nextDouble() * meanIntervalNanos);
+
+        while (running) {
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+                continue;
+            }
+            Operation operation = pick(random);
+            long sent = System.nanoTime();
+            String failure = execute(operation, session);
+            long completed = System.nanoTime();
+            stats.get(operation).record(completed - scheduled, completed - sent, failure);
+
+            scheduled += options.arrival() == LoadTestOptions.Arrival.POISSON
+                    ? (long) (-Math.log(1.0 - random.nextDouble()) * meanIntervalNanos)
+                    : (long) meanIntervalNanos;
+        }
+    }
+
+    private Operation pick(ThreadLocalRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Mix weights are inconsistent");
+    }
+
+    /**
+     * Sends one request; returns null on a 2xx response, otherwise the failure reason
+     */
+    private String execute(Operation operation, Session session) {
+        try {
+            HttpResponse<String> response = client.send(
+                    operation.request(baseUrl, session, fixture.getAdminToken()), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                return "HTTP " + response.statusCode();
+            }
+            operation.onSuccess(session, response.body());
+            return null;
+        } catch (IOException e) {
+            return e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Interrupted";
+        }
+    }
+}
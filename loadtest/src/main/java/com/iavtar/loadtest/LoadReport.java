@@ -0,0 +1,118 @@
+package com.iavtar.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of the measurement phase: per-operation and overall latency percentiles and error rates.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final List<OperationStats> stats;
+    private final double seconds;
+    private final LoadTestOptions options;
+    private final Histogram overallResponseTimes;
+    private final long overallErrors;
+
+    LoadReport(List<OperationStats> stats, double seconds, LoadTestOptions options) {
+        this.stats = stats;
+        this.seconds = seconds;
+        this.options = options;
+
+        Histogram overall = null;
+        long errors = 0;
+        for (OperationStats operationStats : stats) {
+            if (overall == null) {
+                overall = operationStats.getResponseTimes().copy();
+            } else {
+                overall.add(operationStats.getResponseTimes());
+            }
+            errors += operationStats.getErrors();
+        }
+        this.overallResponseTimes = overall;
+        this.overallErrors = errors;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nResponse time in ms from scheduled start (corrected for coordinated omission);"
+                + " service time p99 is from actual send%n");
+        out.printf("%-12s %9s %9s %8s %8s %9s %9s %9s %9s %9s %12s%n", "operation", "requests", "req/s",
+                "errors", "error %", "p50", "p90", "p99", "p99.9", "max", "service p99");
+        for (OperationStats operationStats : stats) {
+            printRow(out, operationStats.getOperation().getDisplayName(), operationStats.getResponseTimes(),
+                    operationStats.getErrors(), operationStats.getServiceTimes().getValueAtPercentile(99));
+        }
+        printRow(out, "all", overallResponseTimes, overallErrors, Double.NaN);
+        out.printf("offered %.1f req/s, completed %.1f req/s%n", options.rate(),
+                overallResponseTimes.getTotalCount() / seconds);
+
+        for (OperationStats operationStats : stats) {
+            for (Map.Entry<String, Long> failure : operationStats.getFailures().entrySet()) {
+                out.printf("  %s: %d x %s%n", operationStats.getOperation().getDisplayName(),
+                        failure.getValue(), failure.getKey());
+            }
+        }
+    }
+
+    private void printRow(PrintStream out, String name, Histogram responseTimes, long errors, double serviceP99) {
+        long requests = responseTimes.getTotalCount();
+        out.printf("%-12s %9d %9.1f %8d %8.2f", name, requests, requests / seconds, errors, errorRate(requests, errors) * 100);
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.2f", millis(responseTimes.getValueAtPercentile(percentile)));
+        }
+        out.printf(" %9.2f", millis(responseTimes.getMaxValue()));
+        out.printf(Double.isNaN(serviceP99) ? " %12s%n" : " %12.2f%n", Double.isNaN(serviceP99) ? "" : millis(serviceP99));
+    }
+
+    /**
+     * Writes each operation's response time histogram to an HdrHistogram log, tagged with the operation
+     * name, for plotting or comparison with a previous run
+     */
+    void writeHistogramLog(String path) throws FileNotFoundException {
+        try (PrintStream file = new PrintStream(path)) {
+            HistogramLogWriter writer = new HistogramLogWriter(file);
+            writer.outputComment("ecom-service load test, response times in microseconds");
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            for (OperationStats operationStats : stats) {
+                Histogram histogram = operationStats.getResponseTimes().copy();
+                histogram.setTag(operationStats.getOperation().getDisplayName());
+                histogram.setStartTimeStamp(0);
+                histogram.setEndTimeStamp((long) (seconds * 1000));
+                writer.outputIntervalHistogram(histogram);
+            }
+        }
+    }
+
+    /**
+     * Checks the configured limits; returns one message per limit exceeded
+     */
+    List<String> violations() {
+        List<String> violations = new ArrayList<>();
+        double errorRate = errorRate(overallResponseTimes.getTotalCount(), overallErrors);
+        if (options.maxErrorRate() != null && errorRate > options.maxErrorRate()) {
+            violations.add(String.format("error rate %.4f exceeds %.4f", errorRate, options.maxErrorRate()));
+        }
+        double p99 = millis(overallResponseTimes.getValueAtPercentile(99));
+        if (options.maxP99Millis() != null && p99 > options.maxP99Millis()) {
+            violations.add(String.format("p99 %.2f ms exceeds %.2f ms", p99, options.maxP99Millis()));
+        }
+        return violations;
+    }
+
+    private static double errorRate(long requests, long errors) {
+        return requests == 0 ? 0.0 : (double) errors / requests;
+    }
+
+    private static double millis(double micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.iavtar.loadtest;
+
+import com.iavtar.Application;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the web application.
+ * <p>
+ * Boots {@link Application} in-process on a random port with a private H2 database, seeds users and an
+ * administrator, then offers a weighted mix of logins, token refreshes, user reads, role checks and audit
+ * queries at a fixed arrival rate (see {@link LoadDriver}). Prints coordinated-omission-corrected latency
+ * percentiles and error rates per operation, and exits with status 1 if a {@code --max-*} limit is exceeded,
+ * so it can gate a build.
+ * <pre>
+ * java -cp loadtest.jar:... com.iavtar.loadtest.LoadTest \
+ *      --rate=200 --concurrency=32 --arrival=poisson --warmup=10 --duration=30 \
+ *      --mix=user-read:50,role-check:20,audit:10,login:10,refresh:10 \
+ *      --max-error-rate=0.01 --max-p99-ms=250 --hlog=loadtest.hlog
+ * </pre>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        LoadReport report;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .run(applicationArguments(options))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            System.out.printf("seeding %d users on %s%n", options.users(), baseUrl);
+            LoadTestFixture fixture = LoadTestFixture.seed(context, client, baseUrl, options.users());
+            report = new LoadDriver(client, baseUrl, fixture, options).run(System.out);
+        }
+
+        report.print(System.out);
+        if (options.histogramLog() != null) {
+            report.writeHistogramLog(options.histogramLog());
+            System.out.printf("histograms written to %s%n", options.histogramLog());
+        }
+        List<String> violations = report.violations();
+        for (String violation : violations) {
+            System.out.printf("FAILED: %s%n", violation);
+        }
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Random port, private H2 database and quiet logging, so the run measures request handling rather
+     * than console output; {@code --app.*} options are appended and win over these
+     */
+    private static String[] applicationArguments(LoadTestOptions options) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;NON_KEYWORDS=USER",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.iavtar=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        arguments.addAll(options.applicationArguments());
+        return arguments.toArray(String[]::new);
+    }
+}
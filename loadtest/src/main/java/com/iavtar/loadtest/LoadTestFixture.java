@@ -0,0 +1,102 @@
+package com.iavtar.loadtest;
+
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.infrastructure.repository.RoleRepository;
+import com.iavtar.infrastructure.repository.UserRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Users and tokens the load test runs with.
+ * <p>
+ * Regular users sign up through {@code /api/auth/register}, as real clients would. There is no
+ * endpoint that grants ADMIN to a first user, so the administrator is written straight to the
+ * database through the application's own repositories, then logs in over HTTP.
+ */
+final class LoadTestFixture {
+
+    static final String PASSWORD = "loadtest_password";
+    static final String ADMIN_USERNAME = "loadtest_admin";
+
+    private final List<Session> sessions;
+    private final String adminToken;
+
+    private LoadTestFixture(List<Session> sessions, String adminToken) {
+        this.sessions = sessions;
+        this.adminToken = adminToken;
+    }
+
+    static LoadTestFixture seed(ConfigurableApplicationContext context, HttpClient client, String baseUrl, int users)
+            throws IOException, InterruptedException {
+        createAdministrator(context);
+        String adminToken = JsonFields.string(send(client, Operation.post(baseUrl + "/api/auth/login",
+                credentials(ADMIN_USERNAME))), "accessToken");
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<Session> sessions = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String username = "loadtest_user_" + i;
+            String body = send(client, Operation.post(baseUrl + "/api/auth/register", credentials(username)));
+            long userId = userRepository.findByUsername(username)
+                    .map(User::getId)
+                    .orElseThrow(() -> new IllegalStateException("Registered user not found: " + username));
+            sessions.add(new Session(username, PASSWORD, userId, JsonFields.string(body, "transactionId"),
+                    JsonFields.string(body, "accessToken"), JsonFields.string(body, "refreshToken")));
+        }
+        return new LoadTestFixture(sessions, adminToken);
+    }
+
+    private static void createAdministrator(ConfigurableApplicationContext context) {
+        RoleRepository roleRepository = context.getBean(RoleRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        PasswordEncoder passwordEncoder = context.getBean(PasswordEncoder.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            Role role = roleRepository.findByName("ADMIN").orElseGet(() -> {
+                Role created = new Role();
+                created.setName("ADMIN");
+                created.setActive(true);
+                return roleRepository.save(created);
+            });
+            User admin = new User();
+            admin.setUsername(ADMIN_USERNAME);
+            admin.setPassword(passwordEncoder.encode(PASSWORD));
+            admin.setActive(true);
+            admin.addRole(role);
+            userRepository.save(admin);
+        });
+    }
+
+    private static String credentials(String username) {
+        return "{\"username\":" + JsonFields.quote(username) + ",\"password\":" + JsonFields.quote(PASSWORD) + "}";
+    }
+
+    private static String send(HttpClient client, HttpRequest request)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Session for the given connection; connections share users round-robin but not tokens
+     */
+    Session session(int connection) {
+        return sessions.get(connection % sessions.size()).copy();
+    }
+
+    String getAdminToken() {
+        return adminToken;
+    }
+}
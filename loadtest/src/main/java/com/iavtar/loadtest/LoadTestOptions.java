@@ -0,0 +1,100 @@
+package com.iavtar.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line settings of a load test run.
+ * <p>
+ * Arguments are {@code --key=value}. Keys starting with {@code app.} are passed to the application
+ * with the prefix removed, e.g. {@code --app.spring.threads.virtual.enabled=true}.
+ */
+record LoadTestOptions(double rate,
+                       int concurrency,
+                       Arrival arrival,
+                       int warmupSeconds,
+                       int durationSeconds,
+                       int reportIntervalSeconds,
+                       int users,
+                       Map<Operation, Integer> mix,
+                       String histogramLog,
+                       Double maxErrorRate,
+                       Double maxP99Millis,
+                       List<String> applicationArguments) {
+
+    static final String DEFAULT_MIX = "user-read:50,role-check:20,audit:10,login:10,refresh:10";
+
+    /**
+     * How request start times are spaced on each connection
+     */
+    enum Arrival {
+        /** Fixed interval, as wrk2 does */
+        CONSTANT,
+        /** Exponentially distributed intervals, i.e. Poisson arrivals at the target rate */
+        POISSON
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            if (key.startsWith("app.")) {
+                applicationArguments.add("--" + key.substring(4) + "=" + value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        LoadTestOptions parsed = new LoadTestOptions(
+                Double.parseDouble(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("concurrency", "32")),
+                Arrival.valueOf(options.getOrDefault("arrival", "constant").toUpperCase()),
+                Integer.parseInt(options.getOrDefault("warmup", "10")),
+                Integer.parseInt(options.getOrDefault("duration", "30")),
+                Integer.parseInt(options.getOrDefault("report-interval", "5")),
+                Integer.parseInt(options.getOrDefault("users", "20")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                options.get("hlog"),
+                options.containsKey("max-error-rate") ? Double.valueOf(options.get("max-error-rate")) : null,
+                options.containsKey("max-p99-ms") ? Double.valueOf(options.get("max-p99-ms")) : null,
+                List.copyOf(applicationArguments));
+        if (parsed.rate <= 0 || parsed.concurrency <= 0 || parsed.users <= 0 || parsed.durationSeconds <= 0
+                || parsed.reportIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("rate, concurrency, users, duration and report-interval must be positive");
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses {@code name:weight,...}; operations left out are not issued
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be name:weight, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight must not be negative: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one operation");
+        }
+        return weights;
+    }
+}
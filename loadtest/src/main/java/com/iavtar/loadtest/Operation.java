@@ -0,0 +1,109 @@
+package com.iavtar.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * Requests in the load mix and how each one updates its session.
+ */
+enum Operation {
+
+    /** {@code POST /api/auth/login}: BCrypt check plus token issue */
+    LOGIN("login") {
+        @Override
+        HttpRequest request(String baseUrl, Session session, String adminToken) {
+            return post(baseUrl + "/api/auth/login", "{\"username\":" + JsonFields.quote(session.getUsername())
+                    + ",\"password\":" + JsonFields.quote(session.getPassword()) + "}");
+        }
+
+        @Override
+        void onSuccess(Session session, String body) {
+            session.updateTokens(JsonFields.string(body, "accessToken"), JsonFields.string(body, "refreshToken"));
+        }
+    },
+
+    /** {@code POST /api/auth/refresh}: refresh token exchange */
+    REFRESH("refresh") {
+        @Override
+        HttpRequest request(String baseUrl, Session session, String adminToken) {
+            return post(baseUrl + "/api/auth/refresh",
+                    "{\"refreshToken\":" + JsonFields.quote(session.getRefreshToken()) + "}");
+        }
+
+        @Override
+        void onSuccess(Session session, String body) {
+            session.updateTokens(JsonFields.string(body, "accessToken"), JsonFields.string(body, "refreshToken"));
+        }
+    },
+
+    /** {@code GET /api/users/{id}} as the user itself */
+    USER_READ("user-read") {
+        @Override
+        HttpRequest request(String baseUrl, Session session, String adminToken) {
+            return get(baseUrl + "/api/users/" + session.getUserId(), session.getAccessToken());
+        }
+    },
+
+    /** {@code GET /api/roles/users/{id}/has-role/USER} as an administrator */
+    ROLE_CHECK("role-check") {
+        @Override
+        HttpRequest request(String baseUrl, Session session, String adminToken) {
+            return get(baseUrl + "/api/roles/users/" + session.getUserId() + "/has-role/USER", adminToken);
+        }
+    },
+
+    /** {@code GET /api/transactions/audit/{transactionId}} as an administrator */
+    AUDIT_QUERY("audit") {
+        @Override
+        HttpRequest request(String baseUrl, Session session, String adminToken) {
+            return get(baseUrl + "/api/transactions/audit/" + session.getTransactionId(), adminToken);
+        }
+    };
+
+    static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String displayName;
+
+    Operation(String displayName) {
+        this.displayName = displayName;
+    }
+
+    abstract HttpRequest request(String baseUrl, Session session, String adminToken);
+
+    /**
+     * Applies a 2xx response body to the session; most operations leave it unchanged
+     */
+    void onSuccess(Session session, String body) {
+    }
+
+    String getDisplayName() {
+        return displayName;
+    }
+
+    static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.displayName.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + name + "'; expected one of "
+                + "login, refresh, user-read, role-check, audit");
+    }
+
+    static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    static HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+}
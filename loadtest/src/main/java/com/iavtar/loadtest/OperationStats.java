@@ -0,0 +1,121 @@
+package com.iavtar.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts of one operation.
+ * <p>
+ * Two latencies are kept per request, in microseconds:
+ * <ul>
+ *   <li>response time, from the moment the request was <em>scheduled</em> to be sent. A stalled
+ *       server delays every request queued behind it, and that delay is counted, so the percentiles
+ *       are corrected for coordinated omission.</li>
+ *   <li>service time, from the moment it was actually sent; what a closed-loop tool would report</li>
+ * </ul>
+ * Clients write to lock-free {@link Recorder}s; only the reporting thread calls {@link #drain}.
+ */
+final class OperationStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Operation operation;
+    private final Recorder responseTimes = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Recorder serviceTimes = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    private final Histogram totalResponseTimes = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram totalServiceTimes = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram intervalResponseTimes;
+    private Histogram intervalServiceTimes;
+    private long intervalErrors;
+    private long totalErrors;
+    private final Map<String, Long> totalFailures = new TreeMap<>();
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Records a completed request; {@code failure} is null on success, otherwise a short reason
+     * such as {@code HTTP 500} or the exception class
+     */
+    void record(long responseNanos, long serviceNanos, String failure) {
+        responseTimes.recordValue(clamp(responseNanos));
+        serviceTimes.recordValue(clamp(serviceNanos));
+        if (failure != null) {
+            errors.increment();
+            failures.computeIfAbsent(failure, reason -> new LongAdder()).increment();
+        }
+    }
+
+    private static long clamp(long nanos) {
+        return Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    /**
+     * Collects what was recorded since the last call, adding it to the totals when {@code measuring}
+     */
+    void drain(boolean measuring) {
+        intervalResponseTimes = responseTimes.getIntervalHistogram(intervalResponseTimes);
+        intervalServiceTimes = serviceTimes.getIntervalHistogram(intervalServiceTimes);
+        intervalErrors = errors.sumThenReset();
+        if (measuring) {
+            totalResponseTimes.add(intervalResponseTimes);
+            totalServiceTimes.add(intervalServiceTimes);
+            totalErrors += intervalErrors;
+        }
+        failures.forEach((reason, count) -> {
+            long intervalCount = count.sumThenReset();
+            if (measuring && intervalCount > 0) {
+                totalFailures.merge(reason, intervalCount, Long::sum);
+            }
+        });
+    }
+
+    /**
+     * Response times recorded between the last two {@link #drain} calls
+     */
+    Histogram getIntervalResponseTimes() {
+        return intervalResponseTimes;
+    }
+
+    long getIntervalErrors() {
+        return intervalErrors;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    Histogram getResponseTimes() {
+        return totalResponseTimes;
+    }
+
+    Histogram getServiceTimes() {
+        return totalServiceTimes;
+    }
+
+    long getRequests() {
+        return totalResponseTimes.getTotalCount();
+    }
+
+    long getErrors() {
+        return totalErrors;
+    }
+
+    /**
+     * Failure counts by reason during the measurement, in name order
+     */
+    Map<String, Long> getFailures() {
+        return totalFailures;
+    }
+}
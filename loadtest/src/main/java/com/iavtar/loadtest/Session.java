@@ -0,0 +1,69 @@
+package com.iavtar.loadtest;
+
+/**
+ * Credentials and identifiers one simulated client works with.
+ * <p>
+ * Each connection owns its session, so the tokens are only touched by one thread.
+ */
+final class Session {
+
+    private final String username;
+    private final String password;
+    private final long userId;
+    private final String transactionId;
+    private String accessToken;
+    private String refreshToken;
+
+    Session(String username, String password, long userId, String transactionId,
+            String accessToken, String refreshToken) {
+        this.username = username;
+        this.password = password;
+        this.userId = userId;
+        this.transactionId = transactionId;
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+    }
+
+    /**
+     * A copy for another connection, starting from the same tokens
+     */
+    Session copy() {
+        return new Session(username, password, userId, transactionId, accessToken, refreshToken);
+    }
+
+    String getUsername() {
+        return username;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Transaction ID the user was registered under; the key for audit trail queries
+     */
+    String getTransactionId() {
+        return transactionId;
+    }
+
+    String getAccessToken() {
+        return accessToken;
+    }
+
+    String getRefreshToken() {
+        return refreshToken;
+    }
+
+    void updateTokens(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            this.accessToken = accessToken;
+        }
+        if (refreshToken != null) {
+            this.refreshToken = refreshToken;
+        }
+    }
+}
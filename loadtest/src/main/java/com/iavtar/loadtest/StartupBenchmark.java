@@ -0,0 +1,141 @@
+package com.iavtar.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cold-start benchmark: time from launching a fresh JVM to the first successful login.
+ * <p>
+ * Each run starts the application as a separate process and polls it every 10 ms. It records when the
+ * first HTTP response arrives (the port is open), when the readiness probe ({@code --ready-path}) reports
+ * UP, as a load balancer would wait for, and when {@code POST /api/auth/login} then first returns an
+ * access token. The user is registered first unless {@code --register=false} (e.g. against a database
+ * produced by the dataset generator). The process is then stopped and the next run starts cold.
+ * Application output goes to {@code --log-dir}.
+ * <pre>
+ * # baseline, from the loadtest classpath
+ * java -cp loadtest.jar:... com.iavtar.loadtest.StartupBenchmark --runs=5
+ * # fast-startup jar with its CDS archive (scripts/fast-startup.sh build)
+ * java -cp loadtest.jar:... com.iavtar.loadtest.StartupBenchmark --label=fast-startup \
+ *      --jar=web/target/fast-startup/web-1.0-SNAPSHOT-exec.jar \
+ *      --jvm-args="-XX:SharedArchiveFile=web/target/fast-startup/application.jsa -Dspring.aot.enabled=true" \
+ *      --app.spring.profiles.active=fast-startup
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final long POLL_INTERVAL_MS = 10;
+
+    record Run(long firstResponseMillis, long readyMillis, long firstLoginMillis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmarkOptions options = StartupBenchmarkOptions.parse(args);
+        Files.createDirectories(options.logDirectory());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        System.out.printf("startup benchmark '%s': %s%n", options.label(), String.join(" ", options.command()));
+        List<Run> runs = new ArrayList<>();
+        for (int i = 1; i <= options.runs(); i++) {
+            Run run = measure(client, options, options.logDirectory().resolve(options.label() + "-" + i + ".log"));
+            runs.add(run);
+            System.out.printf("run %d: first response %5d ms, ready %5d ms, first login %5d ms%n",
+                    i, run.firstResponseMillis(), run.readyMillis(), run.firstLoginMillis());
+        }
+
+        System.out.printf("%n%-16s %8s %8s %8s%n", options.label(), "min", "median", "max");
+        summary("first response", runs, Run::firstResponseMillis);
+        summary("ready", runs, Run::readyMillis);
+        summary("first login", runs, Run::firstLoginMillis);
+    }
+
+    private static Run measure(HttpClient client, StartupBenchmarkOptions options, Path log) throws Exception {
+        String baseUrl = "http://localhost:" + options.port();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(options.command())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(options.timeoutSeconds());
+            long firstResponse = -1;
+            long ready = -1;
+            boolean registered = !options.register();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with status " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (ready < 0) {
+                        int status = get(client, baseUrl + options.readyPath()).statusCode();
+                        firstResponse = firstResponse < 0 ? System.nanoTime() : firstResponse;
+                        if (status != 200) {
+                            Thread.sleep(POLL_INTERVAL_MS);
+                            continue;
+                        }
+                        ready = System.nanoTime();
+                    }
+                    if (!registered) {
+                        // fails if the user already exists, e.g. in a persistent database; the login decides
+                        registered = post(client, baseUrl + "/api/auth/register", credentials(options)).statusCode() == 200;
+                    }
+                    HttpResponse<String> login = post(client, baseUrl + "/api/auth/login", credentials(options));
+                    if (login.statusCode() == 200 && JsonFields.string(login.body(), "accessToken") != null) {
+                        return new Run(millisSince(start, firstResponse), millisSince(start, ready),
+                                millisSince(start, System.nanoTime()));
+                    }
+                } catch (IOException notListening) {
+                    // port not open yet
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+            throw new IllegalStateException("No successful login within " + options.timeoutSeconds() + " s, see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> get(HttpClient client, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String credentials(StartupBenchmarkOptions options) {
+        return "{\"username\":" + JsonFields.quote(options.username())
+                + ",\"password\":" + JsonFields.quote(options.password()) + "}";
+    }
+
+    private static long millisSince(long start, long end) {
+        return TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+    private static void summary(String name, List<Run> runs, ToLongFunction<Run> metric) {
+        long[] values = runs.stream().mapToLong(metric).sorted().toArray();
+        System.out.printf("%-16s %8d %8d %8d%n", name, values[0], values[values.length / 2], values[values.length - 1]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.iavtar.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line settings of a startup benchmark run.
+ * <p>
+ * Arguments are {@code --key=value}; {@code --app.*} options are passed to the application as in
+ * {@link LoadTestOptions}. Without {@code --jar} the application is started from this process's classpath.
+ */
+record StartupBenchmarkOptions(String label,
+                               int runs,
+                               int timeoutSeconds,
+                               String java,
+                               Path jar,
+                               List<String> jvmArguments,
+                               int port,
+                               String readyPath,
+                               String username,
+                               String password,
+                               boolean register,
+                               Path logDirectory,
+                               List<String> applicationArguments) {
+
+    static StartupBenchmarkOptions parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArguments = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String key = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+            String value = separator < 0 ? "true" : arg.substring(separator + 1);
+            if (key.startsWith("app.")) {
+                applicationArguments.add("--" + key.substring(4) + "=" + value);
+            } else {
+                options.put(key, value);
+            }
+        }
+
+        String jvmArgs = options.getOrDefault("jvm-args", "").trim();
+        StartupBenchmarkOptions parsed = new StartupBenchmarkOptions(
+                options.getOrDefault("label", options.containsKey("jar") ? "jar" : "classpath"),
+                Integer.parseInt(options.getOrDefault("runs", "5")),
+                Integer.parseInt(options.getOrDefault("timeout", "120")),
+                options.getOrDefault("java", Path.of(System.getProperty("java.home"), "bin", "java").toString()),
+                options.containsKey("jar") ? Path.of(options.get("jar")) : null,
+                jvmArgs.isEmpty() ? List.of() : List.of(jvmArgs.split("\\s+")),
+                Integer.parseInt(options.getOrDefault("port", "18080")),
+                options.getOrDefault("ready-path", "/actuator/health/readiness"),
+                options.getOrDefault("username", "startup_user"),
+                options.getOrDefault("password", "startup-password"),
+                Boolean.parseBoolean(options.getOrDefault("register", "true")),
+                Path.of(options.getOrDefault("log-dir", "target/startup")),
+                List.copyOf(applicationArguments));
+        if (parsed.runs <= 0 || parsed.timeoutSeconds <= 0) {
+            throw new IllegalArgumentException("runs and timeout must be positive");
+        }
+        return parsed;
+    }
+
+    /**
+     * The command that starts one application instance
+     */
+    List<String> command() {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArguments);
+        if (jar != null) {
+            command.addAll(Arrays.asList("-jar", jar.toString()));
+        } else {
+            command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), "com.iavtar.Application"));
+        }
+        command.add("--server.port=" + port);
+        command.addAll(applicationArguments);
+        return command;
+    }
+}
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Fast-startup build and launch: AOT-processed jar, extracted for CDS, plus a class data sharing
+# archive recorded by a training run that stops right after the context has refreshed.
+#
+#   scripts/fast-startup.sh build        # mvn -Pfast-startup package, extract, training run
+#   scripts/fast-startup.sh run [args]   # start with AOT, the CDS archive and the fast-startup profile
+#
+# The training run starts the full context, so it needs the same database settings as production
+# (pass them through TRAINING_ARGS, e.g. --spring.profiles.active=fast-startup,prod). Rebuild the
+# archive whenever the jar or the JDK changes; a stale archive is ignored with a warning.
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=$(realpath -m "${FAST_STARTUP_DIR:-$ROOT/web/target/fast-startup}")
+JAR=web-1.0-SNAPSHOT-exec.jar
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+case "${1:-}" in
+  build)
+    (cd "$ROOT" && mvn -B -q -Pfast-startup -pl web -am package -DskipTests)
+    rm -rf "$OUT"
+    "$JAVA" -Djarmode=tools -jar "$ROOT/web/target/$JAR" extract --destination "$OUT"
+    # CDS checks the classpath by path: launch with the same absolute jar path as here
+    "$JAVA" -XX:ArchiveClassesAtExit="$OUT/application.jsa" -Dspring.aot.enabled=true \
+        -Dspring.context.exit=onRefresh -jar "$OUT/$JAR" ${TRAINING_ARGS:---spring.profiles.active=fast-startup}
+    echo "fast-startup image in $OUT"
+    ;;
+  run)
+    shift
+    exec "$JAVA" ${JAVA_OPTS:-} -XX:SharedArchiveFile="$OUT/application.jsa" -Dspring.aot.enabled=true \
+        -jar "$OUT/$JAR" --spring.profiles.active="${SPRING_PROFILES_ACTIVE:-fast-startup}" "$@"
+    ;;
+  *)
+    echo "usage: $0 build | run [application arguments]" >&2
+    exit 2
+    ;;
+esac
@@ -0,0 +1,18 @@
+package com.iavtar.security.authentication;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * {@link BadCredentialsException} without a stack trace, thrown for a wrong password
+ */
+public class InvalidPasswordException extends BadCredentialsException {
+
+    public InvalidPasswordException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
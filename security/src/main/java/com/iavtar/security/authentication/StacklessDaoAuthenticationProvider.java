@@ -0,0 +1,55 @@
+package com.iavtar.security.authentication;
+
+import com.iavtar.security.service.PasswordRehashService;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * {@link DaoAuthenticationProvider} whose failed logins do not capture stack traces.
+ * <p>
+ * A wrong password raises {@link InvalidPasswordException}. An unknown user's {@link UnknownUserException}
+ * is passed through instead of being replaced by a new {@code BadCredentialsException}, so callers must
+ * treat both alike (as {@code AuthenticationService} does) to keep unknown usernames indistinguishable.
+ * The timing-attack protection for unknown users is unchanged.
+ * <p>
+ * A successful login whose stored hash is below the current policy hands the upgrade to the
+ * {@link PasswordRehashService}, which runs it in the background, instead of rehashing on the request
+ * thread as {@code DaoAuthenticationProvider} does with a {@code UserDetailsPasswordService}.
+ */
+public class StacklessDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private PasswordRehashService passwordRehashService;
+
+    public StacklessDaoAuthenticationProvider(UserDetailsService userDetailsService) {
+        super(userDetailsService);
+        setHideUserNotFoundExceptions(false);
+    }
+
+    public void setPasswordRehashService(PasswordRehashService passwordRehashService) {
+        this.passwordRehashService = passwordRehashService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        Object credentials = authentication.getCredentials();
+        if (passwordRehashService != null && credentials != null) {
+            passwordRehashService.rehashIfNeeded(user.getUsername(), user.getPassword(), credentials.toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials == null || !getPasswordEncoder().matches(credentials.toString(), userDetails.getPassword())) {
+            logger.debug("Failed to authenticate since password does not match stored value");
+            throw new InvalidPasswordException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.iavtar.security.authentication;
+
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * {@link UsernameNotFoundException} without a stack trace: unknown and inactive usernames are an expected
+ * outcome of a login attempt, and cheap for a client to provoke at volume
+ */
+public class UnknownUserException extends UsernameNotFoundException {
+
+    public UnknownUserException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,167 @@
+package com.iavtar.security.authorization;
+
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.enums.Permission;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Access decisions compiled from the role catalog: for each {@link Route}, the bitmask of the roles allowed
+ * on it.
+ * <p>
+ * Every role whose effective permissions (its own and, transitively, those of its parents) are not empty
+ * gets one of 62 bits; the two top bits stand for anonymous and for any authenticated caller. A caller's
+ * mask is the bits of its {@code ROLE_} authorities, and a request is allowed when that mask shares a bit
+ * with its route's entry. The table is immutable; a catalog change compiles a new one.
+ */
+public final class AuthorizationTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationTable.class);
+
+    static final long ANONYMOUS = 1L << 63;
+    static final long AUTHENTICATED = 1L << 62;
+    static final int MAX_ROLES = 62;
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final long[] routeRoles;
+    private final Map<String, Long> roleBits;
+
+    private AuthorizationTable(long[] routeRoles, Map<String, Long> roleBits) {
+        this.routeRoles = routeRoles;
+        this.roleBits = roleBits;
+    }
+
+    /**
+     * @param roles active roles of the catalog
+     * @param defaultPermissions permissions of roles whose own are not set, and of roles not in the catalog
+     * @param defaultParents parents of roles whose own are not set
+     * @throws IllegalStateException if more than {@value #MAX_ROLES} roles hold permissions
+     */
+    public static AuthorizationTable compile(Collection<Role> roles,
+                                             Map<String, Set<Permission>> defaultPermissions,
+                                             Map<String, Set<String>> defaultParents) {
+        Map<String, Set<Permission>> own = new HashMap<>();
+        Map<String, Set<String>> parents = new HashMap<>();
+        defaultPermissions.forEach((name, permissions) -> {
+            own.put(name, permissions);
+            parents.put(name, defaultParents.getOrDefault(name, Set.of()));
+        });
+        for (Role role : roles) {
+            String name = role.getName();
+            own.put(name, role.getPermissions() != null ? permissions(name, role.getPermissions())
+                    : defaultPermissions.getOrDefault(name, Set.of()));
+            parents.put(name, role.getParents() != null ? role.getParents() : defaultParents.getOrDefault(name, Set.of()));
+        }
+
+        // Sorted, so the same catalog always gets the same bits
+        Map<String, Set<Permission>> effective = new TreeMap<>();
+        for (String name : own.keySet()) {
+            Set<Permission> permissions = effectivePermissions(name, own, parents);
+            if (!permissions.isEmpty()) {
+                effective.put(name, permissions);
+            }
+        }
+        if (effective.size() > MAX_ROLES) {
+            throw new IllegalStateException(effective.size() + " roles hold permissions; at most " + MAX_ROLES + " are supported");
+        }
+
+        Route[] routes = Route.values();
+        long[] routeRoles = new long[routes.length];
+        for (Route route : routes) {
+            routeRoles[route.ordinal()] = switch (route.access()) {
+                case PUBLIC -> ANONYMOUS | AUTHENTICATED;
+                case AUTHENTICATED -> AUTHENTICATED;
+                case PERMISSION -> 0L;
+            };
+        }
+        Map<String, Long> roleBits = new HashMap<>(effective.size() * 2);
+        int bit = 0;
+        for (Map.Entry<String, Set<Permission>> entry : effective.entrySet()) {
+            long mask = 1L << bit++;
+            roleBits.put(ROLE_PREFIX + entry.getKey(), mask);
+            for (Route route : routes) {
+                if (route.permission() != null && entry.getValue().contains(route.permission())) {
+                    routeRoles[route.ordinal()] |= mask;
+                }
+            }
+        }
+        return new AuthorizationTable(routeRoles, Map.copyOf(roleBits));
+    }
+
+    /**
+     * Bits of a caller: anonymous, or authenticated plus one bit per role authority that holds permissions
+     */
+    public long mask(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+        long mask = AUTHENTICATED;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            Long bit = roleBits.get(authority.getAuthority());
+            if (bit != null) {
+                mask |= bit;
+            }
+        }
+        return mask;
+    }
+
+    public boolean isAllowed(Route route, long mask) {
+        return (routeRoles[route.ordinal()] & mask) != 0;
+    }
+
+    /**
+     * Number of roles that hold permissions
+     */
+    public int roleCount() {
+        return roleBits.size();
+    }
+
+    private static Set<Permission> permissions(String role, Set<String> names) {
+        Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+        for (String name : names) {
+            try {
+                permissions.add(Permission.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                // Stored before a permission was renamed or removed
+                logger.warn("Ignoring unknown permission {} of role {}", name, role);
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * Union of the permissions of {@code role} and of every role it reaches through parents; a cycle or a
+     * parent that is inactive or unknown ends that path
+     */
+    private static Set<Permission> effectivePermissions(String role, Map<String, Set<Permission>> own,
+                                                        Map<String, Set<String>> parents) {
+        Set<Permission> permissions = EnumSet.noneOf(Permission.class);
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(role);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (!own.containsKey(name) || !visited.add(name)) {
+                continue;
+            }
+            permissions.addAll(own.get(name));
+            parents.get(name).forEach(pending::push);
+        }
+        return permissions;
+    }
+}
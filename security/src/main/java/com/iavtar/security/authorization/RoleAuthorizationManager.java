@@ -0,0 +1,150 @@
+package com.iavtar.security.authorization;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.enums.Permission;
+import com.iavtar.service.RoleCatalogVersion;
+import com.iavtar.service.RoleService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes every request against the compiled {@link AuthorizationTable}: the request's {@link Route}
+ * and the caller's role mask decide with one array lookup.
+ * <p>
+ * The table is compiled at startup and again when {@link RoleCatalogVersion} moves or it is older than
+ * {@code role-catalog.max-staleness-ms}. One request compiles the new table while the others keep
+ * deciding with the previous one; a catalog that does not compile leaves the previous table in place.
+ * Roles whose permissions or parents are not set use {@code authorization.default-permissions} and
+ * {@code authorization.default-parents}, given as {@code ROLE=A,B;OTHER=C}.
+ */
+@Component
+public class RoleAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext>, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleAuthorizationManager.class);
+
+    private final RoleService roleService;
+    private final RoleCatalogVersion catalogVersion;
+    private final long maxStalenessNanos;
+    private final Map<String, Set<Permission>> defaultPermissions;
+    private final Map<String, Set<String>> defaultParents;
+    private final ReentrantLock compileLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public RoleAuthorizationManager(RoleService roleService,
+                                    RoleCatalogVersion catalogVersion,
+                                    @Value("${role-catalog.max-staleness-ms:30000}") long maxStalenessMs,
+                                    @Value("${authorization.default-permissions:ADMIN=USERS_IMPORT,USERS_DUPLICATES,ROLES,AUDIT,DIAGNOSTICS,METRICS,ACTUATOR;USER=USERS}") String defaultPermissions,
+                                    @Value("${authorization.default-parents:ADMIN=USER}") String defaultParents) {
+        this.roleService = roleService;
+        this.catalogVersion = catalogVersion;
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000L;
+        this.defaultPermissions = parse(defaultPermissions, Permission::valueOf);
+        this.defaultParents = parse(defaultParents, Function.identity());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        snapshot = compile();
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication, context);
+    }
+
+    /**
+     * @deprecated Spring Security calls {@link #authorize}; kept only because the interface still declares it
+     */
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication, context);
+    }
+
+    private AuthorizationDecision decide(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        AuthorizationTable table = current();
+        Route route = Route.of(context.getRequest());
+        return new AuthorizationDecision(table.isAllowed(route, table.mask(authentication.get())));
+    }
+
+    private AuthorizationTable current() {
+        Snapshot current = snapshot;
+        if (isFresh(current) || !compileLock.tryLock()) {
+            return current.table();
+        }
+        try {
+            current = snapshot;
+            if (!isFresh(current)) {
+                try {
+                    current = compile();
+                    snapshot = current;
+                } catch (RuntimeException e) {
+                    logger.error("Keeping the previous authorization table; compiling the role catalog failed for transaction ID: {}",
+                            TransactionContext.getTransactionId(), e);
+                    // Retry at the next catalog change or after the staleness interval
+                    current = new Snapshot(catalogVersion.current(), System.nanoTime(), current.table());
+                    snapshot = current;
+                }
+            }
+            return current.table();
+        } finally {
+            compileLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current.catalogVersion() == catalogVersion.current()
+                && System.nanoTime() - current.compiledAt() < maxStalenessNanos;
+    }
+
+    private Snapshot compile() {
+        // Read the version first: a write committing during the compilation bumps it again and forces another one
+        long version = catalogVersion.current();
+        long compiledAt = System.nanoTime();
+        AuthorizationTable table = AuthorizationTable.compile(roleService.findActiveRoles(), defaultPermissions, defaultParents);
+        logger.info("Authorization table compiled with {} routes and {} roles for transaction ID: {}",
+                Route.values().length, table.roleCount(), TransactionContext.getTransactionId());
+        return new Snapshot(version, compiledAt, table);
+    }
+
+    private static <T> Map<String, Set<T>> parse(String value, Function<String, T> element) {
+        Map<String, Set<T>> parsed = new HashMap<>();
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected ROLE=A,B but got: " + entry);
+            }
+            Set<T> elements = new LinkedHashSet<>();
+            for (String name : entry.substring(separator + 1).split(",")) {
+                if (!name.isBlank()) {
+                    elements.add(element.apply(name.strip()));
+                }
+            }
+            parsed.put(entry.substring(0, separator).strip(), elements);
+        }
+        return parsed;
+    }
+
+    private record Snapshot(long catalogVersion, long compiledAt, AuthorizationTable table) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.iavtar.security.authorization;
+
+import com.iavtar.domain.enums.Permission;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.Arrays;
+
+/**
+ * The secured routes, in matching order: a request belongs to the first route with a matching pattern.
+ * A route is public, open to any authenticated user, or needs a {@link Permission}.
+ */
+public enum Route {
+
+    AUTH(Access.PUBLIC, null, null, "/api/auth/**"),
+    HEALTH(Access.PUBLIC, null, null, "/actuator/health/**", "/actuator/info"),
+    METRICS(Access.PERMISSION, Permission.METRICS, null, "/actuator/prometheus"),
+    ACTUATOR(Access.PERMISSION, Permission.ACTUATOR, null, "/actuator/**"),
+    ERROR(Access.PUBLIC, null, null, "/error"),
+    API_DOCS(Access.PUBLIC, null, null, "/swagger-ui/**", "/v3/api-docs/**"),
+    USER_IMPORT(Access.PERMISSION, Permission.USERS_IMPORT, HttpMethod.POST, "/api/users/import"),
+    USER_DUPLICATES(Access.PERMISSION, Permission.USERS_DUPLICATES, null, "/api/users/duplicates/**"),
+    USERS(Access.PERMISSION, Permission.USERS, null, "/api/users/**"),
+    ROLES(Access.PERMISSION, Permission.ROLES, null, "/api/roles/**"),
+    TRANSACTIONS(Access.PERMISSION, Permission.AUDIT, null, "/api/transactions/**"),
+    DIAGNOSTICS(Access.PERMISSION, Permission.DIAGNOSTICS, null, "/api/diagnostics/**"),
+    OTHER(Access.AUTHENTICATED, null, null, "/**");
+
+    enum Access {
+        PUBLIC, AUTHENTICATED, PERMISSION
+    }
+
+    private static final Route[] ROUTES = values();
+
+    private final Access access;
+    private final Permission permission;
+    private final RequestMatcher[] matchers;
+
+    Route(Access access, Permission permission, HttpMethod method, String... patterns) {
+        this.access = access;
+        this.permission = permission;
+        this.matchers = Arrays.stream(patterns)
+                .map(pattern -> PathPatternRequestMatcher.withDefaults().matcher(method, pattern))
+                .toArray(RequestMatcher[]::new);
+    }
+
+    Access access() {
+        return access;
+    }
+
+    /**
+     * @return the permission the route needs, or null if it is public or open to any authenticated user
+     */
+    public Permission permission() {
+        return permission;
+    }
+
+    /**
+     * The route of a request; {@link #OTHER} if no earlier route matches
+     */
+    public static Route of(HttpServletRequest request) {
+        for (Route route : ROUTES) {
+            for (RequestMatcher matcher : route.matchers) {
+                if (matcher.matches(request)) {
+                    return route;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
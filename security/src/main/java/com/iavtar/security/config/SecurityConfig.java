@@ -1,20 +1,27 @@
 package com.iavtar.security.config;
 
+import com.iavtar.security.authentication.StacklessDaoAuthenticationProvider;
+import com.iavtar.security.authorization.RoleAuthorizationManager;
+import com.iavtar.security.crypto.BCryptCalibration;
+import com.iavtar.security.crypto.TimedPasswordEncoder;
 import com.iavtar.security.jwt.JwtAuthenticationFilter;
 import com.iavtar.security.service.CustomUserDetailsService;
+import com.iavtar.security.service.PasswordRehashService;
+import com.iavtar.service.PasswordHasher;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,52 +30,47 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
 public class SecurityConfig {
     
+    private static final String BCRYPT_ID = "bcrypt";
+    
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
     @Autowired
     private CustomUserDetailsService userDetailsService;
     
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private RoleAuthorizationManager roleAuthorizationManager;
+    
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
-            .authorizeHttpRequests(auth -> auth
-                // Public endpoints
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
-                .requestMatchers("/error").permitAll()
-                .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                
-                // Role-based endpoints
-                .requestMatchers("/api/users/**").hasAnyRole("ADMIN", "USER")
-                .requestMatchers("/api/roles/**").hasRole("ADMIN")
-                .requestMatchers("/api/transactions/**").hasRole("ADMIN")
-                
-                // All other requests require authentication
-                .anyRequest().authenticated()
-            )
+            // Route and role checks come from the compiled authorization table
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(roleAuthorizationManager))
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
-            .authenticationProvider(authenticationProvider())
+            .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         
         return http.build();
     }
     
     @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder, PasswordRehashService passwordRehashService) {
+        StacklessDaoAuthenticationProvider authProvider = new StacklessDaoAuthenticationProvider(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setPasswordRehashService(passwordRehashService);
         return authProvider;
     }
     
@@ -78,8 +80,31 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptCalibration bcryptCalibration(@Value("${security.password.bcrypt-strength:0}") int strength,
+                                               @Value("${security.password.target-verify-ms:100}") long targetMillis,
+                                               @Value("${security.password.min-strength:10}") int minStrength,
+                                               @Value("${security.password.max-strength:14}") int maxStrength) {
+        return strength > 0 ? BCryptCalibration.fixed(strength) : BCryptCalibration.calibrate(targetMillis, minStrength, maxStrength);
+    }
+    
+    /**
+     * New hashes are {@code {bcrypt}} at the calibrated cost; stored hashes without a prefix are BCrypt from
+     * before the prefix, and are upgraded on the next login like any hash below the current cost
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(BCryptCalibration bcryptCalibration) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptCalibration.strength());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new TimedPasswordEncoder(delegating, BCryptPasswordEncoder.class.getSimpleName(), meterRegistry);
+    }
+    
+    /**
+     * Hashes the plain-text passwords of bulk-imported and updated users like registrations do
+     */
+    @Bean
+    public PasswordHasher passwordHasher(PasswordEncoder passwordEncoder) {
+        return passwordEncoder::encode;
     }
     
     @Bean
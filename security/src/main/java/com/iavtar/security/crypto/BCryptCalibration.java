@@ -0,0 +1,85 @@
+package com.iavtar.security.crypto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BCrypt cost used for new password hashes, and how long one verification is expected to take at it.
+ * <p>
+ * {@link #calibrate} times a hash at {@code minStrength} on this machine and picks the highest cost
+ * whose extrapolated time (each step doubles it) stays within the target, so CPU per login is chosen
+ * explicitly rather than inherited from the library default. Nodes on different hardware may pick
+ * different costs; hashes are only ever upgraded, so fleets should pin {@code security.password.bcrypt-strength}.
+ *
+ * @param strength BCrypt log rounds for new hashes
+ * @param expectedMillis expected time to hash or verify one password at {@code strength}
+ * @param calibrated false if the strength was configured rather than measured
+ */
+public record BCryptCalibration(int strength, double expectedMillis, boolean calibrated) {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCalibration.class);
+
+    private static final int MIN_STRENGTH = 4;
+    private static final int MAX_STRENGTH = 31;
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    /**
+     * Uses {@code strength} as configured, timing it once for {@link #expectedMillis}
+     */
+    public static BCryptCalibration fixed(int strength) {
+        checkStrength(strength);
+        return new BCryptCalibration(strength, measureMillis(strength, 1), false);
+    }
+
+    /**
+     * Picks the highest strength in {@code [minStrength, maxStrength]} expected to verify within
+     * {@code targetMillis}; {@code minStrength} if even that is slower
+     */
+    public static BCryptCalibration calibrate(long targetMillis, int minStrength, int maxStrength) {
+        checkStrength(minStrength);
+        checkStrength(maxStrength);
+        if (minStrength > maxStrength) {
+            throw new IllegalArgumentException("min strength " + minStrength + " is above max strength " + maxStrength);
+        }
+        // The cheapest cost first, so the timed runs below are compiled code
+        measureMillis(MIN_STRENGTH, SAMPLES);
+        double baseMillis = measureMillis(minStrength, SAMPLES);
+        int strength = minStrength;
+        double expectedMillis = baseMillis;
+        while (strength < maxStrength && expectedMillis * 2 <= targetMillis) {
+            strength++;
+            expectedMillis *= 2;
+        }
+        if (baseMillis > targetMillis) {
+            logger.warn("BCrypt cost {} takes {} ms here, above the {} ms target; using it anyway",
+                    minStrength, String.format("%.1f", baseMillis), targetMillis);
+        }
+        logger.info("Calibrated BCrypt cost {} (~{} ms per verification, target {} ms, cost {} measured at {} ms)",
+                strength, String.format("%.1f", expectedMillis), targetMillis, minStrength, String.format("%.1f", baseMillis));
+        return new BCryptCalibration(strength, expectedMillis, true);
+    }
+
+    private static void checkStrength(int strength) {
+        if (strength < MIN_STRENGTH || strength > MAX_STRENGTH) {
+            throw new IllegalArgumentException("BCrypt strength must be between 4 and 31, got " + strength);
+        }
+    }
+
+    /**
+     * Fastest of {@code samples} hashes at {@code strength}
+     */
+    private static double measureMillis(int strength, int samples) {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < samples; i++) {
+            String salt = BCrypt.gensalt(strength);
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.iavtar.security.crypto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long password hashing and verification take ({@code security.password.encode},
+ * {@code security.password.matches}). BCrypt is deliberately slow, so these timers show directly how
+ * much of login and registration latency, and of CPU, goes into it.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this(delegate, delegate.getClass().getSimpleName(), meterRegistry);
+    }
+
+    /**
+     * @param algorithm {@code encoder} tag value, for a delegate that only wraps the actual algorithm
+     */
+    public TimedPasswordEncoder(PasswordEncoder delegate, String algorithm, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("security.password.encode")
+                .description("Time to hash a password")
+                .tag("encoder", algorithm)
+                .register(meterRegistry);
+        this.matchTimer = matchesTimer(meterRegistry, algorithm, "match");
+        this.mismatchTimer = matchesTimer(meterRegistry, algorithm, "mismatch");
+    }
+
+    private static Timer matchesTimer(MeterRegistry meterRegistry, String algorithm, String outcome) {
+        return Timer.builder("security.password.matches")
+                .description("Time to verify a password against its hash")
+                .tag("encoder", algorithm)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
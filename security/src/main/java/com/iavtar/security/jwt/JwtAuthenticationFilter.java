@@ -1,6 +1,9 @@
 package com.iavtar.security.jwt;
 
+import com.iavtar.domain.context.RequestContext;
 import com.iavtar.domain.context.TransactionContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,53 +20,71 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
+    private final JwtTokenUtil jwtTokenUtil;
+    private final UserDetailsService userDetailsService;
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+    private final Timer verifyError;
     
     @Autowired
-    private UserDetailsService userDetailsService;
+    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, UserDetailsService userDetailsService, MeterRegistry meterRegistry) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.userDetailsService = userDetailsService;
+        this.verifyValid = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
+        this.verifyError = verifyTimer(meterRegistry, "error");
+    }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
+        String authenticatedUser = null;
+        String jwt = null;
+        Timer verifyTimer = null;
+        long verifyNanos = 0;
         try {
             final String authHeader = request.getHeader("Authorization");
             String transactionId = TransactionContext.getTransactionId();
             
             String username = null;
-            String jwt = null;
             
             // Extract JWT token from Authorization header
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 jwt = authHeader.substring(7);
+                verifyTimer = verifyError;
+                long start = System.nanoTime();
                 username = jwtTokenUtil.extractUsername(jwt);
+                verifyNanos += System.nanoTime() - start;
                 
-                // Set transaction ID from token if available
-                String tokenTransactionId = jwtTokenUtil.extractTransactionId(jwt);
-                if (tokenTransactionId != null) {
-                    TransactionContext.setTransactionId(tokenTransactionId);
-                    transactionId = tokenTransactionId;
+                // The request keeps its own transaction ID; the one the token was issued under is only logged
+                if (logger.isDebugEnabled()) {
+                    logger.debug("JWT token found for user: {} (issued under transaction ID: {}) with transaction ID: {}",
+                            username, jwtTokenUtil.extractTransactionId(jwt), transactionId);
                 }
-                
-                logger.debug("JWT token found for user: {} with transaction ID: {}", username, transactionId);
             }
             
             // Validate token and set authentication
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
                 
-                if (jwtTokenUtil.validateToken(jwt, userDetails)) {
+                long start = System.nanoTime();
+                boolean valid = jwtTokenUtil.validateToken(jwt, userDetails);
+                verifyNanos += System.nanoTime() - start;
+                verifyTimer = valid ? verifyValid : verifyInvalid;
+                if (valid) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    authenticatedUser = username;
                     
                     logger.info("Authentication successful for user: {} with transaction ID: {}", username, transactionId);
                 } else {
@@ -76,6 +97,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         e.getMessage(), TransactionContext.getTransactionId());
         }
         
-        filterChain.doFilter(request, response);
+        // Signature and claims checks only; the user lookup in between is timed by the datasource metrics
+        if (verifyTimer != null) {
+            verifyTimer.record(verifyNanos, TimeUnit.NANOSECONDS);
+        }
+        
+        RequestContext current = TransactionContext.current();
+        if (authenticatedUser == null || current == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        // Rest of the chain runs with the principal attached to the request context
+        try (TransactionContext.Scope ignored = TransactionContext.open(current.withPrincipal(authenticatedUser))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+    
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.verify")
+                .description("Time to parse and verify a JWT")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
-} 
\ No newline at end of file
+}
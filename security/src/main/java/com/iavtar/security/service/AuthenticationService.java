@@ -2,20 +2,33 @@ package com.iavtar.security.service;
 
 import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.domain.exception.DomainException;
+import com.iavtar.domain.exception.DuplicateResourceException;
+import com.iavtar.domain.exception.InvalidCredentialsException;
+import com.iavtar.domain.projection.UserCredentials;
 import com.iavtar.infrastructure.repository.UserRepository;
 import com.iavtar.security.dto.AuthRequest;
 import com.iavtar.security.dto.AuthResponse;
 import com.iavtar.security.jwt.JwtTokenUtil;
+import com.iavtar.service.UsernameBloomFilterService;
+import com.iavtar.service.activity.ActivityRollupService;
+import com.iavtar.service.invalidation.InvalidationBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -37,6 +50,18 @@ public class AuthenticationService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private UsernameBloomFilterService usernameBloomFilter;
+    
+    @Autowired
+    private InvalidationBus invalidationBus;
+    
+    @Autowired
+    private ActivityRollupService activityRollups;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     /**
      * Authenticate user and generate JWT tokens
      */
@@ -71,25 +96,27 @@ public class AuthenticationService {
                     transactionId
             );
             
+            activityRollups.record(ActivityMetric.LOGINS);
             logger.info("Authentication successful for user: {} with transaction ID: {}", 
                        userDetails.getUsername(), transactionId);
             
             return response;
             
-        } catch (BadCredentialsException e) {
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
             logger.warn("Authentication failed for user: {} with transaction ID: {}", 
                        authRequest.getUsername(), transactionId);
-            throw new RuntimeException("Invalid username or password");
+            throw new InvalidCredentialsException("Invalid username or password");
         } catch (Exception e) {
             logger.error("Authentication error for user: {} with transaction ID: {} - Error: {}", 
                         authRequest.getUsername(), transactionId, e.getMessage());
-            throw new RuntimeException("Authentication failed: " + e.getMessage());
+            throw new RuntimeException("Authentication failed: " + e.getMessage(), e);
         }
     }
     
     /**
      * Refresh JWT token
      */
+    @Transactional(readOnly = true)
     public AuthResponse refreshToken(String refreshToken) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Refreshing token with transaction ID: {}", transactionId);
@@ -98,45 +125,32 @@ public class AuthenticationService {
             // Validate refresh token
             if (!jwtTokenUtil.isRefreshToken(refreshToken)) {
                 logger.warn("Invalid refresh token provided with transaction ID: {}", transactionId);
-                throw new RuntimeException("Invalid refresh token");
+                throw new InvalidCredentialsException("Invalid refresh token");
             }
             
             String username = jwtTokenUtil.extractUsername(refreshToken);
-            User user = userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found: " + username));
+            UserCredentials credentials = userRepository.findCredentialsByUsername(username)
+                    .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
             
-            if (!user.isActive()) {
+            if (!credentials.active()) {
                 logger.warn("Inactive user attempted to refresh token: {} with transaction ID: {}", username, transactionId);
-                throw new RuntimeException("User is inactive");
+                throw new InvalidCredentialsException("User is inactive");
             }
             
-            // Create UserDetails for token generation
-            UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getUsername())
-                    .password(user.getPassword() != null ? user.getPassword() : "")
-                    .authorities(user.getRoles().stream()
-                            .filter(role -> role.isActive())
-                            .map(role -> new org.springframework.security.core.authority.SimpleGrantedAuthority("ROLE_" + role.getName()))
-                            .collect(Collectors.toList()))
-                    .build();
+            // Same authorities as at login
+            UserDetails userDetails = CustomUserDetailsService.toUserDetails(credentials);
             
             // Generate new tokens
             String newAccessToken = jwtTokenUtil.generateToken(userDetails);
             String newRefreshToken = jwtTokenUtil.generateRefreshToken(userDetails);
             
-            // Get user roles
-            Set<String> roles = user.getRoles().stream()
-                    .filter(role -> role.isActive())
-                    .map(role -> role.getName())
-                    .collect(Collectors.toSet());
-            
             AuthResponse response = new AuthResponse(
                     newAccessToken,
                     newRefreshToken,
                     jwtTokenUtil.getExpirationTime(),
                     jwtTokenUtil.getRefreshExpirationTime(),
-                    user.getUsername(),
-                    roles,
+                    credentials.username(),
+                    credentials.roleNames(),
                     transactionId
             );
             
@@ -144,9 +158,11 @@ public class AuthenticationService {
             
             return response;
             
+        } catch (DomainException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Token refresh failed with transaction ID: {} - Error: {}", transactionId, e.getMessage());
-            throw new RuntimeException("Token refresh failed: " + e.getMessage());
+            throw new RuntimeException("Token refresh failed: " + e.getMessage(), e);
         }
     }
     
@@ -159,9 +175,9 @@ public class AuthenticationService {
         
         try {
             // Check if user already exists
-            if (userRepository.existsByUsername(authRequest.getUsername())) {
+            if (usernameBloomFilter.existsByUsername(authRequest.getUsername())) {
                 logger.warn("User already exists: {} with transaction ID: {}", authRequest.getUsername(), transactionId);
-                throw new RuntimeException("Username already exists");
+                throw new DuplicateResourceException("Username already exists");
             }
             
             // Create new user
@@ -171,7 +187,14 @@ public class AuthenticationService {
             user.setActive(true);
             user.setTransactionId(transactionId);
             
-            User savedUser = userRepository.save(user);
+            // The change log entry commits with the user, or neither does
+            User savedUser = transactionTemplate.execute(status -> {
+                User saved = userRepository.save(user);
+                usernameBloomFilter.recordUsername(saved.getUsername());
+                invalidationBus.publish(ChangeTarget.USER, saved.getId());
+                activityRollups.record(ActivityMetric.USERS_CREATED);
+                return saved;
+            });
             
             // Create UserDetails for token generation
             UserDetails userDetails = org.springframework.security.core.userdetails.User.builder()
@@ -198,10 +221,16 @@ public class AuthenticationService {
             
             return response;
             
+        } catch (DomainException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration of the same username committed between the check and the insert
+            logger.warn("User already exists: {} with transaction ID: {}", authRequest.getUsername(), transactionId);
+            throw new DuplicateResourceException("Username already exists");
         } catch (Exception e) {
             logger.error("User registration failed for username: {} with transaction ID: {} - Error: {}", 
                         authRequest.getUsername(), transactionId, e.getMessage());
-            throw new RuntimeException("Registration failed: " + e.getMessage());
+            throw new RuntimeException("Registration failed: " + e.getMessage(), e);
         }
     }
 } 
\ No newline at end of file
@@ -1,8 +1,11 @@
 package com.iavtar.security.service;
 
 import com.iavtar.domain.context.TransactionContext;
-import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.UserCredentials;
 import com.iavtar.infrastructure.repository.UserRepository;
+import com.iavtar.security.authentication.UnknownUserException;
+import com.iavtar.service.LookupCoalescer;
+import com.iavtar.service.LookupCoalescer.Lookup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +14,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,45 +28,53 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private LookupCoalescer lookupCoalescer;
+    
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Loading user details for username: {} with transaction ID: {}", username, transactionId);
         
-        User user = userRepository.findByUsername(username)
+        // One joined query for the hash, active flag and active role names; the result may be shared with
+        // concurrent requests for the same username
+        UserCredentials credentials = lookupCoalescer.load(Lookup.USER_DETAILS, username, () -> userRepository.findCredentialsByUsername(username))
                 .orElseThrow(() -> {
                     logger.warn("User not found with username: {} for transaction ID: {}", username, transactionId);
-                    return new UsernameNotFoundException("User not found with username: " + username);
+                    return new UnknownUserException("User not found with username: " + username);
                 });
         
-        if (!user.isActive()) {
+        if (!credentials.active()) {
             logger.warn("Inactive user attempted to authenticate: {} with transaction ID: {}", username, transactionId);
-            throw new UsernameNotFoundException("User is inactive: " + username);
+            throw new UnknownUserException("User is inactive: " + username);
         }
         
-        // Convert user roles to Spring Security authorities
-        var authorities = user.getRoles().stream()
-                .filter(role -> role.isActive())
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getName()))
+        UserDetails userDetails = toUserDetails(credentials);
+        logger.info("User details loaded successfully for username: {} with {} roles and transaction ID: {}", 
+                   username, userDetails.getAuthorities().size(), transactionId);
+        return userDetails;
+    }
+    
+    /**
+     * Spring Security view of a user's credentials; a user without active roles gets the USER role
+     */
+    public static UserDetails toUserDetails(UserCredentials credentials) {
+        List<SimpleGrantedAuthority> authorities = credentials.roleNames().stream()
+                .map(roleName -> new SimpleGrantedAuthority("ROLE_" + roleName))
                 .collect(Collectors.toList());
-        
-        // Add default USER role if no roles assigned
         if (authorities.isEmpty()) {
             authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-            logger.debug("No roles found for user: {}, adding default USER role with transaction ID: {}", username, transactionId);
         }
         
-        logger.info("User details loaded successfully for username: {} with {} roles and transaction ID: {}", 
-                   username, authorities.size(), transactionId);
-        
         return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword() != null ? user.getPassword() : "") // Handle null passwords
+                .username(credentials.username())
+                .password(credentials.passwordHash() != null ? credentials.passwordHash() : "") // Handle null passwords
                 .authorities(authorities)
                 .accountExpired(false)
                 .accountLocked(false)
                 .credentialsExpired(false)
-                .disabled(!user.isActive())
+                .disabled(!credentials.active())
                 .build();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.iavtar.security.service;
+
+import com.iavtar.infrastructure.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Upgrades password hashes that fall below the current policy (an older BCrypt cost, or a hash without
+ * an encoder prefix) after a successful login, using the password the user just proved.
+ * <p>
+ * Hashing at the new cost and the write happen on one background thread, so the login that triggered
+ * them does not wait. The write only replaces the hash it started from; if the password changed
+ * meanwhile the upgrade is dropped. Upgrades beyond {@code security.password.rehash-queue-capacity}
+ * waiting are skipped and retried at the user's next login.
+ */
+@Service
+public class PasswordRehashService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordRehashService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transaction;
+    private final boolean enabled;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder upgraded = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public PasswordRehashService(UserRepository userRepository,
+                                 PasswordEncoder passwordEncoder,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${security.password.rehash-on-login:true}") boolean enabled,
+                                 @Value("${security.password.rehash-queue-capacity:1000}") int queueCapacity) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-rehash").daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Schedules an upgrade of {@code currentHash} if the policy asks for one; returns immediately
+     * @param rawPassword the password that was just verified against {@code currentHash}
+     */
+    public void rehashIfNeeded(String username, String currentHash, String rawPassword) {
+        if (!enabled || currentHash == null || currentHash.isEmpty() || !passwordEncoder.upgradeEncoding(currentHash)) {
+            return;
+        }
+        if (!pending.add(username)) {
+            return;
+        }
+        try {
+            executor.execute(() -> rehash(username, currentHash, rawPassword));
+        } catch (RejectedExecutionException e) {
+            pending.remove(username);
+            skipped.increment();
+        }
+    }
+
+    private void rehash(String username, String currentHash, String rawPassword) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            Integer replaced = transaction.execute(status -> userRepository.replacePasswordHash(username, currentHash, newHash));
+            if (replaced != null && replaced > 0) {
+                upgraded.increment();
+                logger.debug("Upgraded password hash of user: {}", username);
+            } else {
+                superseded.increment();
+            }
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("Failed to upgrade password hash of user: {} - Error: {}", username, e.getMessage());
+        } finally {
+            pending.remove(username);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hashes upgraded
+     */
+    public long getUpgraded() {
+        return upgraded.sum();
+    }
+
+    /**
+     * Upgrades dropped because the hash changed before the write
+     */
+    public long getSuperseded() {
+        return superseded.sum();
+    }
+
+    /**
+     * Upgrades not scheduled because the queue was full
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Upgrades that failed with an error
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,90 @@
+package com.iavtar.security.warmup;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.security.jwt.JwtTokenUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Exercises the JWT and BCrypt code paths before the application reports itself ready.
+ * <p>
+ * Runs as an {@link ApplicationRunner}, so it finishes before the readiness state moves to
+ * ACCEPTING_TRAFFIC, and the first logins after a scale-out run on warmed-up code instead of
+ * the interpreter. Work is bounded by {@code startup.warmup.duration-ms}. Password hashing here is
+ * recorded by the {@code security.password.*} timers like any other call.
+ */
+@Component
+public class AuthPathWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthPathWarmup.class);
+
+    private static final String WARMUP_PASSWORD = "warm-up-password";
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean enabled;
+    private final long durationMs;
+    private final int passwordEvery;
+
+    @Autowired
+    public AuthPathWarmup(JwtTokenUtil jwtTokenUtil,
+                          PasswordEncoder passwordEncoder,
+                          @Value("${startup.warmup.enabled:false}") boolean enabled,
+                          @Value("${startup.warmup.duration-ms:2000}") long durationMs,
+                          @Value("${startup.warmup.password-every:50}") int passwordEvery) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.passwordEncoder = passwordEncoder;
+        this.enabled = enabled;
+        this.durationMs = durationMs;
+        this.passwordEvery = Math.max(1, passwordEvery);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        try (TransactionContext.Scope ignored = TransactionContext.open(RequestContext.start(null, Duration.ofMillis(durationMs)))) {
+            String transactionId = TransactionContext.getTransactionId();
+            logger.info("Warming up JWT and password paths for up to {} ms with transaction ID: {}", durationMs, transactionId);
+
+            UserDetails user = User.withUsername("warmup_user")
+                    .password("")
+                    .authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                    .build();
+            String hash = passwordEncoder.encode(WARMUP_PASSWORD);
+
+            long deadline = System.nanoTime() + durationMs * 1_000_000L;
+            int tokens = 0;
+            int passwords = 0;
+            while (System.nanoTime() < deadline) {
+                String token = jwtTokenUtil.generateToken(user);
+                if (!jwtTokenUtil.validateToken(token, user) || !user.getUsername().equals(jwtTokenUtil.extractUsername(token))) {
+                    throw new IllegalStateException("Warm-up token failed validation");
+                }
+                jwtTokenUtil.isRefreshToken(jwtTokenUtil.generateRefreshToken(user));
+                tokens++;
+                if (tokens % passwordEvery == 0) {
+                    passwordEncoder.matches(WARMUP_PASSWORD, hash);
+                    passwordEncoder.matches("wrong-" + WARMUP_PASSWORD, hash);
+                    passwords++;
+                }
+            }
+            logger.info("Warm-up finished with {} token round trips and {} password checks for transaction ID: {}",
+                    tokens, passwords * 2, transactionId);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.iavtar.service;
+
+import com.iavtar.domain.util.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shares one database call between concurrent identical lookups on the hot read paths.
+ * <p>
+ * When many requests ask for the same user or role at the same moment (e.g. a popular account's
+ * token expiring), the first runs the query in its own read-only transaction and the others wait
+ * for its result. Results are shared between requests and must be treated as read-only.
+ * <p>
+ * Callers already inside a transaction are never coalesced: they may modify what they load, and
+ * must see their own uncommitted writes.
+ */
+@Component
+public class LookupCoalescer {
+
+    /**
+     * Coalesced lookups; each has its own in-flight table and counters
+     */
+    public enum Lookup {
+        USER_BY_ID("user_by_id"),
+        USER_BY_USERNAME("user_by_username"),
+        USER_DETAILS("user_details"),
+        ROLE_BY_NAME("role_by_name");
+
+        private final String tag;
+
+        Lookup(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Map<Lookup, SingleFlight<Object, Object>> flights = new EnumMap<>(Lookup.class);
+
+    @Autowired
+    public LookupCoalescer(PlatformTransactionManager transactionManager,
+                           @Value("${lookup-coalescing.enabled:true}") boolean enabled) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        for (Lookup lookup : Lookup.values()) {
+            flights.put(lookup, new SingleFlight<>());
+        }
+    }
+
+    /**
+     * Runs {@code loader}, or joins an identical load already in flight
+     * @param lookup which lookup this is
+     * @param key the lookup's argument, e.g. the username
+     * @param loader the repository call; runs in a new read-only transaction unless the caller has one
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> V load(Lookup lookup, K key, Supplier<V> loader) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return (V) flights.get(lookup).execute(key, () -> readOnlyTransaction.execute(status -> loader.get()));
+    }
+
+    /**
+     * Loads actually run for a lookup
+     */
+    public long getExecutions(Lookup lookup) {
+        return flights.get(lookup).getExecutions();
+    }
+
+    /**
+     * Calls of a lookup that shared a load already in flight
+     */
+    public long getCoalesced(Lookup lookup) {
+        return flights.get(lookup).getCoalesced();
+    }
+}
@@ -0,0 +1,11 @@
+package com.iavtar.service;
+
+/**
+ * Hashes plain-text passwords into the stored format; the application's password encoder, for code
+ * outside the security module
+ */
+@FunctionalInterface
+public interface PasswordHasher {
+
+    String hash(String password);
+}
@@ -0,0 +1,39 @@
+package com.iavtar.service;
+
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.service.invalidation.InvalidationBatch;
+import com.iavtar.service.invalidation.InvalidationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local version counter of the role catalog, bumped on every committed role write.
+ * <p>
+ * Readers that cache the catalog compare against {@link #current()} to know when to reload.
+ * The invalidation bus bumps it after a role write on this node commits, and when it reads role
+ * writes of other nodes from the change log, so a reader never reloads before the write is visible.
+ */
+@Component
+public class RoleCatalogVersion implements InvalidationListener {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Mark the catalog as changed
+     */
+    public void increment() {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onInvalidation(InvalidationBatch batch) {
+        if (batch.contains(ChangeTarget.ROLE)) {
+            increment();
+        }
+    }
+}
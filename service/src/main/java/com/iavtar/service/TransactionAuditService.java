@@ -2,16 +2,24 @@ package com.iavtar.service;
 
 import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.AuditRecord;
+import com.iavtar.domain.util.TransactionIdGenerator;
+import com.iavtar.infrastructure.repository.ChangeLogRepository;
 import com.iavtar.infrastructure.repository.UserRepository;
+import com.iavtar.service.audit.AuditArchive;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for transaction audit and business logic using transaction IDs
@@ -24,6 +32,12 @@ public class TransactionAuditService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+    
+    @Autowired
+    private AuditArchive auditArchive;
+    
     /**
      * Get audit trail for a specific transaction ID
      */
@@ -38,6 +52,46 @@ public class TransactionAuditService {
         return users;
     }
     
+    /**
+     * Get the user and role writes of a transaction, from the change log and its archive
+     */
+    public List<AuditRecord> getChangesByTransactionId(String transactionId) {
+        logger.info("Retrieving changes for transaction ID: {}", transactionId);
+        
+        List<AuditRecord> changes = merge(auditArchive.findByTransactionId(transactionId),
+                changeLogRepository.findAuditRecordsByTransactionId(transactionId), Integer.MAX_VALUE);
+        
+        logger.info("Found {} changes for transaction ID: {}", changes.size(), transactionId);
+        return changes;
+    }
+    
+    /**
+     * Get the user and role writes made in a date range, oldest first, from the change log and its archive
+     */
+    public List<AuditRecord> getChangesByDateRange(LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        String currentTransactionId = TransactionContext.getTransactionId();
+        logger.info("Retrieving up to {} changes from {} to {} with current transaction ID: {}", 
+                   limit, startDate, endDate, currentTransactionId);
+        
+        List<AuditRecord> changes = merge(auditArchive.findByCreatedAt(startDate, endDate, limit),
+                changeLogRepository.findAuditRecordsByCreatedAt(startDate, endDate, Limit.of(limit)), limit);
+        
+        logger.info("Found {} changes in date range with current transaction ID: {}", changes.size(), currentTransactionId);
+        return changes;
+    }
+    
+    /**
+     * Archived and live records in time order; an entry archived just before a crash may be in both
+     */
+    private static List<AuditRecord> merge(List<AuditRecord> archived, List<AuditRecord> live, int limit) {
+        Map<Long, AuditRecord> byId = new LinkedHashMap<>();
+        Stream.concat(live.stream(), archived.stream()).forEach(record -> byId.putIfAbsent(record.id(), record));
+        return byId.values().stream()
+                .sorted(Comparator.comparing(AuditRecord::createdAt).thenComparing(AuditRecord::id))
+                .limit(limit)
+                .toList();
+    }
+    
     /**
      * Get all transactions for a specific date range
      */
@@ -85,12 +139,8 @@ public class TransactionAuditService {
         logger.debug("Validating transaction ID: {} with current transaction ID: {}", 
                     transactionId, TransactionContext.getTransactionId());
         
-        if (transactionId == null || transactionId.trim().isEmpty()) {
-            return false;
-        }
-        
-        // Basic format validation: PREFIX-YYYYMMDDHHMMSS-XXXXX
-        boolean isValid = transactionId.matches("^[A-Z]+-\\d{14}-\\d{5}$");
+        // Accepts current node-aware IDs and the legacy PREFIX-YYYYMMDDHHMMSS-XXXXX format
+        boolean isValid = TransactionIdGenerator.isValidTransactionId(transactionId);
         
         logger.debug("Transaction ID validation result: {} for transaction ID: {}", isValid, transactionId);
         return isValid;
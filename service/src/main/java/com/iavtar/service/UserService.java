@@ -1,8 +1,10 @@
 package com.iavtar.service;
 
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.UserFields;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserService {
     
@@ -12,6 +14,10 @@ public interface UserService {
     
     Optional<User> findByUsername(String username);
     
+    Optional<UserFields> findFieldsById(Long id, Set<String> fields);
+    
+    Optional<UserFields> findFieldsByUsername(String username, Set<String> fields);
+    
     List<User> findAllUsers();
     
     User updateUser(User user);
@@ -0,0 +1,306 @@
+package com.iavtar.service;
+
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.domain.util.BloomFilter;
+import com.iavtar.infrastructure.repository.UserRepository;
+import com.iavtar.service.invalidation.InvalidationBatch;
+import com.iavtar.service.invalidation.InvalidationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over usernames that answers definite negatives without touching the database.
+ * <p>
+ * The filter is populated when the application is ready and kept current by the user write paths.
+ * Until it is populated (or while it is disabled) every check falls through to the database.
+ * Keys are case- and accent-folded so that a negative is also correct under MySQL's default
+ * case-insensitive collation; a folded collision just costs one confirming query.
+ * Usernames written on other nodes are added when the invalidation bus delivers their change log
+ * entries; until then (one poll interval) such a username can be reported absent, and only the
+ * unique constraint on {@code username} rejects a duplicate.
+ */
+@Service
+public class UsernameBloomFilterService implements InvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameBloomFilterService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final boolean enabled;
+    private final long minimumCapacity;
+    private final double falsePositiveRate;
+    private final double staleRebuildRatio;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private final AtomicBoolean rebuildInProgress = new AtomicBoolean(false);
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder confirmedPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder bypassedChecks = new LongAdder();
+
+    @Autowired
+    public UsernameBloomFilterService(UserRepository userRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${username-filter.enabled:true}") boolean enabled,
+                                      @Value("${username-filter.minimum-capacity:100000}") long minimumCapacity,
+                                      @Value("${username-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${username-filter.stale-rebuild-ratio:0.25}") double staleRebuildRatio) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.staleRebuildRatio = staleRebuildRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void populateOnStartup() {
+        if (!enabled) {
+            logger.info("Username Bloom filter is disabled; username checks will always query the database");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Checks whether a username exists, consulting the database only when the filter cannot rule it out
+     * @param username the username to check
+     * @return true if a user with this username exists
+     */
+    public boolean existsByUsername(String username) {
+        if (username == null) {
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current == null) {
+            bypassedChecks.increment();
+            return userRepository.existsByUsername(username);
+        }
+        if (!current.mightContain(normalize(username))) {
+            definiteNegatives.increment();
+            return false;
+        }
+        boolean exists = userRepository.existsByUsername(username);
+        if (exists) {
+            confirmedPositives.increment();
+        } else {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Records a username that was just written, once the current transaction commits; must be called for
+     * every created or renamed user. A rebuild only streams committed usernames, so adding one earlier
+     * could land in the old filter after the rebuild read past it, and be lost at the swap.
+     * @param username the stored username
+     */
+    public void recordUsername(String username) {
+        if (username == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(username);
+            }
+        });
+    }
+
+    private void add(String username) {
+        String key = normalize(username);
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(key);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+            if (current.insertions() > current.expectedInsertions()) {
+                scheduleRebuild("capacity exceeded");
+            }
+        }
+    }
+
+    /**
+     * Records that a user was removed. Bloom filters cannot forget keys, so deletions only
+     * count towards the stale-entry threshold that triggers a background rebuild.
+     */
+    public void recordDeletion() {
+        BloomFilter current = filter;
+        if (current == null) {
+            return;
+        }
+        long stale = staleEntries.incrementAndGet();
+        if (stale > current.insertions() * staleRebuildRatio) {
+            scheduleRebuild("stale entries");
+        }
+    }
+
+    /**
+     * Adds the usernames of users written on other nodes; users no longer found count as deletions
+     */
+    @Override
+    public void onInvalidation(InvalidationBatch batch) {
+        if (!batch.remote() || filter == null && rebuilding == null) {
+            return;
+        }
+        Set<Long> userIds = batch.ids(ChangeTarget.USER);
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<String> usernames = readOnlyTransaction.execute(status -> userRepository.findUsernamesByIdIn(userIds));
+        usernames.forEach(this::recordUsername);
+        for (int i = usernames.size(); i < userIds.size(); i++) {
+            recordDeletion();
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the database and swaps it in atomically.
+     * Usernames committed after the rebuild starts are added to both filters; earlier ones are streamed.
+     */
+    public void rebuild() {
+        if (!enabled || !rebuildInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long userCount = userRepository.count();
+            long capacity = Math.max(minimumCapacity, userCount * 2);
+            BloomFilter next = BloomFilter.create(capacity, falsePositiveRate);
+            rebuilding = next;
+            long staleAtStart = staleEntries.get();
+
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(username -> next.put(normalize(username)));
+                }
+            });
+
+            filter = next;
+            staleEntries.addAndGet(-staleAtStart);
+            logger.info("Username Bloom filter built with {} usernames in {} ms: {} bytes, {} hash functions, expected false-positive rate {}",
+                    next.insertions(), (System.nanoTime() - start) / 1_000_000, next.sizeInBytes(),
+                    next.hashFunctions(), String.format("%.5f", next.expectedFalsePositiveRate()));
+        } catch (RuntimeException e) {
+            logger.error("Failed to build username Bloom filter, falling back to database checks: {}", e.getMessage(), e);
+        } finally {
+            rebuilding = null;
+            rebuildInProgress.set(false);
+        }
+    }
+
+    private void scheduleRebuild(String reason) {
+        if (rebuildInProgress.get()) {
+            return;
+        }
+        logger.info("Scheduling username Bloom filter rebuild: {}", reason);
+        Thread.ofVirtual().name("username-filter-rebuild").start(this::rebuild);
+    }
+
+    /**
+     * Lookups answered without the database because the filter ruled the username out
+     */
+    public long getDefiniteNegatives() {
+        return definiteNegatives.sum();
+    }
+
+    /**
+     * Lookups the filter passed on to the database that found the username
+     */
+    public long getConfirmedPositives() {
+        return confirmedPositives.sum();
+    }
+
+    /**
+     * Lookups the filter passed on to the database that did not find the username
+     */
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Lookups that went straight to the database because the filter was disabled or not yet built
+     */
+    public long getBypassedChecks() {
+        return bypassedChecks.sum();
+    }
+
+    /**
+     * Memory used by the current filter, or 0 while it is not built
+     */
+    public long getMemoryBytes() {
+        BloomFilter current = filter;
+        return current != null ? current.sizeInBytes() : 0;
+    }
+
+    /**
+     * Reports memory footprint and false-positive rates of the current filter
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        BloomFilter current = filter;
+        statistics.put("enabled", enabled);
+        statistics.put("ready", current != null);
+        if (current != null) {
+            statistics.put("memoryBytes", current.sizeInBytes());
+            statistics.put("bitSize", current.bitSize());
+            statistics.put("hashFunctions", current.hashFunctions());
+            statistics.put("capacity", current.expectedInsertions());
+            statistics.put("insertions", current.insertions());
+            statistics.put("staleEntries", staleEntries.get());
+            statistics.put("expectedFalsePositiveRate", current.expectedFalsePositiveRate());
+            statistics.put("estimatedFalsePositiveRate", current.estimatedFalsePositiveRate());
+        }
+        long negatives = definiteNegatives.sum();
+        long observedFalsePositives = falsePositives.sum();
+        statistics.put("definiteNegatives", negatives);
+        statistics.put("confirmedPositives", confirmedPositives.sum());
+        statistics.put("falsePositives", observedFalsePositives);
+        statistics.put("bypassedChecks", bypassedChecks.sum());
+        long absentLookups = negatives + observedFalsePositives;
+        statistics.put("observedFalsePositiveRate",
+                absentLookups == 0 ? 0.0 : (double) observedFalsePositives / absentLookups);
+        return statistics;
+    }
+
+    static String normalize(String username) {
+        for (int i = 0; i < username.length(); i++) {
+            if (username.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(username, Normalizer.Form.NFD);
+                return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT).trim();
+            }
+        }
+        return username.toLowerCase(Locale.ROOT).trim();
+    }
+}
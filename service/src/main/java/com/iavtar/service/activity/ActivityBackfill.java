@@ -0,0 +1,125 @@
+package com.iavtar.service.activity;
+
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.enums.ActivityMetric;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Activity rollups of users and roles written without going through {@link ActivityRollupService}: rows
+ * that predate the rollups, or that were loaded straight into the database.
+ * <p>
+ * {@code USERS_CREATED} and {@code ROLES_CHANGED} are counted from {@code created_at}, grouped by the
+ * database into hour buckets and, from {@code minutesSince} on, minute buckets. Logins, and role changes
+ * other than creations, leave no trace to count. Every method works on the caller's connection and
+ * transaction, so the application and the {@code tools} loaders share it.
+ */
+public final class ActivityBackfill {
+
+    private static final String TABLE = "activity_rollups";
+
+    private static final String HOUR_FIELDS = "EXTRACT(YEAR FROM created_at), EXTRACT(MONTH FROM created_at), "
+            + "EXTRACT(DAY FROM created_at), EXTRACT(HOUR FROM created_at)";
+    private static final String MINUTE_FIELDS = HOUR_FIELDS + ", EXTRACT(MINUTE FROM created_at)";
+
+    private static final String ADD_EVENTS =
+            "UPDATE activity_rollups SET events = events + ? WHERE metric = ? AND granularity = ? AND bucket_start = ?";
+    private static final String INSERT_BUCKET =
+            "INSERT INTO activity_rollups (metric, granularity, bucket_start, events) VALUES (?, ?, ?, ?)";
+
+    private ActivityBackfill() {
+    }
+
+    /**
+     * Whether the rollup table exists and holds at least one bucket
+     */
+    public static boolean hasRollups(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+        try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, null)) {
+            if (!tables.next()) {
+                return false;
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT 1 FROM activity_rollups LIMIT 1")) {
+            return result.next();
+        }
+    }
+
+    /**
+     * Adds users and roles with a key above {@code afterUserId} and {@code afterRoleId}, created before
+     * {@code before} (null for any time), to the rollups
+     * @return buckets written
+     */
+    public static int backfill(Connection connection, long afterUserId, long afterRoleId, LocalDateTime before,
+                               LocalDateTime minutesSince) throws SQLException {
+        return backfill(connection, ActivityMetric.USERS_CREATED, "user", afterUserId, before, minutesSince)
+                + backfill(connection, ActivityMetric.ROLES_CHANGED, "roles", afterRoleId, before, minutesSince);
+    }
+
+    private static int backfill(Connection connection, ActivityMetric metric, String table, long afterId,
+                                LocalDateTime before, LocalDateTime minutesSince) throws SQLException {
+        String where = " FROM " + table + " WHERE id > ? AND created_at IS NOT NULL"
+                + (before != null ? " AND created_at < ?" : "");
+        int buckets = 0;
+        try (PreparedStatement hours = connection.prepareStatement(
+                "SELECT " + HOUR_FIELDS + ", COUNT(*)" + where + " GROUP BY " + HOUR_FIELDS);
+             PreparedStatement minutes = connection.prepareStatement(
+                     "SELECT " + MINUTE_FIELDS + ", COUNT(*)" + where + " AND created_at >= ? GROUP BY " + MINUTE_FIELDS);
+             PreparedStatement add = connection.prepareStatement(ADD_EVENTS);
+             PreparedStatement insert = connection.prepareStatement(INSERT_BUCKET)) {
+            bind(hours, afterId, before);
+            buckets += write(hours, add, insert, metric, ActivityGranularity.HOUR);
+            int next = bind(minutes, afterId, before);
+            minutes.setTimestamp(next, Timestamp.valueOf(minutesSince));
+            buckets += write(minutes, add, insert, metric, ActivityGranularity.MINUTE);
+        }
+        return buckets;
+    }
+
+    private static int bind(PreparedStatement query, long afterId, LocalDateTime before) throws SQLException {
+        query.setLong(1, afterId);
+        if (before == null) {
+            return 2;
+        }
+        query.setTimestamp(2, Timestamp.valueOf(before));
+        return 3;
+    }
+
+    private static int write(PreparedStatement query, PreparedStatement add, PreparedStatement insert,
+                             ActivityMetric metric, ActivityGranularity granularity) throws SQLException {
+        boolean minutes = granularity == ActivityGranularity.MINUTE;
+        int buckets = 0;
+        try (ResultSet result = query.executeQuery()) {
+            while (result.next()) {
+                LocalDateTime bucketStart = LocalDateTime.of(result.getInt(1), result.getInt(2), result.getInt(3),
+                        result.getInt(4), minutes ? result.getInt(5) : 0);
+                long events = result.getLong(minutes ? 6 : 5);
+                Timestamp start = Timestamp.valueOf(bucketStart);
+
+                add.setLong(1, events);
+                add.setString(2, metric.name());
+                add.setString(3, granularity.name());
+                add.setTimestamp(4, start);
+                if (add.executeUpdate() == 0) {
+                    insert.setString(1, metric.name());
+                    insert.setString(2, granularity.name());
+                    insert.setTimestamp(3, start);
+                    insert.setLong(4, events);
+                    insert.executeUpdate();
+                }
+                buckets++;
+            }
+        }
+        return buckets;
+    }
+}
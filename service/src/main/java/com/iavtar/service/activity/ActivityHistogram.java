@@ -0,0 +1,21 @@
+package com.iavtar.service.activity;
+
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.enums.ActivityMetric;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Event counts per time bucket: {@code counts.get(metric)[i]} is the number of events in the bucket
+ * starting at {@code start} plus {@code i} granularity units
+ * @param start start of the first bucket, the requested start rounded down to the granularity
+ * @param end end of the last bucket, the requested end rounded up to the granularity
+ */
+public record ActivityHistogram(ActivityGranularity granularity,
+                                LocalDateTime start,
+                                LocalDateTime end,
+                                int buckets,
+                                Map<ActivityMetric, long[]> counts,
+                                Map<ActivityMetric, Long> totals) {
+}
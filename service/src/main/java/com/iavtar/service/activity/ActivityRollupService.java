@@ -0,0 +1,282 @@
+package com.iavtar.service.activity;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.entity.ActivityRollup;
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.exception.InvalidRangeException;
+import com.iavtar.domain.projection.ActivityCount;
+import com.iavtar.infrastructure.repository.ActivityRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts user creations, role changes and logins into the {@code activity_rollups} table, and answers
+ * time-bucketed histograms of them from it.
+ * <p>
+ * {@link #record} only bumps an in-memory count for the current minute (after commit when called in a
+ * transaction). Every {@code activity-rollups.flush-interval-ms} the counts are added to both the minute
+ * and the hour rows of the table, so other nodes' counts are summed in and a histogram reads at most one
+ * row per bucket and metric, whatever the number of events. Minute rows are kept for
+ * {@code activity-rollups.minute-retention-days}; hour rows are kept.
+ * <p>
+ * The first node to start on an empty table backfills it from the {@code created_at} of the users and roles
+ * created before this service existed ({@link ActivityBackfill}), so histograms also cover the time before
+ * the rollups.
+ */
+@Service
+public class ActivityRollupService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityRollupService.class);
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final ActivityRollupRepository rollupRepository;
+    private final DataSource dataSource;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final long flushIntervalMs;
+    private final int maxBuckets;
+    private final int minuteRetentionDays;
+    /** Users and roles created before this are counted by the backfill, later ones by {@link #record} */
+    private final LocalDateTime recordingSince;
+
+    /** Events recorded per minute and not yet taken by a flush */
+    private final Map<Bucket, Long> recorded = new ConcurrentHashMap<>();
+    /** Minute and hour rows not yet added to the table, only touched by the flushing thread */
+    private final Map<Row, Long> unflushed = new HashMap<>();
+    private ScheduledExecutorService flusher;
+    private long nextPurgeNanos;
+    private volatile boolean running;
+
+    public ActivityRollupService(ActivityRollupRepository rollupRepository,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${activity-rollups.flush-interval-ms:5000}") long flushIntervalMs,
+                                 @Value("${activity-rollups.max-buckets:10000}") int maxBuckets,
+                                 @Value("${activity-rollups.minute-retention-days:7}") int minuteRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.dataSource = dataSource;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxBuckets = maxBuckets;
+        this.minuteRetentionDays = minuteRetentionDays;
+        this.recordingSince = LocalDateTime.now();
+        this.nextPurgeNanos = System.nanoTime();
+    }
+
+    /**
+     * Backfills an empty table, then starts flushing
+     */
+    @Override
+    public void start() {
+        running = true;
+        backfillIfEmpty();
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("activity-rollup-flusher").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flushing thread and writes what is left
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void backfillIfEmpty() {
+        LocalDateTime minutesSince = minuteRetentionDays > 0
+                ? recordingSince.minusDays(minuteRetentionDays).truncatedTo(ChronoUnit.MINUTES)
+                : LocalDateTime.of(1970, 1, 1, 0, 0);
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    if (ActivityBackfill.hasRollups(connection)) {
+                        return;
+                    }
+                    int buckets = ActivityBackfill.backfill(connection, 0, 0, recordingSince, minutesSince);
+                    logger.info("Backfilled {} activity rollups from users and roles created before {}", buckets, recordingSince);
+                } catch (SQLException e) {
+                    // most likely another node backfilling at the same time; its rows are kept
+                    status.setRollbackOnly();
+                    logger.warn("Activity rollup backfill rolled back: {}", e.getMessage());
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Activity rollup backfill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Counts one event now, or when the current transaction commits; nothing if it rolls back
+     */
+    public void record(ActivityMetric metric) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(metric);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(metric);
+            }
+        });
+    }
+
+    private void increment(ActivityMetric metric) {
+        recorded.merge(new Bucket(metric, LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES)), 1L, Long::sum);
+    }
+
+    /**
+     * Event counts of all metrics in the buckets covering {@code [start, end)}. Events of the last
+     * flush interval may not be counted yet.
+     */
+    public ActivityHistogram histogram(LocalDateTime start, LocalDateTime end, ActivityGranularity granularity) {
+        String transactionId = TransactionContext.getTransactionId();
+        if (!start.isBefore(end)) {
+            throw new InvalidRangeException("startDate must be before endDate");
+        }
+        LocalDateTime first = granularity.bucketStart(start);
+        LocalDateTime last = granularity.bucketStart(end);
+        if (last.isBefore(end)) {
+            last = last.plus(1, granularity.getUnit());
+        }
+        long buckets = granularity.getUnit().between(first, last);
+        if (buckets > maxBuckets) {
+            throw new InvalidRangeException("Range has " + buckets + " " + granularity + " buckets, more than "
+                    + maxBuckets + "; use a coarser granularity");
+        }
+
+        LocalDateTime from = first;
+        LocalDateTime to = last;
+        List<ActivityCount> rows = readOnlyTransaction.execute(status -> rollupRepository.findCounts(
+                EnumSet.allOf(ActivityMetric.class), granularity.stored(), from, to));
+
+        Map<ActivityMetric, long[]> counts = new EnumMap<>(ActivityMetric.class);
+        Map<ActivityMetric, Long> totals = new EnumMap<>(ActivityMetric.class);
+        for (ActivityMetric metric : ActivityMetric.values()) {
+            counts.put(metric, new long[(int) buckets]);
+            totals.put(metric, 0L);
+        }
+        for (ActivityCount row : rows) {
+            int index = (int) granularity.getUnit().between(first, row.bucketStart());
+            counts.get(row.metric())[index] += row.events();
+            totals.merge(row.metric(), row.events(), Long::sum);
+        }
+        logger.info("Built {} {} activity buckets from {} rollup rows with transaction ID: {}",
+                buckets, granularity, rows.size(), transactionId);
+        return new ActivityHistogram(granularity, first, last, (int) buckets, counts, totals);
+    }
+
+    /**
+     * Adds the recorded counts to the table; rows that fail are retried on the next flush
+     */
+    private void flush() {
+        for (Iterator<Bucket> buckets = recorded.keySet().iterator(); buckets.hasNext(); ) {
+            Bucket bucket = buckets.next();
+            Long events = recorded.remove(bucket);
+            if (events != null) {
+                unflushed.merge(new Row(bucket.metric(), ActivityGranularity.MINUTE, bucket.minute()), events, Long::sum);
+                unflushed.merge(new Row(bucket.metric(), ActivityGranularity.HOUR,
+                        bucket.minute().truncatedTo(ChronoUnit.HOURS)), events, Long::sum);
+            }
+        }
+        for (Iterator<Map.Entry<Row, Long>> rows = unflushed.entrySet().iterator(); rows.hasNext(); ) {
+            Map.Entry<Row, Long> row = rows.next();
+            try {
+                add(row.getKey(), row.getValue());
+                rows.remove();
+            } catch (RuntimeException e) {
+                logger.warn("Activity rollup flush failed, {} rows will be retried: {}", unflushed.size(), e.getMessage());
+                break;
+            }
+        }
+        purgeIfDue();
+    }
+
+    private void add(Row row, long events) {
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                if (rollupRepository.addEvents(row.metric(), row.granularity(), row.bucketStart(), events) == 0) {
+                    rollupRepository.saveAndFlush(new ActivityRollup(row.metric(), row.granularity(), row.bucketStart(), events));
+                }
+            });
+        } catch (DataIntegrityViolationException inserted) {
+            // another node inserted the bucket first
+            writeTransaction.executeWithoutResult(status ->
+                    rollupRepository.addEvents(row.metric(), row.granularity(), row.bucketStart(), events));
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.nanoTime();
+        if (minuteRetentionDays <= 0 || now < nextPurgeNanos) {
+            return;
+        }
+        nextPurgeNanos = now + PURGE_INTERVAL_NANOS;
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minuteRetentionDays).truncatedTo(ChronoUnit.MINUTES);
+        try {
+            Integer removed = writeTransaction.execute(status ->
+                    rollupRepository.deleteBucketsBefore(ActivityGranularity.MINUTE, cutoff));
+            if (removed != null && removed > 0) {
+                logger.info("Removed {} minute activity rollups older than {}", removed, cutoff);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Activity rollup purge failed: {}", e.getMessage());
+        }
+    }
+
+    private record Bucket(ActivityMetric metric, LocalDateTime minute) {
+    }
+
+    private record Row(ActivityMetric metric, ActivityGranularity granularity, LocalDateTime bucketStart) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.iavtar.service.audit;
+
+import com.iavtar.domain.entity.ChangeLogEntry;
+import com.iavtar.domain.projection.AuditRecord;
+import com.iavtar.infrastructure.repository.ChangeLogRepository;
+import com.iavtar.service.invalidation.ChangeLogArchiver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier of the change log: entries past {@code invalidation.retention-ms} are moved, oldest first, into
+ * {@link AuditSegment} files of up to {@code audit-archive.segment-records} entries under
+ * {@code audit-archive.directory}, every {@code audit-archive.interval-ms}.
+ * <p>
+ * A segment is written to a temporary file, forced to disk and renamed before its entries are deleted from
+ * the table. If the node stops in between, the entries of the newest segment are deleted again at the next
+ * start. Segment headers are kept in memory, so queries only open segments whose ID, time or transaction ID
+ * range can match.
+ * <p>
+ * Segments are on this node's disk: enable the archive on one node and give the others
+ * {@code invalidation.retention-ms: 0}, so that no node deletes entries before they are archived.
+ */
+@Component
+public class AuditArchive implements ChangeLogArchiver, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchive.class);
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    /** Entries deleted per statement after a segment is written */
+    private static final int DELETE_CHUNK = 1000;
+
+    private final ChangeLogRepository changeLogRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final Path directory;
+    private final long retentionMs;
+    private final long intervalMs;
+    private final int segmentRecords;
+
+    /** Archived segments by ascending IDs */
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private ScheduledExecutorService archiver;
+
+    @Autowired
+    public AuditArchive(ChangeLogRepository changeLogRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${audit-archive.enabled:false}") boolean enabled,
+                        @Value("${audit-archive.directory:data/audit-archive}") String directory,
+                        @Value("${invalidation.retention-ms:3600000}") long retentionMs,
+                        @Value("${audit-archive.interval-ms:3600000}") long intervalMs,
+                        @Value("${audit-archive.segment-records:100000}") int segmentRecords) {
+        this.changeLogRepository = changeLogRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.retentionMs = retentionMs;
+        this.intervalMs = Math.max(1000, intervalMs);
+        this.segmentRecords = Math.max(1, segmentRecords);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Archived writes of one transaction
+     */
+    public List<AuditRecord> findByTransactionId(String transactionId) {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.header().mayContain(transactionId)) {
+                try (InputStream in = open(segment.path())) {
+                    records.addAll(AuditSegment.readByTransactionId(in, transactionId));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read audit archive segment " + segment.path(), e);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Archived writes made in {@code [start, end]}, oldest segments first, stopping once {@code limit} are found
+     */
+    public List<AuditRecord> findByCreatedAt(LocalDateTime start, LocalDateTime end, int limit) {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (records.size() >= limit) {
+                break;
+            }
+            if (segment.header().overlaps(start, end)) {
+                try (InputStream in = open(segment.path())) {
+                    records.addAll(AuditSegment.readByCreatedAt(in, start, end));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot read audit archive segment " + segment.path(), e);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Number of archived entries
+     */
+    public long getArchivedRecords() {
+        return segments.stream().mapToLong(segment -> segment.header().records()).sum();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            loadSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit archive in " + directory, e);
+        }
+        if (!segments.isEmpty()) {
+            // the entries of the last segment may not have been deleted before the node stopped
+            Segment last = segments.get(segments.size() - 1);
+            try (InputStream in = open(last.path())) {
+                delete(AuditSegment.readIds(in));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read audit archive segment " + last.path(), e);
+            }
+        }
+        archiver = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("audit-archiver").daemon().factory());
+        archiver.scheduleWithFixedDelay(this::archiveSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Audit archive started in {} with {} segments holding {} entries", directory, segments.size(),
+                getArchivedRecords());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (archiver != null) {
+            archiver.shutdownNow();
+            try {
+                archiver.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            archiver = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void loadSegments() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(AuditArchive::isSegment).toList()) {
+                try (InputStream in = open(path)) {
+                    found.add(new Segment(path, AuditSegment.readHeader(in)));
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(segment -> segment.header().minId()));
+        segments.addAll(found);
+    }
+
+    private void archiveSafely() {
+        try {
+            archive();
+        } catch (RuntimeException | IOException e) {
+            logger.warn("Audit archiving failed, retrying in {} ms: {}", intervalMs, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Moves entries past retention into new segments until none are left
+     */
+    private void archive() throws IOException {
+        if (retentionMs <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMs));
+        long start = System.nanoTime();
+        long moved = 0;
+        while (running) {
+            List<ChangeLogEntry> entries = readOnlyTransaction.execute(status ->
+                    changeLogRepository.findByCreatedAtBeforeOrderByIdAsc(cutoff, Limit.of(segmentRecords)));
+            if (entries == null || entries.isEmpty()) {
+                break;
+            }
+            Segment segment = write(entries);
+            segments.add(segment);
+            delete(entries.stream().map(ChangeLogEntry::getId).toList());
+            moved += entries.size();
+            if (entries.size() < segmentRecords) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            logger.info("Archived {} change log entries older than {} in {} ms", moved, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private Segment write(List<ChangeLogEntry> entries) throws IOException {
+        String name = SEGMENT_PREFIX + String.format("%019d-%019d", entries.get(0).getId(),
+                entries.get(entries.size() - 1).getId()) + SEGMENT_SUFFIX;
+        Path path = directory.resolve(name);
+        Path temporary = directory.resolve(name + ".tmp");
+        AuditSegment.Header header;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            header = AuditSegment.write(entries, out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new Segment(path, header);
+    }
+
+    private void delete(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + DELETE_CHUNK));
+            writeTransaction.executeWithoutResult(status -> changeLogRepository.deleteEntries(chunk));
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+    }
+
+    private record Segment(Path path, AuditSegment.Header header) {
+    }
+}
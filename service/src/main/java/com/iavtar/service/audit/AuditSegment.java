@@ -0,0 +1,421 @@
+package com.iavtar.service.audit;
+
+import com.iavtar.domain.entity.ChangeLogEntry;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.domain.projection.AuditRecord;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Column-oriented, compressed file of archived change log entries, ordered by ID.
+ * <p>
+ * A segment starts with an uncompressed header: magic, record count and the minimum and maximum ID,
+ * creation time and transaction ID, which is all that is kept in memory to skip segments. Six columns
+ * follow, each as its raw and deflated length and the deflated bytes:
+ * <ul>
+ *   <li>ID and creation time (microseconds): zigzag varint deltas from the previous record</li>
+ *   <li>target: one byte per record</li>
+ *   <li>entity ID: zigzag varint</li>
+ *   <li>transaction ID and origin node: a dictionary of the distinct strings, then a varint per record
+ *       holding the dictionary index plus one, 0 for null</li>
+ * </ul>
+ * A lookup by transaction ID inflates the transaction column first and stops there when the segment's
+ * dictionary does not contain the ID.
+ */
+final class AuditSegment {
+
+    private static final int MAGIC = 0x41554431; // "AUD1"
+
+    private AuditSegment() {
+    }
+
+    /**
+     * What is known about a segment without reading its columns
+     * @param minTransactionId smallest non-null transaction ID, or null when all are null
+     */
+    record Header(int records,
+                  long minId,
+                  long maxId,
+                  LocalDateTime minCreatedAt,
+                  LocalDateTime maxCreatedAt,
+                  String minTransactionId,
+                  String maxTransactionId) {
+
+        boolean mayContain(String transactionId) {
+            return minTransactionId != null
+                    && transactionId.compareTo(minTransactionId) >= 0 && transactionId.compareTo(maxTransactionId) <= 0;
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            return maxCreatedAt.compareTo(start) >= 0 && minCreatedAt.compareTo(end) <= 0;
+        }
+    }
+
+    /**
+     * Writes {@code entries}, which must be in ascending ID order
+     * @return the header written
+     */
+    static Header write(List<ChangeLogEntry> entries, OutputStream out) throws IOException {
+        int count = entries.size();
+        Column ids = new Column(count * 2);
+        Column times = new Column(count * 3);
+        Column targets = new Column(count);
+        Column entities = new Column(count * 3);
+        Dictionary transactions = new Dictionary(count);
+        Dictionary origins = new Dictionary(count);
+        long previousId = 0;
+        long previousMicros = 0;
+        String minTransactionId = null;
+        String maxTransactionId = null;
+        LocalDateTime minCreatedAt = null;
+        LocalDateTime maxCreatedAt = null;
+        for (ChangeLogEntry entry : entries) {
+            long micros = toMicros(entry.getCreatedAt());
+            ids.writeSigned(entry.getId() - previousId);
+            times.writeSigned(micros - previousMicros);
+            targets.writeByte(entry.getTarget().ordinal());
+            entities.writeSigned(entry.getEntityId());
+            transactions.add(entry.getTransactionId());
+            origins.add(entry.getOriginNode());
+            previousId = entry.getId();
+            previousMicros = micros;
+
+            LocalDateTime createdAt = entry.getCreatedAt();
+            if (minCreatedAt == null || createdAt.isBefore(minCreatedAt)) {
+                minCreatedAt = createdAt;
+            }
+            if (maxCreatedAt == null || createdAt.isAfter(maxCreatedAt)) {
+                maxCreatedAt = createdAt;
+            }
+            String transactionId = entry.getTransactionId();
+            if (transactionId != null) {
+                if (minTransactionId == null || transactionId.compareTo(minTransactionId) < 0) {
+                    minTransactionId = transactionId;
+                }
+                if (maxTransactionId == null || transactionId.compareTo(maxTransactionId) > 0) {
+                    maxTransactionId = transactionId;
+                }
+            }
+        }
+        Header header = new Header(count, entries.get(0).getId(), previousId, minCreatedAt, maxCreatedAt,
+                minTransactionId, maxTransactionId);
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(count);
+        data.writeLong(header.minId());
+        data.writeLong(header.maxId());
+        data.writeLong(toMicros(minCreatedAt));
+        data.writeLong(toMicros(maxCreatedAt));
+        data.writeBoolean(minTransactionId != null);
+        if (minTransactionId != null) {
+            data.writeUTF(minTransactionId);
+            data.writeUTF(maxTransactionId);
+        }
+        writeColumn(data, ids);
+        writeColumn(data, times);
+        writeColumn(data, targets);
+        writeColumn(data, entities);
+        writeColumn(data, transactions.encode());
+        writeColumn(data, origins.encode());
+        data.flush();
+        return header;
+    }
+
+    static Header readHeader(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an audit archive segment");
+        }
+        int records = data.readInt();
+        long minId = data.readLong();
+        long maxId = data.readLong();
+        LocalDateTime minCreatedAt = fromMicros(data.readLong());
+        LocalDateTime maxCreatedAt = fromMicros(data.readLong());
+        String minTransactionId = null;
+        String maxTransactionId = null;
+        if (data.readBoolean()) {
+            minTransactionId = data.readUTF();
+            maxTransactionId = data.readUTF();
+        }
+        return new Header(records, minId, maxId, minCreatedAt, maxCreatedAt, minTransactionId, maxTransactionId);
+    }
+
+    /**
+     * IDs of all records
+     */
+    static List<Long> readIds(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Header header = readHeader(data);
+        return Arrays.stream(Column.readDeltas(new Column.Reader(readColumn(data)), header.records())).boxed().toList();
+    }
+
+    /**
+     * Records with the given transaction ID
+     */
+    static List<AuditRecord> readByTransactionId(InputStream in, String transactionId) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Header header = readHeader(data);
+        byte[] ids = readColumn(data);
+        byte[] times = readColumn(data);
+        byte[] targets = readColumn(data);
+        byte[] entities = readColumn(data);
+        Column.Reader transactions = new Column.Reader(readColumn(data));
+        String[] dictionary = Dictionary.readEntries(transactions);
+        int code = Arrays.asList(dictionary).indexOf(transactionId) + 1;
+        if (code == 0) {
+            return List.of();
+        }
+        int[] transactionCodes = Dictionary.readCodes(transactions, header.records());
+        long[] micros = Column.readDeltas(new Column.Reader(times), header.records());
+        return decode(header, ids, micros, targets, entities, dictionary, transactionCodes, readColumn(data),
+                i -> transactionCodes[i] == code);
+    }
+
+    /**
+     * Records created in {@code [start, end]}
+     */
+    static List<AuditRecord> readByCreatedAt(InputStream in, LocalDateTime start, LocalDateTime end) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        Header header = readHeader(data);
+        byte[] ids = readColumn(data);
+        byte[] times = readColumn(data);
+        long[] micros = Column.readDeltas(new Column.Reader(times), header.records());
+        long from = toMicros(start);
+        long to = toMicros(end);
+        byte[] targets = readColumn(data);
+        byte[] entities = readColumn(data);
+        Column.Reader transactions = new Column.Reader(readColumn(data));
+        String[] dictionary = Dictionary.readEntries(transactions);
+        int[] transactionCodes = Dictionary.readCodes(transactions, header.records());
+        return decode(header, ids, micros, targets, entities, dictionary, transactionCodes, readColumn(data),
+                i -> micros[i] >= from && micros[i] <= to);
+    }
+
+    private static List<AuditRecord> decode(Header header, byte[] idColumn, long[] micros, byte[] targetColumn,
+                                            byte[] entityColumn, String[] transactionIds, int[] transactionCodes,
+                                            byte[] originColumn, IntPredicate selected) {
+        int count = header.records();
+        long[] ids = Column.readDeltas(new Column.Reader(idColumn), count);
+        Column.Reader entities = new Column.Reader(entityColumn);
+        Column.Reader origins = new Column.Reader(originColumn);
+        String[] originNodes = Dictionary.readEntries(origins);
+        int[] originCodes = Dictionary.readCodes(origins, count);
+        ChangeTarget[] targetValues = ChangeTarget.values();
+
+        List<AuditRecord> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long entityId = entities.readSigned();
+            if (selected.test(i)) {
+                records.add(new AuditRecord(ids[i], targetValues[targetColumn[i]], entityId,
+                        Dictionary.value(originNodes, originCodes[i]), Dictionary.value(transactionIds, transactionCodes[i]),
+                        fromMicros(micros[i]), true));
+            }
+        }
+        return records;
+    }
+
+    private static void writeColumn(DataOutputStream out, Column column) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(column.bytes, 0, column.size);
+            deflater.finish();
+            byte[] compressed = new byte[Math.max(64, column.size + column.size / 100 + 64)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            out.writeInt(column.size);
+            out.writeInt(length);
+            out.write(compressed, 0, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] readColumn(DataInputStream in) throws IOException {
+        int rawLength = in.readInt();
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new EOFException("Truncated audit archive column");
+                }
+                length += inflated;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt audit archive column", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Growable byte buffer with varint encoding
+     */
+    private static final class Column {
+
+        private byte[] bytes;
+        private int size;
+
+        Column(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeUnsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSigned(long value) {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        static long[] readDeltas(Reader reader, int count) {
+            long[] values = new long[count];
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += reader.readSigned();
+                values[i] = previous;
+            }
+            return values;
+        }
+
+        static final class Reader {
+
+            private final byte[] bytes;
+            private int position;
+
+            Reader(byte[] bytes) {
+                this.bytes = bytes;
+            }
+
+            long readUnsigned() {
+                long value = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte b = bytes[position++];
+                    value |= (long) (b & 0x7F) << shift;
+                    if (b >= 0) {
+                        return value;
+                    }
+                }
+            }
+
+            long readSigned() {
+                long value = readUnsigned();
+                return (value >>> 1) ^ -(value & 1);
+            }
+
+            String readString() {
+                int length = (int) readUnsigned();
+                String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Dictionary encoding of a string column
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> entries = new ArrayList<>();
+        private final int[] recordCodes;
+        private int count;
+
+        Dictionary(int records) {
+            recordCodes = new int[records];
+        }
+
+        void add(String value) {
+            recordCodes[count++] = value == null ? 0 : codes.computeIfAbsent(value, v -> {
+                entries.add(v);
+                return entries.size();
+            });
+        }
+
+        Column encode() {
+            Column column = new Column(entries.size() * 24 + count * 2);
+            column.writeUnsigned(entries.size());
+            for (String entry : entries) {
+                byte[] utf8 = entry.getBytes(StandardCharsets.UTF_8);
+                column.writeUnsigned(utf8.length);
+                for (byte b : utf8) {
+                    column.writeByte(b);
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                column.writeUnsigned(recordCodes[i]);
+            }
+            return column;
+        }
+
+        static String[] readEntries(Column.Reader reader) {
+            String[] entries = new String[(int) reader.readUnsigned()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = reader.readString();
+            }
+            return entries;
+        }
+
+        static int[] readCodes(Column.Reader reader, int count) {
+            int[] codes = new int[count];
+            for (int i = 0; i < count; i++) {
+                codes[i] = (int) reader.readUnsigned();
+            }
+            return codes;
+        }
+
+        static String value(String[] entries, int code) {
+            return code == 0 ? null : entries[code - 1];
+        }
+    }
+}
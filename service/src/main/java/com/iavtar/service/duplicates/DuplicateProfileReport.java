@@ -0,0 +1,21 @@
+package com.iavtar.service.duplicates;
+
+import com.iavtar.domain.projection.ProfileMatch;
+
+import java.util.List;
+
+/**
+ * Outcome of a duplicate-profile scan
+ * @param keysUpdated profiles whose stored email or phone key was missing or stale and has been rewritten
+ * @param clusters groups of two or more profiles linked by a shared email or phone
+ * @param duplicateProfiles profiles in any cluster
+ * @param largestClusters the largest clusters, at most {@code profile-duplicates.max-reported-clusters}
+ */
+public record DuplicateProfileReport(long profilesScanned,
+                                     long keysUpdated,
+                                     int clusters,
+                                     long duplicateProfiles,
+                                     List<List<ProfileMatch>> largestClusters,
+                                     boolean truncated,
+                                     long durationMs) {
+}
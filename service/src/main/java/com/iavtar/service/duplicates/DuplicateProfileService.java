@@ -0,0 +1,227 @@
+package com.iavtar.service.duplicates;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.projection.ProfileMatch;
+import com.iavtar.domain.util.ContactKeys;
+import com.iavtar.infrastructure.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds profiles that belong to the same customer by their canonical email and E.164 phone number.
+ * <p>
+ * Both keys are stored, indexed, on every profile ({@link ContactKeys}), so a single email or phone is
+ * matched by index lookup ({@link #findMatches}). A full {@link #scan()} streams all profiles in keyset
+ * pages, rewriting keys that are missing or stale (rows written before the columns existed, or by plain
+ * SQL), keeps each profile's id, email fingerprint and phone number in primitive columns, and groups them
+ * with {@link ProfileClusterer} on {@code profile-duplicates.partitions} hash partitions.
+ */
+@Service
+public class DuplicateProfileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateProfileService.class);
+
+    private static final String SELECT_PAGE =
+            "SELECT id, email, phone, country_code, email_key, phone_key FROM profile WHERE id > ? ORDER BY id LIMIT ?";
+    // the row must still hold the values the keys were computed from
+    private static final String UPDATE_KEYS = "UPDATE profile SET email_key = ?, phone_key = ? WHERE id = ?"
+            + " AND (email = ? OR email IS NULL AND ? IS NULL)"
+            + " AND (phone = ? OR phone IS NULL AND ? IS NULL)"
+            + " AND (country_code = ? OR country_code IS NULL AND ? IS NULL)";
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final int partitions;
+    private final int pageSize;
+    private final int maxReportedClusters;
+
+    public DuplicateProfileService(UserRepository userRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${profile-duplicates.partitions:0}") int partitions,
+                                   @Value("${profile-duplicates.page-size:10000}") int pageSize,
+                                   @Value("${profile-duplicates.max-reported-clusters:100}") int maxReportedClusters) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.partitions = partitions > 0 ? partitions : ForkJoinPool.getCommonPoolParallelism() * 4;
+        this.pageSize = pageSize;
+        this.maxReportedClusters = maxReportedClusters;
+    }
+
+    /**
+     * Profiles whose canonical email or phone equals that of the given contact details
+     * @param countryCode the profile's country code, used for phones without an international prefix
+     */
+    @Transactional(readOnly = true)
+    public List<ProfileMatch> findMatches(String email, String phone, String countryCode) {
+        Map<Long, ProfileMatch> matches = new LinkedHashMap<>();
+        String emailKey = ContactKeys.canonicalEmail(email);
+        if (emailKey != null) {
+            userRepository.findProfileMatchesByEmailKey(emailKey).forEach(match -> matches.put(match.profileId(), match));
+        }
+        Long phoneKey = ContactKeys.phoneNumber(phone, countryCode);
+        if (phoneKey != null) {
+            userRepository.findProfileMatchesByPhoneKey(phoneKey).forEach(match -> matches.putIfAbsent(match.profileId(), match));
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Scans all profiles for duplicates; one scan runs at a time
+     */
+    public synchronized DuplicateProfileReport scan() {
+        String transactionId = TransactionContext.getTransactionId();
+        long start = System.nanoTime();
+        logger.info("Scanning profiles for duplicates on {} partitions with transaction ID: {}", partitions, transactionId);
+
+        ProfileKeys keys = new ProfileKeys();
+        long keysUpdated = 0;
+        long afterId = 0;
+        while (true) {
+            int before = keys.count;
+            long pageAfter = afterId;
+            keysUpdated += Objects.requireNonNull(transaction.execute(status -> readPage(pageAfter, keys)));
+            int read = keys.count - before;
+            if (read == 0) {
+                break;
+            }
+            afterId = keys.ids[keys.count - 1];
+            if (read < pageSize) {
+                break;
+            }
+        }
+
+        List<int[]> clusters = ProfileClusterer.clusters(keys.emailKeys, keys.phoneKeys, keys.count, partitions,
+                ForkJoinPool.commonPool());
+        long duplicateProfiles = clusters.stream().mapToLong(cluster -> cluster.length).sum();
+        List<int[]> reported = clusters.subList(0, Math.min(clusters.size(), maxReportedClusters));
+        List<List<ProfileMatch>> largestClusters = resolve(reported, keys.ids);
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Found {} duplicate clusters covering {} of {} profiles ({} keys updated) in {} ms with transaction ID: {}",
+                clusters.size(), duplicateProfiles, keys.count, keysUpdated, durationMs, transactionId);
+        return new DuplicateProfileReport(keys.count, keysUpdated, clusters.size(), duplicateProfiles, largestClusters,
+                reported.size() < clusters.size(), durationMs);
+    }
+
+    /**
+     * Appends the profiles after {@code afterId} to {@code keys} and rewrites their stale keys
+     * @return the number of profiles whose keys were rewritten
+     */
+    private int readPage(long afterId, ProfileKeys keys) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(SELECT_PAGE, (RowCallbackHandler) rs -> {
+            long id = rs.getLong("id");
+            String email = rs.getString("email");
+            String phone = rs.getString("phone");
+            String countryCode = rs.getString("country_code");
+            String emailKey = ContactKeys.canonicalEmail(email);
+            Long phoneKey = ContactKeys.phoneNumber(phone, countryCode);
+            if (!Objects.equals(emailKey, rs.getString("email_key")) || !Objects.equals(phoneKey, nullableLong(rs, "phone_key"))) {
+                updates.add(new Object[]{emailKey, phoneKey, id, email, email, phone, phone, countryCode, countryCode});
+            }
+            keys.add(id, emailKey == null ? 0 : fingerprint(emailKey), phoneKey == null ? 0 : phoneKey);
+        }, afterId, pageSize);
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int[] argTypes = {Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+                Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+        return Arrays.stream(jdbcTemplate.batchUpdate(UPDATE_KEYS, updates, argTypes))
+                .map(count -> count < 0 ? 1 : count)
+                .sum();
+    }
+
+    /**
+     * Profiles and users of the given clusters, in cluster order
+     */
+    private List<List<ProfileMatch>> resolve(List<int[]> clusters, long[] ids) {
+        List<Long> profileIds = new ArrayList<>();
+        for (int[] cluster : clusters) {
+            for (int index : cluster) {
+                profileIds.add(ids[index]);
+            }
+        }
+        Map<Long, ProfileMatch> matches = new HashMap<>();
+        // a profile may be shared by several users; the first one represents it
+        transaction.executeWithoutResult(status -> {
+            for (int from = 0; from < profileIds.size(); from += pageSize) {
+                List<Long> chunk = profileIds.subList(from, Math.min(profileIds.size(), from + pageSize));
+                userRepository.findProfileMatchesByProfileIdIn(chunk)
+                        .forEach(match -> matches.putIfAbsent(match.profileId(), match));
+            }
+        });
+
+        List<List<ProfileMatch>> resolved = new ArrayList<>(clusters.size());
+        for (int[] cluster : clusters) {
+            List<ProfileMatch> members = new ArrayList<>(cluster.length);
+            for (int index : cluster) {
+                ProfileMatch match = matches.get(ids[index]);
+                if (match != null) {
+                    members.add(match);
+                }
+            }
+            members.sort(Comparator.comparing(ProfileMatch::profileId));
+            resolved.add(members);
+        }
+        return resolved;
+    }
+
+    /**
+     * Email fingerprint, never 0, which stands for "no email"
+     */
+    private static long fingerprint(String emailKey) {
+        long fingerprint = ContactKeys.emailFingerprint(emailKey);
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * Scanned profiles as parallel primitive columns
+     */
+    private static final class ProfileKeys {
+
+        long[] ids = new long[1024];
+        long[] emailKeys = new long[1024];
+        long[] phoneKeys = new long[1024];
+        int count;
+
+        void add(long id, long emailKey, long phoneKey) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                emailKeys = Arrays.copyOf(emailKeys, count * 2);
+                phoneKeys = Arrays.copyOf(phoneKeys, count * 2);
+            }
+            ids[count] = id;
+            emailKeys[count] = emailKey;
+            phoneKeys[count] = phoneKey;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.iavtar.service.duplicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Groups profiles that share an email fingerprint or a phone number into clusters.
+ * <p>
+ * Profiles are given as parallel columns of keys, 0 meaning "no key". Each (kind, key) pair is routed to one
+ * of {@code partitions} hash partitions, so every pair of profiles with equal keys lands in the same one; the
+ * partitions are grouped in parallel on a fork-join pool, each emitting an edge from a key's first profile to
+ * every later one. A union-find over the edges then joins profiles linked through a chain of shared keys.
+ */
+final class ProfileClusterer {
+
+    private static final int EMAIL = 0;
+    private static final int PHONE = 1;
+
+    /** Partitions a task groups itself instead of forking */
+    private static final int PARTITIONS_PER_TASK = 1;
+
+    private ProfileClusterer() {
+    }
+
+    /**
+     * @return the clusters of two or more profile indices, largest first
+     */
+    static List<int[]> clusters(long[] emailKeys, long[] phoneKeys, int count, int partitions, ForkJoinPool pool) {
+        int mask = Integer.highestOneBit(Math.max(1, partitions - 1)) * 2 - 1;
+        IntList[] buckets = new IntList[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntList(Math.max(16, 2 * count / buckets.length));
+        }
+        // entries are profile index * 2 + kind, so a bucket is one int array for both kinds of key
+        for (int i = 0; i < count; i++) {
+            if (emailKeys[i] != 0) {
+                buckets[partition(emailKeys[i], EMAIL) & mask].add(i << 1 | EMAIL);
+            }
+            if (phoneKeys[i] != 0) {
+                buckets[partition(phoneKeys[i], PHONE) & mask].add(i << 1 | PHONE);
+            }
+        }
+
+        IntList[] edges = new IntList[buckets.length];
+        pool.invoke(new GroupPartitions(emailKeys, phoneKeys, buckets, edges, 0, buckets.length));
+
+        UnionFind sets = new UnionFind(count);
+        for (IntList partitionEdges : edges) {
+            for (int e = 0; e < partitionEdges.size; e += 2) {
+                sets.union(partitionEdges.values[e], partitionEdges.values[e + 1]);
+            }
+        }
+        return sets.clusters();
+    }
+
+    private static int partition(long key, int kind) {
+        long h = (key + kind) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Groups a range of partitions, splitting it in halves until it is small enough
+     */
+    private static final class GroupPartitions extends RecursiveAction {
+
+        private final long[] emailKeys;
+        private final long[] phoneKeys;
+        private final IntList[] buckets;
+        private final IntList[] edges;
+        private final int from;
+        private final int to;
+
+        GroupPartitions(long[] emailKeys, long[] phoneKeys, IntList[] buckets, IntList[] edges, int from, int to) {
+            this.emailKeys = emailKeys;
+            this.phoneKeys = phoneKeys;
+            this.buckets = buckets;
+            this.edges = edges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARTITIONS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new GroupPartitions(emailKeys, phoneKeys, buckets, edges, from, middle),
+                        new GroupPartitions(emailKeys, phoneKeys, buckets, edges, middle, to));
+                return;
+            }
+            for (int p = from; p < to; p++) {
+                edges[p] = group(buckets[p]);
+                buckets[p] = null;
+            }
+        }
+
+        private IntList group(IntList bucket) {
+            IntList found = new IntList(16);
+            KeyIndex email = new KeyIndex(bucket.size);
+            KeyIndex phone = new KeyIndex(bucket.size);
+            for (int b = 0; b < bucket.size; b++) {
+                int entry = bucket.values[b];
+                int profile = entry >>> 1;
+                int first = (entry & 1) == EMAIL
+                        ? email.putIfAbsent(emailKeys[profile], profile)
+                        : phone.putIfAbsent(phoneKeys[profile], profile);
+                if (first != profile) {
+                    found.add(first);
+                    found.add(profile);
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Open-addressing map from a non-zero key to the first profile index seen with it
+     */
+    private static final class KeyIndex {
+
+        private final long[] keys;
+        private final int[] profiles;
+        private final int mask;
+
+        KeyIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) * 2;
+            this.keys = new long[capacity];
+            this.profiles = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        /**
+         * @return the profile already stored for {@code key}, or {@code profile} after storing it
+         */
+        int putIfAbsent(long key, int profile) {
+            long h = key * 0xC2B2AE3D27D4EB4FL;
+            int slot = (int) (h ^ (h >>> 29)) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    return profiles[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            profiles[slot] = profile;
+            return profile;
+        }
+    }
+
+    /**
+     * Disjoint sets of profile indices with path halving and union by size
+     */
+    private static final class UnionFind {
+
+        private final int[] parent;
+        private final int[] size;
+
+        UnionFind(int count) {
+            parent = new int[count];
+            size = new int[count];
+            for (int i = 0; i < count; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+
+        void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return;
+            }
+            if (size[rootA] < size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+        }
+
+        List<int[]> clusters() {
+            int count = parent.length;
+            int[] slot = new int[count];
+            List<int[]> clusters = new ArrayList<>();
+            Arrays.fill(slot, -1);
+            for (int i = 0; i < count; i++) {
+                if (parent[i] == i && size[i] > 1) {
+                    slot[i] = clusters.size();
+                    clusters.add(new int[size[i]]);
+                }
+            }
+            int[] filled = new int[clusters.size()];
+            for (int i = 0; i < count; i++) {
+                int root = find(i);
+                int s = slot[root];
+                if (s >= 0) {
+                    clusters.get(s)[filled[s]++] = i;
+                }
+            }
+            clusters.sort(Comparator.comparingInt((int[] cluster) -> cluster.length).reversed());
+            return clusters;
+        }
+    }
+
+    /**
+     * Growable array of ints
+     */
+    private static final class IntList {
+
+        int[] values;
+        int size;
+
+        IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
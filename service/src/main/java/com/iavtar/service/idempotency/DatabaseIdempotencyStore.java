@@ -0,0 +1,99 @@
+package com.iavtar.service.idempotency;
+
+import com.iavtar.domain.entity.IdempotencyRecord;
+import com.iavtar.infrastructure.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IdempotencyStore} in the {@code idempotency_keys} table, shared by all nodes.
+ * <p>
+ * A new key is claimed by inserting its in-flight marker; when two nodes race for it the primary key
+ * makes exactly one win, and the other reads what the winner recorded. Each operation runs in its own
+ * short transaction, outside the request's. Expired rows are deleted by the next claim after a minute.
+ */
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseIdempotencyStore.class);
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transaction;
+    private final long ttlMs;
+    private final long inFlightTimeoutMs;
+    private final AtomicLong nextPurgeNanos = new AtomicLong(System.nanoTime());
+
+    public DatabaseIdempotencyStore(IdempotencyRecordRepository repository, PlatformTransactionManager transactionManager,
+                                    long ttlMs, long inFlightTimeoutMs) {
+        this.repository = repository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttlMs = ttlMs;
+        this.inFlightTimeoutMs = inFlightTimeoutMs;
+    }
+
+    @Override
+    public IdempotencyClaim claim(String key, String fingerprint) {
+        purgeIfDue();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            Optional<IdempotencyRecord> existing = transaction.execute(status -> repository.findById(key));
+            if (existing.isEmpty()) {
+                try {
+                    transaction.executeWithoutResult(status ->
+                            repository.insertInFlight(key, fingerprint, now, now.plusNanos(TimeUnit.MILLISECONDS.toNanos(inFlightTimeoutMs))));
+                    return IdempotencyClaim.ACQUIRED;
+                } catch (DataIntegrityViolationException claimedConcurrently) {
+                    continue;
+                }
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                transaction.executeWithoutResult(status -> repository.deleteIfExpired(key, now));
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                return IdempotencyClaim.MISMATCH;
+            }
+            if (!record.isCompleted()) {
+                return IdempotencyClaim.IN_PROGRESS;
+            }
+            return IdempotencyClaim.completed(new StoredResponse(record.getResponseStatus(), record.getContentType(),
+                    record.getResponseBody() != null ? record.getResponseBody() : new byte[0]));
+        }
+        // the key changed hands twice while we looked; treat it as running
+        return IdempotencyClaim.IN_PROGRESS;
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMs));
+        transaction.executeWithoutResult(status ->
+                repository.complete(key, response.status(), response.contentType(), response.body(), expiresAt));
+    }
+
+    @Override
+    public void release(String key) {
+        transaction.executeWithoutResult(status -> repository.deleteInFlight(key));
+    }
+
+    private void purgeIfDue() {
+        long now = System.nanoTime();
+        long due = nextPurgeNanos.get();
+        if (now - due < 0 || !nextPurgeNanos.compareAndSet(due, now + PURGE_INTERVAL_NANOS)) {
+            return;
+        }
+        Integer removed = transaction.execute(status -> repository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            logger.info("Removed {} expired idempotency keys", removed);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.iavtar.service.idempotency;
+
+/**
+ * Result of claiming an idempotency key
+ * @param outcome what the caller should do
+ * @param response the recorded response when {@code outcome} is {@link Outcome#COMPLETED}
+ */
+public record IdempotencyClaim(Outcome outcome, StoredResponse response) {
+
+    public enum Outcome {
+        /** The key is new; the caller runs the request and then completes or releases the key */
+        ACQUIRED,
+        /** A request with this key already completed; replay its response */
+        COMPLETED,
+        /** A request with this key is still running */
+        IN_PROGRESS,
+        /** The key was used for a different request */
+        MISMATCH
+    }
+
+    static final IdempotencyClaim ACQUIRED = new IdempotencyClaim(Outcome.ACQUIRED, null);
+    static final IdempotencyClaim IN_PROGRESS = new IdempotencyClaim(Outcome.IN_PROGRESS, null);
+    static final IdempotencyClaim MISMATCH = new IdempotencyClaim(Outcome.MISMATCH, null);
+
+    static IdempotencyClaim completed(StoredResponse response) {
+        return new IdempotencyClaim(Outcome.COMPLETED, response);
+    }
+}
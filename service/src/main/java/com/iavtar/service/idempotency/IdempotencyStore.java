@@ -0,0 +1,27 @@
+package com.iavtar.service.idempotency;
+
+/**
+ * Records idempotency keys: an in-flight marker while the first request runs, then its response.
+ * <p>
+ * Keys and fingerprints are opaque to the store. Completed entries expire after the configured TTL,
+ * in-flight markers after the in-flight timeout, so a node that dies mid-request does not block the key.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claims {@code key} for execution, or reports what is already recorded for it
+     * @param key scoped idempotency key
+     * @param fingerprint identifies the request; a retry must send the same one
+     */
+    IdempotencyClaim claim(String key, String fingerprint);
+
+    /**
+     * Records the response of a claimed key, replacing its in-flight marker
+     */
+    void complete(String key, StoredResponse response);
+
+    /**
+     * Drops the in-flight marker of a claimed key whose request failed, so a retry runs again
+     */
+    void release(String key);
+}
@@ -0,0 +1,84 @@
+package com.iavtar.service.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single-node {@link IdempotencyStore} holding at most {@code maxEntries} keys.
+ * <p>
+ * Entries are kept in insertion order; expired entries are dropped from the oldest end on every claim,
+ * and the oldest entry is evicted when the store is full, so a key can be forgotten before its TTL under
+ * sustained load above {@code maxEntries} per TTL.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private record Entry(String fingerprint, StoredResponse response, long expiresAtNanos) {
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long inFlightTimeoutNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public InMemoryIdempotencyStore(int maxEntries, long ttlMs, long inFlightTimeoutMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.inFlightTimeoutNanos = inFlightTimeoutMs * 1_000_000L;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > InMemoryIdempotencyStore.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized IdempotencyClaim claim(String key, String fingerprint) {
+        long now = System.nanoTime();
+        purgeExpired(now);
+        Entry existing = entries.get(key);
+        if (existing == null || existing.expiresAtNanos() - now < 0) {
+            entries.remove(key);
+            entries.put(key, new Entry(fingerprint, null, now + inFlightTimeoutNanos));
+            return IdempotencyClaim.ACQUIRED;
+        }
+        if (!existing.fingerprint().equals(fingerprint)) {
+            return IdempotencyClaim.MISMATCH;
+        }
+        return existing.response() == null ? IdempotencyClaim.IN_PROGRESS : IdempotencyClaim.completed(existing.response());
+    }
+
+    @Override
+    public synchronized void complete(String key, StoredResponse response) {
+        Entry marker = entries.remove(key);
+        if (marker != null) {
+            entries.put(key, new Entry(marker.fingerprint(), response, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        Entry marker = entries.get(key);
+        if (marker != null && marker.response() == null) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Keys currently held, completed or in flight
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            if (oldest.next().expiresAtNanos() - now >= 0) {
+                return;
+            }
+            oldest.remove();
+        }
+    }
+}
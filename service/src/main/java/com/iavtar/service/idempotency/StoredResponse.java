@@ -0,0 +1,7 @@
+package com.iavtar.service.idempotency;
+
+/**
+ * Response of a completed idempotent request, replayed to retries with the same key
+ */
+public record StoredResponse(int status, String contentType, byte[] body) {
+}
@@ -3,13 +3,24 @@ package com.iavtar.service.impl;
 import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.Role;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.domain.enums.Permission;
+import com.iavtar.domain.exception.DuplicateResourceException;
+import com.iavtar.domain.exception.InvalidRoleException;
+import com.iavtar.domain.exception.ResourceNotFoundException;
 import com.iavtar.infrastructure.repository.RoleRepository;
 import com.iavtar.infrastructure.repository.UserRepository;
+import com.iavtar.service.LookupCoalescer;
+import com.iavtar.service.LookupCoalescer.Lookup;
 import com.iavtar.service.RoleService;
+import com.iavtar.service.activity.ActivityRollupService;
+import com.iavtar.service.invalidation.InvalidationBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -25,25 +36,36 @@ public class RoleServiceImpl implements RoleService {
     
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+    private final LookupCoalescer lookupCoalescer;
+    private final ActivityRollupService activityRollups;
     
     @Autowired
-    public RoleServiceImpl(RoleRepository roleRepository, UserRepository userRepository) {
+    public RoleServiceImpl(RoleRepository roleRepository, UserRepository userRepository,
+                           InvalidationBus invalidationBus, LookupCoalescer lookupCoalescer,
+                           ActivityRollupService activityRollups) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.lookupCoalescer = lookupCoalescer;
+        this.activityRollups = activityRollups;
     }
     
     @Override
     public Role createRole(Role role) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Creating role with name: {} and transaction ID: {}", role.getName(), transactionId);
+        validateGrants(role);
         
         if (roleRepository.existsByName(role.getName())) {
             logger.warn("Role already exists with name: {} for transaction ID: {}", role.getName(), transactionId);
-            throw new RuntimeException("Role already exists with name: " + role.getName());
+            throw new DuplicateResourceException("Role already exists with name: " + role.getName());
         }
         
         role.setTransactionId(transactionId);
         Role savedRole = roleRepository.save(role);
+        invalidationBus.publish(ChangeTarget.ROLE, savedRole.getId());
+        activityRollups.record(ActivityMetric.ROLES_CHANGED);
         logger.info("Role created successfully with ID: {} and transaction ID: {}", savedRole.getId(), transactionId);
         return savedRole;
     }
@@ -64,12 +86,12 @@ public class RoleServiceImpl implements RoleService {
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Role> findByName(String name) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Finding role by name: {} with transaction ID: {}", name, transactionId);
         
-        Optional<Role> role = roleRepository.findByName(name);
+        Optional<Role> role = lookupCoalescer.load(Lookup.ROLE_BY_NAME, name, () -> roleRepository.findByName(name));
         if (role.isPresent()) {
             logger.info("Role found with name: {} and transaction ID: {}", name, transactionId);
         } else {
@@ -104,14 +126,20 @@ public class RoleServiceImpl implements RoleService {
     public Role updateRole(Role role) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Updating role with ID: {} and transaction ID: {}", role.getId(), transactionId);
+        validateGrants(role);
         
-        if (!roleRepository.existsById(role.getId())) {
-            logger.error("Role not found with ID: {} for transaction ID: {}", role.getId(), transactionId);
-            throw new RuntimeException("Role not found with id: " + role.getId());
-        }
+        Role existingRole = roleRepository.findById(role.getId())
+                .orElseThrow(() -> {
+                    logger.error("Role not found with ID: {} for transaction ID: {}", role.getId(), transactionId);
+                    return new ResourceNotFoundException("Role not found with id: " + role.getId());
+                });
         
+        // Last write wins, as for users; the version only moves the role's ETag
+        role.setVersion(existingRole.getVersion());
         role.setTransactionId(transactionId);
         Role updatedRole = roleRepository.save(role);
+        invalidationBus.publish(ChangeTarget.ROLE, updatedRole.getId());
+        activityRollups.record(ActivityMetric.ROLES_CHANGED);
         logger.info("Role updated successfully with ID: {} and transaction ID: {}", updatedRole.getId(), transactionId);
         return updatedRole;
     }
@@ -123,10 +151,12 @@ public class RoleServiceImpl implements RoleService {
         
         if (!roleRepository.existsById(id)) {
             logger.error("Role not found with ID: {} for transaction ID: {}", id, transactionId);
-            throw new RuntimeException("Role not found with id: " + id);
+            throw new ResourceNotFoundException("Role not found with id: " + id);
         }
         
         roleRepository.deleteById(id);
+        invalidationBus.publish(ChangeTarget.ROLE, id);
+        activityRollups.record(ActivityMetric.ROLES_CHANGED);
         logger.info("Role deleted successfully with ID: {} and transaction ID: {}", id, transactionId);
     }
     
@@ -157,8 +187,9 @@ public class RoleServiceImpl implements RoleService {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Assigning roles: {} to user ID: {} with transaction ID: {}", roleNames, userId, transactionId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        // Profile and addresses are loaded too: the returned user is serialized after the transaction
+        User user = userRepository.findWithDetailsById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
         List<Role> roles = roleRepository.findByNameIn(roleNames);
         Set<String> foundRoleNames = roles.stream().map(Role::getName).collect(Collectors.toSet());
@@ -170,7 +201,7 @@ public class RoleServiceImpl implements RoleService {
         
         if (!missingRoles.isEmpty()) {
             logger.warn("Some roles not found: {} for transaction ID: {}", missingRoles, transactionId);
-            throw new RuntimeException("Roles not found: " + missingRoles);
+            throw new ResourceNotFoundException("Roles not found: " + missingRoles);
         }
         
         // Assign roles to user
@@ -178,6 +209,8 @@ public class RoleServiceImpl implements RoleService {
         user.setTransactionId(transactionId);
         
         User savedUser = userRepository.save(user);
+        invalidationBus.publish(ChangeTarget.USER, userId);
+        activityRollups.record(ActivityMetric.ROLES_CHANGED);
         logger.info("Roles assigned successfully to user ID: {} with transaction ID: {}", userId, transactionId);
         return savedUser;
     }
@@ -187,8 +220,9 @@ public class RoleServiceImpl implements RoleService {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Removing roles: {} from user ID: {} with transaction ID: {}", roleNames, userId, transactionId);
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        // Profile and addresses are loaded too: the returned user is serialized after the transaction
+        User user = userRepository.findWithDetailsById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
         
         List<Role> roles = roleRepository.findByNameIn(roleNames);
         
@@ -197,6 +231,8 @@ public class RoleServiceImpl implements RoleService {
         user.setTransactionId(transactionId);
         
         User savedUser = userRepository.save(user);
+        invalidationBus.publish(ChangeTarget.USER, userId);
+        activityRollups.record(ActivityMetric.ROLES_CHANGED);
         logger.info("Roles removed successfully from user ID: {} with transaction ID: {}", userId, transactionId);
         return savedUser;
     }
@@ -255,4 +291,29 @@ public class RoleServiceImpl implements RoleService {
         logger.info("Found {} users with role: {} and transaction ID: {}", count, roleName, transactionId);
         return count;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Permissions must be known; parents are role names, possibly of roles created later
+     */
+    private static void validateGrants(Role role) {
+        if (role.getPermissions() != null) {
+            for (String permission : role.getPermissions()) {
+                try {
+                    Permission.valueOf(permission);
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    throw new InvalidRoleException("Unknown permission: " + permission);
+                }
+            }
+        }
+        if (role.getParents() != null) {
+            for (String parent : role.getParents()) {
+                if (parent == null || parent.isBlank() || parent.contains(",")) {
+                    throw new InvalidRoleException("Invalid parent role name: " + parent);
+                }
+                if (parent.equals(role.getName())) {
+                    throw new InvalidRoleException("A role cannot inherit from itself: " + parent);
+                }
+            }
+        }
+    }
+}
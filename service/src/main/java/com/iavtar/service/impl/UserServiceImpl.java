@@ -1,17 +1,34 @@
 package com.iavtar.service.impl;
 
 import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.entity.Profile;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.domain.exception.DuplicateResourceException;
+import com.iavtar.domain.exception.ResourceNotFoundException;
+import com.iavtar.domain.projection.ProfileMatch;
+import com.iavtar.domain.projection.UserFields;
+import com.iavtar.service.LookupCoalescer;
+import com.iavtar.service.LookupCoalescer.Lookup;
+import com.iavtar.service.PasswordHasher;
 import com.iavtar.service.UserService;
+import com.iavtar.service.UsernameBloomFilterService;
+import com.iavtar.service.activity.ActivityRollupService;
+import com.iavtar.service.duplicates.DuplicateProfileService;
+import com.iavtar.service.invalidation.InvalidationBus;
 import com.iavtar.infrastructure.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -20,10 +37,28 @@ public class UserServiceImpl implements UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
     
     private final UserRepository userRepository;
+    private final UsernameBloomFilterService usernameBloomFilter;
+    private final LookupCoalescer lookupCoalescer;
+    private final InvalidationBus invalidationBus;
+    private final DuplicateProfileService duplicateProfiles;
+    private final ActivityRollupService activityRollups;
+    private final PasswordHasher passwordHasher;
+    private final boolean checkDuplicatesOnCreate;
     
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UsernameBloomFilterService usernameBloomFilter,
+                           LookupCoalescer lookupCoalescer, InvalidationBus invalidationBus,
+                           DuplicateProfileService duplicateProfiles, ActivityRollupService activityRollups,
+                           PasswordHasher passwordHasher,
+                           @Value("${profile-duplicates.check-on-create:true}") boolean checkDuplicatesOnCreate) {
         this.userRepository = userRepository;
+        this.usernameBloomFilter = usernameBloomFilter;
+        this.lookupCoalescer = lookupCoalescer;
+        this.invalidationBus = invalidationBus;
+        this.duplicateProfiles = duplicateProfiles;
+        this.activityRollups = activityRollups;
+        this.passwordHasher = passwordHasher;
+        this.checkDuplicatesOnCreate = checkDuplicatesOnCreate;
     }
     
     @Override
@@ -31,26 +66,48 @@ public class UserServiceImpl implements UserService {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Creating user with transaction ID: {}", transactionId);
         
-        if (userRepository.existsByUsername(user.getUsername())) {
+        if (usernameBloomFilter.existsByUsername(user.getUsername())) {
             logger.warn("Username already exists: {} for transaction ID: {}", user.getUsername(), transactionId);
-            throw new RuntimeException("Username already exists: " + user.getUsername());
+            throw new DuplicateResourceException("Username already exists: " + user.getUsername());
         }
         
         // Set transaction ID on the user entity
         user.setTransactionId(transactionId);
         
         User savedUser = userRepository.save(user);
+        usernameBloomFilter.recordUsername(savedUser.getUsername());
+        invalidationBus.publish(ChangeTarget.USER, savedUser.getId());
+        activityRollups.record(ActivityMetric.USERS_CREATED);
         logger.info("User created successfully with ID: {} and transaction ID: {}", savedUser.getId(), transactionId);
+        if (checkDuplicatesOnCreate && savedUser.getProfile() != null) {
+            warnOnDuplicateProfile(savedUser, transactionId);
+        }
         return savedUser;
     }
     
+    /**
+     * Logs the existing users whose profile has the same canonical email or phone as the new user's
+     */
+    private void warnOnDuplicateProfile(User user, String transactionId) {
+        Profile profile = user.getProfile();
+        List<Long> matchingUserIds = duplicateProfiles.findMatches(profile.getEmail(), profile.getPhone(), profile.getCountryCode())
+                .stream()
+                .filter(match -> !match.profileId().equals(profile.getId()) && match.userId() != null)
+                .map(ProfileMatch::userId)
+                .toList();
+        if (!matchingUserIds.isEmpty()) {
+            logger.warn("User {} shares an email or phone with existing users {} for transaction ID: {}",
+                    user.getId(), matchingUserIds, transactionId);
+        }
+    }
+    
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> findById(Long id) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Finding user by ID: {} with transaction ID: {}", id, transactionId);
         
-        Optional<User> user = userRepository.findById(id);
+        Optional<User> user = lookupCoalescer.load(Lookup.USER_BY_ID, id, () -> userRepository.findWithDetailsById(id));
         if (user.isPresent()) {
             logger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
         } else {
@@ -60,12 +117,43 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<User> findByUsername(String username) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Finding user by username: {} with transaction ID: {}", username, transactionId);
         
-        Optional<User> user = userRepository.findByUsername(username);
+        Optional<User> user = lookupCoalescer.load(Lookup.USER_BY_USERNAME, username,
+                () -> userRepository.findWithDetailsByUsername(username));
+        if (user.isPresent()) {
+            logger.info("User found with username: {} and transaction ID: {}", username, transactionId);
+        } else {
+            logger.warn("User not found with username: {} for transaction ID: {}", username, transactionId);
+        }
+        return user;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserFields> findFieldsById(Long id, Set<String> fields) {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.info("Finding fields {} of user by ID: {} with transaction ID: {}", fields, id, transactionId);
+        
+        Optional<UserFields> user = userRepository.findFieldsById(id, fields);
+        if (user.isPresent()) {
+            logger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
+        } else {
+            logger.warn("User not found with ID: {} for transaction ID: {}", id, transactionId);
+        }
+        return user;
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserFields> findFieldsByUsername(String username, Set<String> fields) {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.info("Finding fields {} of user by username: {} with transaction ID: {}", fields, username, transactionId);
+        
+        Optional<UserFields> user = userRepository.findFieldsByUsername(username, fields);
         if (user.isPresent()) {
             logger.info("User found with username: {} and transaction ID: {}", username, transactionId);
         } else {
@@ -90,15 +178,22 @@ public class UserServiceImpl implements UserService {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Updating user with ID: {} and transaction ID: {}", user.getId(), transactionId);
         
-        if (!userRepository.existsById(user.getId())) {
-            logger.error("User not found with ID: {} for transaction ID: {}", user.getId(), transactionId);
-            throw new RuntimeException("User not found with id: " + user.getId());
-        }
+        User existingUser = userRepository.findById(user.getId())
+                .orElseThrow(() -> {
+                    logger.error("User not found with ID: {} for transaction ID: {}", user.getId(), transactionId);
+                    return new ResourceNotFoundException("User not found with id: " + user.getId());
+                });
         
-        // Set transaction ID for the update operation
+        // Last write wins, as before versioning; the new transaction ID always makes the row dirty,
+        // so the version (and ETag) also moves when only the profile changed
+        user.setVersion(existingUser.getVersion());
         user.setTransactionId(transactionId);
+        // Responses never carry the password, so a body read back from GET has none: keep the stored hash
+        user.setPassword(user.getPassword() != null ? passwordHasher.hash(user.getPassword()) : existingUser.getPassword());
         
         User updatedUser = userRepository.save(user);
+        usernameBloomFilter.recordUsername(updatedUser.getUsername());
+        invalidationBus.publish(ChangeTarget.USER, updatedUser.getId());
         logger.info("User updated successfully with ID: {} and transaction ID: {}", updatedUser.getId(), transactionId);
         return updatedUser;
     }
@@ -110,20 +205,22 @@ public class UserServiceImpl implements UserService {
         
         if (!userRepository.existsById(id)) {
             logger.error("User not found with ID: {} for transaction ID: {}", id, transactionId);
-            throw new RuntimeException("User not found with id: " + id);
+            throw new ResourceNotFoundException("User not found with id: " + id);
         }
         
         userRepository.deleteById(id);
+        usernameBloomFilter.recordDeletion();
+        invalidationBus.publish(ChangeTarget.USER, id);
         logger.info("User deleted successfully with ID: {} and transaction ID: {}", id, transactionId);
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean existsByUsername(String username) {
         String transactionId = TransactionContext.getTransactionId();
         logger.debug("Checking if username exists: {} with transaction ID: {}", username, transactionId);
         
-        boolean exists = userRepository.existsByUsername(username);
+        boolean exists = usernameBloomFilter.existsByUsername(username);
         logger.debug("Username '{}' exists: {} for transaction ID: {}", username, exists, transactionId);
         return exists;
     }
@@ -0,0 +1,10 @@
+package com.iavtar.service.invalidation;
+
+/**
+ * Moves change log entries past {@code invalidation.retention-ms} out of the table instead of deleting
+ * them. While one is enabled the bus leaves old entries to it.
+ */
+public interface ChangeLogArchiver {
+
+    boolean isEnabled();
+}
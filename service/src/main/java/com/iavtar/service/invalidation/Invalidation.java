@@ -0,0 +1,9 @@
+package com.iavtar.service.invalidation;
+
+import com.iavtar.domain.enums.ChangeTarget;
+
+/**
+ * A user or role whose in-memory copies are out of date
+ */
+public record Invalidation(ChangeTarget target, Long entityId) {
+}
@@ -0,0 +1,29 @@
+package com.iavtar.service.invalidation;
+
+import com.iavtar.domain.enums.ChangeTarget;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidations delivered together, each user or role at most once.
+ * <p>
+ * A local batch holds the writes of one transaction on this node, delivered after it commits.
+ * A remote batch holds the writes of other nodes read from the change log in one poll.
+ */
+public record InvalidationBatch(Set<Invalidation> invalidations, boolean remote) {
+
+    public boolean contains(ChangeTarget target) {
+        return invalidations.stream().anyMatch(invalidation -> invalidation.target() == target);
+    }
+
+    /**
+     * IDs of the invalidated entities of one kind
+     */
+    public Set<Long> ids(ChangeTarget target) {
+        return invalidations.stream()
+                .filter(invalidation -> invalidation.target() == target)
+                .map(Invalidation::entityId)
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,362 @@
+package com.iavtar.service.invalidation;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.entity.ChangeLogEntry;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.infrastructure.repository.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carries user and role invalidations between nodes through the {@code change_log} table.
+ * <p>
+ * Writers call {@link #publish} inside their transaction. The user and role IDs a transaction touches
+ * are coalesced and appended to the change log just before it commits, so an entry exists exactly when
+ * the write does. Once it has committed, local {@link InvalidationListener}s receive them as one batch.
+ * <p>
+ * Every node tails the log on one background thread, reading entries after the last ID it has seen.
+ * Each poll's entries from other nodes are coalesced into one remote batch. Polling is adaptive: it
+ * runs every {@code invalidation.poll.min-interval-ms} while entries arrive, doubling up to
+ * {@code max-interval-ms} when idle, which bounds how long another node's write goes unseen.
+ * <p>
+ * Identity IDs are allocated at insert, not at commit, so a lower ID can become visible after a higher
+ * one was read. Skipped IDs are re-checked on every poll until they appear or
+ * {@code invalidation.gap-timeout-ms} passes (a rolled-back append leaves a permanent gap).
+ * <p>
+ * Entries older than {@code invalidation.retention-ms} are deleted, unless an enabled
+ * {@link ChangeLogArchiver} moves them elsewhere.
+ */
+@Component
+public class InvalidationBus implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    /** Larger jumps (e.g. identity cache after a database restart) are not tracked as gaps */
+    private static final long MAX_TRACKED_GAP = 1000;
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ChangeLogRepository changeLogRepository;
+    private final ObjectProvider<InvalidationListener> listeners;
+    private final ObjectProvider<ChangeLogArchiver> archivers;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final int batchSize;
+    private final long gapTimeoutNanos;
+    private final long retentionMs;
+
+    // Tailer state, only touched by the polling thread
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long intervalMs;
+    private long nextPurgeNanos;
+    private boolean archived;
+
+    private volatile long position;
+    private volatile int pendingGaps;
+    private volatile boolean running;
+    private ScheduledExecutorService poller;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder remoteBatches = new LongAdder();
+    private final LongAdder expiredGaps = new LongAdder();
+
+    @Autowired
+    public InvalidationBus(ChangeLogRepository changeLogRepository,
+                           ObjectProvider<InvalidationListener> listeners,
+                           ObjectProvider<ChangeLogArchiver> archivers,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${invalidation.enabled:true}") boolean enabled,
+                           @Value("${invalidation.node-id:}") String nodeId,
+                           @Value("${invalidation.poll.min-interval-ms:50}") long minIntervalMs,
+                           @Value("${invalidation.poll.max-interval-ms:1000}") long maxIntervalMs,
+                           @Value("${invalidation.poll.batch-size:500}") int batchSize,
+                           @Value("${invalidation.gap-timeout-ms:60000}") long gapTimeoutMs,
+                           @Value("${invalidation.retention-ms:3600000}") long retentionMs) {
+        this.changeLogRepository = changeLogRepository;
+        this.listeners = listeners;
+        this.archivers = archivers;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.minIntervalMs = Math.max(1, minIntervalMs);
+        this.maxIntervalMs = Math.max(this.minIntervalMs, maxIntervalMs);
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs);
+        this.retentionMs = retentionMs;
+    }
+
+    /**
+     * Records that a user or role changed in the current transaction.
+     * Outside a transaction the entry is appended and delivered locally at once.
+     * @param target kind of entity written
+     * @param entityId its ID; ignored when null
+     */
+    public void publish(ChangeTarget target, Long entityId) {
+        if (entityId == null) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(target, entityId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (enabled) {
+                writeTransaction.executeWithoutResult(status -> append(Set.of(invalidation)));
+            }
+            dispatch(new InvalidationBatch(Set.of(invalidation), false));
+            return;
+        }
+        PendingInvalidations pending = (PendingInvalidations) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingInvalidations();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.invalidations.add(invalidation);
+    }
+
+    private void append(Collection<Invalidation> invalidations) {
+        String transactionId = TransactionContext.getTransactionId();
+        List<ChangeLogEntry> entries = invalidations.stream()
+                .map(invalidation -> new ChangeLogEntry(invalidation.target(), invalidation.entityId(), nodeId, transactionId))
+                .toList();
+        changeLogRepository.saveAll(entries);
+        published.add(entries.size());
+        logger.debug("Appended {} change log entries with transaction ID: {}", entries.size(), transactionId);
+    }
+
+    private void dispatch(InvalidationBatch batch) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onInvalidation(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Invalidation listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Invalidations of one transaction, written to the log before commit and delivered after it
+     */
+    private final class PendingInvalidations implements TransactionSynchronization {
+
+        private final Set<Invalidation> invalidations = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (enabled) {
+                append(invalidations);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            dispatch(new InvalidationBatch(Set.copyOf(invalidations), false));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            logger.info("Invalidation bus is disabled; changes made on other nodes are only seen through cache expiry");
+            return;
+        }
+        Long end = readOnlyTransaction.execute(status -> changeLogRepository.findMaxId());
+        position = end != null ? end : 0;
+        intervalMs = minIntervalMs;
+        nextPurgeNanos = System.nanoTime();
+        archived = archivers.stream().anyMatch(ChangeLogArchiver::isEnabled);
+        poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("invalidation-tailer").daemon().factory());
+        poller.schedule(this::poll, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Invalidation bus started as node {} at change log position {}{}", nodeId, position,
+                archived ? "; old entries are left to the archiver" : "");
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (poller != null) {
+            poller.shutdownNow();
+            try {
+                poller.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            poller = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll() {
+        boolean more = false;
+        try {
+            more = tail();
+        } catch (RuntimeException e) {
+            intervalMs = maxIntervalMs;
+            logger.warn("Change log poll failed, retrying in {} ms: {}", intervalMs, e.getMessage());
+        }
+        if (!running) {
+            return;
+        }
+        try {
+            poller.schedule(this::poll, more ? 0 : intervalMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException stopping) {
+            // the bus is stopping
+        }
+    }
+
+    /**
+     * Reads the next entries and any that filled earlier gaps, and delivers those of other nodes
+     * @return true if a full batch was read and more are likely waiting
+     */
+    private boolean tail() {
+        long now = System.nanoTime();
+        long from = position;
+        Set<Long> awaited = Set.copyOf(gaps.keySet());
+        List<List<ChangeLogEntry>> read = readOnlyTransaction.execute(status -> List.of(
+                changeLogRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(batchSize)),
+                awaited.isEmpty() ? List.of() : changeLogRepository.findByIdIn(awaited)));
+        List<ChangeLogEntry> next = read.get(0);
+        List<ChangeLogEntry> late = read.get(1);
+
+        Set<Invalidation> remote = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : late) {
+            gaps.remove(entry.getId());
+            collect(entry, remote);
+        }
+        long last = from;
+        for (ChangeLogEntry entry : next) {
+            long id = entry.getId();
+            if (id - last - 1 <= MAX_TRACKED_GAP) {
+                for (long missing = last + 1; missing < id; missing++) {
+                    gaps.put(missing, now);
+                }
+            } else {
+                logger.debug("Not tracking {} skipped change log IDs before {}", id - last - 1, id);
+            }
+            last = id;
+            collect(entry, remote);
+        }
+        position = last;
+
+        int before = gaps.size();
+        gaps.values().removeIf(firstMissed -> now - firstMissed > gapTimeoutNanos);
+        expiredGaps.add(before - gaps.size());
+        pendingGaps = gaps.size();
+
+        if (!remote.isEmpty()) {
+            remoteBatches.increment();
+            logger.debug("Delivering {} invalidations from other nodes, change log position {}", remote.size(), last);
+            dispatch(new InvalidationBatch(Set.copyOf(remote), true));
+        }
+        boolean activity = !next.isEmpty() || !late.isEmpty();
+        intervalMs = activity ? minIntervalMs : Math.min(maxIntervalMs, intervalMs * 2);
+        purgeIfDue(now);
+        return next.size() == batchSize;
+    }
+
+    private void collect(ChangeLogEntry entry, Set<Invalidation> remote) {
+        if (!nodeId.equals(entry.getOriginNode())) {
+            received.increment();
+            remote.add(new Invalidation(entry.getTarget(), entry.getEntityId()));
+        }
+    }
+
+    private void purgeIfDue(long now) {
+        if (retentionMs <= 0 || archived || now < nextPurgeNanos) {
+            return;
+        }
+        nextPurgeNanos = now + PURGE_INTERVAL_NANOS;
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMs));
+        Integer removed = writeTransaction.execute(status -> changeLogRepository.deleteCreatedBefore(cutoff));
+        if (removed != null && removed > 0) {
+            logger.info("Removed {} change log entries older than {}", removed, cutoff);
+        }
+    }
+
+    /**
+     * Identifies this node's entries in the change log
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Last change log ID read
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Change log entries written by this node
+     */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * Change log entries of other nodes read by this node, before coalescing
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * Batches of other nodes' invalidations delivered to listeners
+     */
+    public long getRemoteBatches() {
+        return remoteBatches.sum();
+    }
+
+    /**
+     * Skipped IDs still being re-checked
+     */
+    public int getPendingGaps() {
+        return pendingGaps;
+    }
+
+    /**
+     * Skipped IDs given up on after the gap timeout
+     */
+    public long getExpiredGaps() {
+        return expiredGaps.sum();
+    }
+}
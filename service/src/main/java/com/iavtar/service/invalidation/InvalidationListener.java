@@ -0,0 +1,12 @@
+package com.iavtar.service.invalidation;
+
+/**
+ * Component holding user or role state in memory that must drop or refresh it when those change.
+ * <p>
+ * Called by {@link InvalidationBus} after a local write commits and for writes other nodes made.
+ * Remote batches arrive on the bus's polling thread, so implementations should return quickly.
+ */
+public interface InvalidationListener {
+
+    void onInvalidation(InvalidationBatch batch);
+}
@@ -0,0 +1,163 @@
+package com.iavtar.service.userimport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: returns one record at a time from a character stream, so memory stays at
+ * one record however large the input is.
+ * <p>
+ * Fields may be quoted, with {@code ""} for a quote inside; quoted fields may span lines. Records end
+ * with LF or CRLF. A record longer than {@code maxRecordChars} fails with {@link CsvFormatException}
+ * rather than growing without bound.
+ */
+public class CsvRecordReader {
+
+    private static final int BUFFER_CHARS = 8192;
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private int position;
+    private int limit;
+    private boolean eof;
+    private long lineNumber = 1;
+    private long recordStartLine;
+
+    public CsvRecordReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Reads the next record
+     * @return its fields, or null at the end of the input
+     */
+    public List<String> next() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        recordStartLine = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int recordChars = 0;
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (fill()) {
+            char c = buffer[position++];
+            if (++recordChars > maxRecordChars) {
+                skipRecord(quoted);
+                throw new CsvFormatException(recordStartLine, "Record longer than " + maxRecordChars + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (fill() && buffer[position] == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append(c);
+                }
+                continue;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\n') {
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                if (fill() && buffer[position] == '\n') {
+                    continue;
+                }
+                field.append(c);
+            } else if (c == '"' && field.isEmpty() && !afterQuote) {
+                quoted = true;
+            } else if (afterQuote) {
+                skipRecord(false);
+                throw new CsvFormatException(recordStartLine, "Unexpected character after a closing quote");
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new CsvFormatException(recordStartLine, "Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Line on which the last record returned (or rejected) started
+     */
+    public long getRecordStartLine() {
+        return recordStartLine;
+    }
+
+    private void skipRecord(boolean quoted) throws IOException {
+        while (fill()) {
+            char c = buffer[position++];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n') {
+                lineNumber++;
+                if (!quoted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        if (eof) {
+            return false;
+        }
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * A record that is not valid CSV; the reader has skipped past it and can continue. Reported per record,
+     * so it carries no stack trace.
+     */
+    public static class CsvFormatException extends IOException {
+
+        private final long line;
+
+        public CsvFormatException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
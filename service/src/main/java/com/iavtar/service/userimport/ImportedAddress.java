@@ -0,0 +1,17 @@
+package com.iavtar.service.userimport;
+
+import com.iavtar.domain.enums.AddressType;
+
+/**
+ * An address of an imported user's profile
+ */
+record ImportedAddress(AddressType type,
+                       String street1,
+                       String street2,
+                       String locality,
+                       String landmark,
+                       String city,
+                       String state,
+                       String country,
+                       String pin) {
+}
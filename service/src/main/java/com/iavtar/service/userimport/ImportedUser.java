@@ -0,0 +1,114 @@
+package com.iavtar.service.userimport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user being imported, with its profile and the addresses of the records that follow it, and the span
+ * of CSV records it came from
+ */
+final class ImportedUser {
+
+    private final String username;
+    private String password;
+    private String passwordHash;
+    private final boolean active;
+    private final List<String> roles;
+    private final String firstname;
+    private final String lastname;
+    private final String email;
+    private final String phone;
+    private final String countryCode;
+    private final List<ImportedAddress> addresses = new ArrayList<>(2);
+    private long firstRecord;
+    private long[] lines;
+
+    ImportedUser(String username, String password, String passwordHash, boolean active, List<String> roles,
+                 String firstname, String lastname, String email, String phone, String countryCode) {
+        this.username = username;
+        this.password = password;
+        this.passwordHash = passwordHash;
+        this.active = active;
+        this.roles = roles;
+        this.firstname = firstname;
+        this.lastname = lastname;
+        this.email = email;
+        this.phone = phone;
+        this.countryCode = countryCode;
+    }
+
+    String username() {
+        return username;
+    }
+
+    /**
+     * Plain-text password still to be hashed, null once hashed or when a hash was supplied
+     */
+    String password() {
+        return password;
+    }
+
+    String passwordHash() {
+        return passwordHash;
+    }
+
+    /**
+     * Replaces the plain-text password with its hash, so it is not kept any longer than needed
+     */
+    void hashed(String passwordHash) {
+        this.passwordHash = passwordHash;
+        this.password = null;
+    }
+
+    boolean active() {
+        return active;
+    }
+
+    List<String> roles() {
+        return roles;
+    }
+
+    String firstname() {
+        return firstname;
+    }
+
+    String lastname() {
+        return lastname;
+    }
+
+    String email() {
+        return email;
+    }
+
+    String phone() {
+        return phone;
+    }
+
+    String countryCode() {
+        return countryCode;
+    }
+
+    List<ImportedAddress> addresses() {
+        return addresses;
+    }
+
+    long firstRecord() {
+        return firstRecord;
+    }
+
+    long lastRecord() {
+        return firstRecord + lines.length - 1;
+    }
+
+    /**
+     * Input line of each of the user's records, which are consecutive from {@code firstRecord}
+     */
+    long[] lines() {
+        return lines;
+    }
+
+    void records(long firstRecord, long[] lines) {
+        this.firstRecord = firstRecord;
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,11 @@
+package com.iavtar.service.userimport;
+
+/**
+ * Told about each user an import inserts, inside the inserting transaction; a batch that is then rolled
+ * back and retried user by user reports its users again
+ */
+@FunctionalInterface
+public interface ImportedUserListener {
+
+    void inserted(long userId, String username);
+}
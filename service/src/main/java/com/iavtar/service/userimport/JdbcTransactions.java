@@ -0,0 +1,19 @@
+package com.iavtar.service.userimport;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs JDBC work in a transaction of its own, committed when the work returns and rolled back when it throws
+ */
+@FunctionalInterface
+public interface JdbcTransactions {
+
+    void execute(Work work) throws SQLException;
+
+    @FunctionalInterface
+    interface Work {
+
+        void run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,30 @@
+package com.iavtar.service.userimport;
+
+/**
+ * A CSV record that was not imported, and why
+ *
+ * @param record position of the record after the header, from 1
+ * @param line line of the input the record starts on
+ * @param username the record's username, if it could be read
+ */
+public record UserImportError(long record, long line, String username, String message) {
+
+    public static final String CSV_HEADER = "record,line,username,error";
+
+    /**
+     * The error as a line of the error report
+     */
+    public String toCsvLine() {
+        return record + "," + line + "," + quote(username) + "," + quote(message);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,253 @@
+package com.iavtar.service.userimport;
+
+import com.iavtar.domain.enums.AddressType;
+import com.iavtar.domain.exception.InvalidImportException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Maps CSV records to users by the header's column names and validates them.
+ * <p>
+ * Columns may come in any order; only {@code username} and one of {@code password} or
+ * {@code password_hash} are required. A record with any address column set carries one address.
+ */
+final class UserImportParser {
+
+    static final List<String> COLUMNS = List.of(
+            "username", "password", "password_hash", "active", "roles",
+            "firstname", "lastname", "email", "phone", "country_code",
+            "address_type", "street1", "street2", "locality", "landmark", "city", "state", "country", "pin");
+
+    private static final int USERNAME = 0;
+    private static final int PASSWORD = 1;
+    private static final int PASSWORD_HASH = 2;
+    private static final int ACTIVE = 3;
+    private static final int ROLES = 4;
+    private static final int FIRSTNAME = 5;
+    private static final int LASTNAME = 6;
+    private static final int EMAIL = 7;
+    private static final int PHONE = 8;
+    private static final int COUNTRY_CODE = 9;
+    private static final int FIRST_ADDRESS_COLUMN = 10;
+    private static final int ADDRESS_TYPE = 10;
+    private static final int STREET1 = 11;
+    private static final int STREET2 = 12;
+    private static final int LOCALITY = 13;
+    private static final int LANDMARK = 14;
+    private static final int CITY = 15;
+    private static final int STATE = 16;
+    private static final int COUNTRY = 17;
+    private static final int PIN = 18;
+
+    /** Default VARCHAR length of the mapped columns */
+    private static final int MAX_FIELD_LENGTH = 255;
+    /** BCrypt ignores (and Spring Security rejects) password bytes beyond this */
+    private static final int MAX_PASSWORD_BYTES = 72;
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+
+    /** Record field index of each known column, -1 when absent */
+    private final int[] fieldIndex = new int[COLUMNS.size()];
+    private final int headerSize;
+
+    UserImportParser(List<String> header) {
+        headerSize = header.size();
+        Arrays.fill(fieldIndex, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip().toLowerCase(Locale.ROOT);
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == '\uFEFF') {
+                name = name.substring(1);
+            }
+            int column = COLUMNS.indexOf(name);
+            if (column < 0) {
+                throw new InvalidImportException("Unknown column '" + header.get(i) + "'; expected any of " + COLUMNS);
+            }
+            if (fieldIndex[column] >= 0) {
+                throw new InvalidImportException("Duplicate column '" + name + "'");
+            }
+            fieldIndex[column] = i;
+        }
+        if (fieldIndex[USERNAME] < 0 || (fieldIndex[PASSWORD] < 0 && fieldIndex[PASSWORD_HASH] < 0)) {
+            throw new InvalidImportException("Header must name username and password or password_hash");
+        }
+    }
+
+    /**
+     * Parses one record
+     * @throws InvalidRowException when a value is missing or invalid
+     */
+    Row parse(List<String> fields) {
+        if (fields.size() != headerSize) {
+            throw new InvalidRowException("Expected " + headerSize + " fields, found " + fields.size());
+        }
+        String username = value(fields, USERNAME);
+        if (username == null) {
+            throw new InvalidRowException("username is required");
+        }
+        return new Row(username, user(fields), address(fields));
+    }
+
+    /**
+     * The record's username, if it has one, for reporting a record that failed to parse
+     */
+    String username(List<String> fields) {
+        int index = fieldIndex[USERNAME];
+        if (index >= fields.size()) {
+            return null;
+        }
+        String username = fields.get(index).strip();
+        return username.isEmpty() || username.length() > MAX_FIELD_LENGTH ? null : username;
+    }
+
+    /**
+     * Whether a record is blank (a stray empty line), to be skipped rather than rejected
+     */
+    static boolean isBlank(List<String> fields) {
+        return fields.size() == 1 && fields.get(0).isBlank();
+    }
+
+    private ImportedUser user(List<String> fields) {
+        String password = raw(fields, PASSWORD);
+        if (password != null && password.isEmpty()) {
+            password = null;
+        }
+        String passwordHash = value(fields, PASSWORD_HASH);
+        if (password == null && passwordHash == null) {
+            return null;
+        }
+        if (password != null && passwordHash != null) {
+            throw new InvalidRowException("Only one of password and password_hash may be set");
+        }
+        if (password != null && password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            throw new InvalidRowException("password is longer than " + MAX_PASSWORD_BYTES + " bytes");
+        }
+        if (passwordHash != null) {
+            passwordHash = storedHash(passwordHash);
+        }
+        String email = value(fields, EMAIL);
+        if (email != null && (email.indexOf('@') < 1 || email.indexOf('@') != email.lastIndexOf('@')
+                || email.indexOf('@') == email.length() - 1 || email.chars().anyMatch(Character::isWhitespace))) {
+            throw new InvalidRowException("email is not a valid address");
+        }
+        return new ImportedUser(
+                value(fields, USERNAME),
+                password,
+                passwordHash,
+                active(value(fields, ACTIVE)),
+                roles(value(fields, ROLES)),
+                value(fields, FIRSTNAME),
+                value(fields, LASTNAME),
+                email,
+                value(fields, PHONE),
+                value(fields, COUNTRY_CODE));
+    }
+
+    private ImportedAddress address(List<String> fields) {
+        boolean present = false;
+        for (int column = FIRST_ADDRESS_COLUMN; column < COLUMNS.size() && !present; column++) {
+            present = value(fields, column) != null;
+        }
+        if (!present) {
+            return null;
+        }
+        String type = value(fields, ADDRESS_TYPE);
+        if (type == null) {
+            throw new InvalidRowException("address_type is required with an address");
+        }
+        AddressType addressType;
+        try {
+            addressType = AddressType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRowException("address_type must be one of " + Arrays.toString(AddressType.values()));
+        }
+        String street1 = value(fields, STREET1);
+        String city = value(fields, CITY);
+        String country = value(fields, COUNTRY);
+        if (street1 == null || city == null || country == null) {
+            throw new InvalidRowException("street1, city and country are required with an address");
+        }
+        return new ImportedAddress(addressType, street1, value(fields, STREET2), value(fields, LOCALITY),
+                value(fields, LANDMARK), city, value(fields, STATE), country, value(fields, PIN));
+    }
+
+    /**
+     * Accepts a BCrypt hash with or without the {@code {bcrypt}} prefix and stores it with the prefix
+     */
+    private static String storedHash(String hash) {
+        String bare = hash.startsWith(BCRYPT_PREFIX) ? hash.substring(BCRYPT_PREFIX.length()) : hash;
+        if (!BCRYPT_HASH.matcher(bare).matches()) {
+            throw new InvalidRowException("password_hash must be a BCrypt hash, optionally prefixed with {bcrypt}");
+        }
+        return BCRYPT_PREFIX + bare;
+    }
+
+    private static boolean active(String value) {
+        if (value == null) {
+            return true;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new InvalidRowException("active must be true or false");
+        };
+    }
+
+    private static List<String> roles(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        List<String> roles = new ArrayList<>();
+        for (String role : value.split(";")) {
+            String name = role.strip();
+            if (!name.isEmpty() && !roles.contains(name)) {
+                roles.add(name);
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * The stripped value of a column, or null when the column is absent or blank
+     */
+    private String value(List<String> fields, int column) {
+        String value = raw(fields, column);
+        if (value == null) {
+            return null;
+        }
+        value = value.strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private String raw(List<String> fields, int column) {
+        int index = fieldIndex[column];
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        if (value.length() > MAX_FIELD_LENGTH) {
+            throw new InvalidRowException(COLUMNS.get(column) + " is longer than " + MAX_FIELD_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    /**
+     * A parsed record: the username, the user it describes if it has a password, and its address if any
+     */
+    record Row(String username, ImportedUser user, ImportedAddress address) {
+    }
+
+    /**
+     * A record that cannot be imported; reported per record, so it carries no stack trace
+     */
+    static final class InvalidRowException extends RuntimeException {
+
+        InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
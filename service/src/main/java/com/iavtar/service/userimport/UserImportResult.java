@@ -0,0 +1,17 @@
+package com.iavtar.service.userimport;
+
+/**
+ * Outcome of one run of an import
+ *
+ * @param resumedAfterRecord records skipped because an earlier run of the same import committed them
+ * @param recordsRead records read after the header, including the skipped ones
+ * @param usersImported users created by this run
+ * @param recordsRejected records this run reported as errors
+ */
+public record UserImportResult(String importId,
+                               long resumedAfterRecord,
+                               long recordsRead,
+                               long usersImported,
+                               long recordsRejected,
+                               long durationMs) {
+}
@@ -0,0 +1,112 @@
+package com.iavtar.service.userimport;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.enums.ActivityMetric;
+import com.iavtar.domain.enums.ChangeTarget;
+import com.iavtar.service.PasswordHasher;
+import com.iavtar.service.UsernameBloomFilterService;
+import com.iavtar.service.activity.ActivityRollupService;
+import com.iavtar.service.invalidation.InvalidationBus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link UserImporter} inside the application: batches go through the application's transaction
+ * manager and connection pool, passwords are hashed with its password encoder on a shared pool of
+ * {@code user-import.hash-threads}, and imported users are published like any other user write, so the
+ * username filter, the other nodes and the activity rollups learn about them when each batch commits.
+ */
+@Service
+public class UserImportService implements DisposableBean {
+
+    private final DataSource dataSource;
+    private final TransactionTemplate transaction;
+    private final UsernameBloomFilterService usernameBloomFilter;
+    private final InvalidationBus invalidationBus;
+    private final ActivityRollupService activityRollups;
+    private final UserImporter importer;
+    private final ExecutorService hashingExecutor;
+
+    public UserImportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             UsernameBloomFilterService usernameBloomFilter,
+                             InvalidationBus invalidationBus,
+                             ActivityRollupService activityRollups,
+                             PasswordHasher passwordHasher,
+                             @Value("${user-import.batch-size:500}") int batchSize,
+                             @Value("${user-import.hash-threads:0}") int hashThreads,
+                             @Value("${user-import.max-record-chars:65536}") int maxRecordChars) {
+        this.dataSource = dataSource;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.usernameBloomFilter = usernameBloomFilter;
+        this.invalidationBus = invalidationBus;
+        this.activityRollups = activityRollups;
+        this.hashingExecutor = Executors.newFixedThreadPool(
+                hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().name("user-import-hash-", 0).daemon().factory());
+        this.importer = new UserImporter(this::inTransaction, passwordHasher, hashingExecutor, batchSize, maxRecordChars);
+    }
+
+    /**
+     * Imports users from CSV, resuming an earlier run of {@code importId}
+     * @param errors receives each rejected record
+     */
+    public UserImportResult importUsers(String importId, Reader csv, Consumer<UserImportError> errors)
+            throws IOException, SQLException {
+        return importer.run(importId, TransactionContext.getTransactionId(), csv, errors, (userId, username) -> {
+            usernameBloomFilter.recordUsername(username);
+            invalidationBus.publish(ChangeTarget.USER, userId);
+            activityRollups.record(ActivityMetric.USERS_CREATED);
+        });
+    }
+
+    private void inTransaction(JdbcTransactions.Work work) throws SQLException {
+        try {
+            transaction.executeWithoutResult(status -> {
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                try {
+                    work.run(connection);
+                } catch (SQLException e) {
+                    throw new WorkFailedException(e);
+                } finally {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                }
+            });
+        } catch (WorkFailedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * Carries a checked {@link SQLException} out of the transaction callback, rolling the transaction back
+     */
+    private static final class WorkFailedException extends RuntimeException {
+
+        WorkFailedException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
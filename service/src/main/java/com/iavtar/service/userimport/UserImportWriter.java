@@ -0,0 +1,234 @@
+package com.iavtar.service.userimport;
+
+import com.iavtar.domain.util.ContactKeys;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SQL of an import: users with their profile, addresses and role memberships written as JDBC batches,
+ * and the import's checkpoint row.
+ * <p>
+ * Profile and user keys are generated by the database and read back from each batch, so imports can run
+ * while the application is inserting too. Every method works on the caller's connection and transaction.
+ */
+final class UserImportWriter {
+
+    private static final String INSERT_PROFILE =
+            "INSERT INTO profile (firstname, lastname, email, phone, country_code, email_key, phone_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER =
+            "INSERT INTO user (username, password, profile_id, active, created_at, transaction_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ADDRESS =
+            "INSERT INTO address (profile_id, type, street1, street2, locality, landmark, city, state, country, pin)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private static final String SELECT_CHECKPOINT =
+            "SELECT records_committed FROM user_import_checkpoints WHERE import_id = ?";
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO user_import_checkpoints (import_id, records_committed, users_imported, records_rejected, created_at, updated_at)"
+                    + " VALUES (?, 0, 0, 0, ?, ?)";
+    private static final String ADVANCE_CHECKPOINT =
+            "UPDATE user_import_checkpoints SET records_committed = ?, users_imported = users_imported + ?,"
+                    + " records_rejected = records_rejected + ?, updated_at = ? WHERE import_id = ? AND records_committed = ?";
+
+    private UserImportWriter() {
+    }
+
+    /**
+     * Role keys by name
+     */
+    static Map<String, Long> roleIds(Connection connection) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT id, name FROM roles")) {
+            while (result.next()) {
+                ids.put(result.getString(2), result.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Which of {@code usernames} are taken, with one query
+     */
+    static Set<String> existingUsernames(Connection connection, Collection<String> usernames) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (usernames.isEmpty()) {
+            return existing;
+        }
+        String sql = "SELECT username FROM user WHERE username IN (" + "?,".repeat(usernames.size() - 1) + "?)";
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (String username : usernames) {
+                select.setString(index++, username);
+            }
+            try (ResultSet result = select.executeQuery()) {
+                while (result.next()) {
+                    existing.add(result.getString(1));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Inserts the users, which must all have a password hash and known roles
+     * @return their generated keys, in order
+     */
+    static long[] insert(Connection connection, List<ImportedUser> users, Map<String, Long> roleIds, String transactionId)
+            throws SQLException {
+        if (users.isEmpty()) {
+            return new long[0];
+        }
+        long[] profileIds;
+        try (PreparedStatement profiles = connection.prepareStatement(INSERT_PROFILE, Statement.RETURN_GENERATED_KEYS)) {
+            for (ImportedUser user : users) {
+                setNullableString(profiles, 1, user.firstname());
+                setNullableString(profiles, 2, user.lastname());
+                setNullableString(profiles, 3, user.email());
+                setNullableString(profiles, 4, user.phone());
+                setNullableString(profiles, 5, user.countryCode());
+                setNullableString(profiles, 6, ContactKeys.canonicalEmail(user.email()));
+                setNullableLong(profiles, 7, ContactKeys.phoneNumber(user.phone(), user.countryCode()));
+                profiles.addBatch();
+            }
+            profiles.executeBatch();
+            profileIds = generatedKeys(profiles, users.size());
+        }
+
+        long[] userIds;
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement inserts = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < users.size(); i++) {
+                ImportedUser user = users.get(i);
+                inserts.setString(1, user.username());
+                inserts.setString(2, user.passwordHash());
+                inserts.setLong(3, profileIds[i]);
+                inserts.setBoolean(4, user.active());
+                inserts.setTimestamp(5, createdAt);
+                inserts.setString(6, transactionId);
+                inserts.addBatch();
+            }
+            inserts.executeBatch();
+            userIds = generatedKeys(inserts, users.size());
+        }
+
+        try (PreparedStatement addresses = connection.prepareStatement(INSERT_ADDRESS);
+             PreparedStatement userRoles = connection.prepareStatement(INSERT_USER_ROLE)) {
+            boolean anyAddress = false;
+            boolean anyRole = false;
+            for (int i = 0; i < users.size(); i++) {
+                ImportedUser user = users.get(i);
+                for (ImportedAddress address : user.addresses()) {
+                    addresses.setLong(1, profileIds[i]);
+                    addresses.setString(2, address.type().name());
+                    addresses.setString(3, address.street1());
+                    setNullableString(addresses, 4, address.street2());
+                    setNullableString(addresses, 5, address.locality());
+                    setNullableString(addresses, 6, address.landmark());
+                    addresses.setString(7, address.city());
+                    setNullableString(addresses, 8, address.state());
+                    addresses.setString(9, address.country());
+                    setNullableString(addresses, 10, address.pin());
+                    addresses.addBatch();
+                    anyAddress = true;
+                }
+                for (String role : user.roles()) {
+                    userRoles.setLong(1, userIds[i]);
+                    userRoles.setLong(2, roleIds.get(role));
+                    userRoles.addBatch();
+                    anyRole = true;
+                }
+            }
+            if (anyAddress) {
+                addresses.executeBatch();
+            }
+            if (anyRole) {
+                userRoles.executeBatch();
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Records committed by earlier runs of the import, creating its checkpoint on the first run
+     */
+    static long startCheckpoint(Connection connection, String importId) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(SELECT_CHECKPOINT)) {
+            select.setString(1, importId);
+            try (ResultSet result = select.executeQuery()) {
+                if (result.next()) {
+                    return result.getLong(1);
+                }
+            }
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_CHECKPOINT)) {
+            insert.setString(1, importId);
+            insert.setTimestamp(2, now);
+            insert.setTimestamp(3, now);
+            insert.executeUpdate();
+        }
+        return 0;
+    }
+
+    /**
+     * Moves the checkpoint from {@code fromRecord} to {@code toRecord}
+     * @return false if the checkpoint is no longer at {@code fromRecord}: another run of the import moved it
+     */
+    static boolean advanceCheckpoint(Connection connection, String importId, long fromRecord, long toRecord,
+                                     long usersImported, long recordsRejected) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(ADVANCE_CHECKPOINT)) {
+            update.setLong(1, toRecord);
+            update.setLong(2, usersImported);
+            update.setLong(3, recordsRejected);
+            update.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            update.setString(5, importId);
+            update.setLong(6, fromRecord);
+            return update.executeUpdate() == 1;
+        }
+    }
+
+    private static long[] generatedKeys(Statement statement, int expected) throws SQLException {
+        long[] keys = new long[expected];
+        int count = 0;
+        try (ResultSet generated = statement.getGeneratedKeys()) {
+            while (generated.next() && count < expected) {
+                keys[count++] = generated.getLong(1);
+            }
+        }
+        if (count != expected) {
+            throw new SQLException("Driver returned " + count + " generated keys for " + expected + " rows");
+        }
+        return keys;
+    }
+
+    private static void setNullableLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.iavtar.service.userimport;
+
+import com.iavtar.domain.exception.ImportConflictException;
+import com.iavtar.domain.exception.InvalidImportException;
+import com.iavtar.service.PasswordHasher;
+import com.iavtar.service.userimport.CsvRecordReader.CsvFormatException;
+import com.iavtar.service.userimport.UserImportParser.InvalidRowException;
+import com.iavtar.service.userimport.UserImportParser.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Streams users, their profiles and addresses from CSV into the database in batches.
+ * <p>
+ * Records are read one at a time; consecutive records with the same username form one user, the first
+ * carrying the password and profile and each carrying at most one address (see {@link UserImportParser}).
+ * Plain-text passwords are hashed on {@code hashingExecutor} while the following records are read, so
+ * hashing runs in parallel and overlaps parsing. Memory is bounded by one batch of {@code batchSize} users.
+ * <p>
+ * Each batch is written in one transaction that also advances the import's checkpoint in
+ * {@code user_import_checkpoints}, so a failed or interrupted import rerun with the same import ID resumes
+ * after the last committed batch. If a batch fails, its users are retried one transaction each to find the
+ * ones that cannot be written; a crash during that retry makes the rerun report the users it had already
+ * written as existing. A user is imported completely or not at all: every record of a rejected user is
+ * reported, with the reason on the record at fault.
+ */
+public class UserImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImporter.class);
+
+    private final JdbcTransactions transactions;
+    private final PasswordHasher passwordHasher;
+    private final ExecutorService hashingExecutor;
+    private final int batchSize;
+    private final int maxRecordChars;
+
+    public UserImporter(JdbcTransactions transactions, PasswordHasher passwordHasher, ExecutorService hashingExecutor,
+                        int batchSize, int maxRecordChars) {
+        this.transactions = transactions;
+        this.passwordHasher = passwordHasher;
+        this.hashingExecutor = hashingExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Imports the CSV, resuming after the records an earlier run of {@code importId} committed
+     *
+     * @param transactionId stored on the created users
+     * @param errors receives each rejected record once its batch is committed
+     * @param listener told about each inserted user before its batch commits
+     */
+    public UserImportResult run(String importId, String transactionId, Reader csv,
+                                Consumer<UserImportError> errors, ImportedUserListener listener) throws IOException, SQLException {
+        long started = System.nanoTime();
+        CsvRecordReader reader = new CsvRecordReader(csv, maxRecordChars);
+        List<String> header;
+        try {
+            header = reader.next();
+        } catch (CsvFormatException e) {
+            throw new InvalidImportException("Unreadable header: " + e.getMessage());
+        }
+        if (header == null) {
+            throw new InvalidImportException("The import is empty; a header line is required");
+        }
+        UserImportParser parser = new UserImportParser(header);
+
+        Run run = new Run(importId, transactionId, errors, listener);
+        transactions.execute(connection -> {
+            run.committed = UserImportWriter.startCheckpoint(connection, importId);
+            run.roleIds = UserImportWriter.roleIds(connection);
+        });
+        long resumedAfter = run.committed;
+        logger.info("Starting user import {} after record {} with transaction ID: {}", importId, resumedAfter, transactionId);
+
+        long record = 0;
+        while (true) {
+            List<String> fields;
+            try {
+                fields = reader.next();
+            } catch (CsvFormatException e) {
+                if (++record > resumedAfter) {
+                    run.accept(record, e.getLine(), null, null, e.getMessage());
+                }
+                continue;
+            }
+            if (fields == null) {
+                break;
+            }
+            if (UserImportParser.isBlank(fields) || ++record <= resumedAfter) {
+                continue;
+            }
+            long line = reader.getRecordStartLine();
+            try {
+                Row row = parser.parse(fields);
+                run.accept(record, line, row.username(), row, null);
+            } catch (InvalidRowException e) {
+                run.accept(record, line, parser.username(fields), null, e.getMessage());
+            }
+        }
+        run.finish();
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Finished user import {}: {} records read, {} users imported, {} records rejected in {} ms with transaction ID: {}",
+                importId, record, run.usersImported, run.recordsRejected, durationMs, transactionId);
+        return new UserImportResult(importId, resumedAfter, record, run.usersImported, run.recordsRejected, durationMs);
+    }
+
+    /**
+     * State of one run: the user being read, the batch being filled, and the committed position
+     */
+    private final class Run {
+
+        private final String importId;
+        private final String transactionId;
+        private final Consumer<UserImportError> errorSink;
+        private final ImportedUserListener listener;
+        private Map<String, Long> roleIds;
+        private long committed;
+        private long usersImported;
+        private long recordsRejected;
+
+        // The user being read
+        private String groupUsername;
+        private ImportedUser group;
+        private final List<long[]> groupRecords = new ArrayList<>();
+        private UserImportError groupFailure;
+
+        // The batch being filled
+        private final List<ImportedUser> users = new ArrayList<>();
+        private final Map<ImportedUser, Future<String>> hashes = new HashMap<>();
+        private final Set<String> usernames = new HashSet<>();
+        private final List<UserImportError> errors = new ArrayList<>();
+        private long batchEnd;
+
+        Run(String importId, String transactionId, Consumer<UserImportError> errorSink, ImportedUserListener listener) {
+            this.importId = importId;
+            this.transactionId = transactionId;
+            this.errorSink = errorSink;
+            this.listener = listener;
+        }
+
+        /**
+         * Adds a parsed record, or a record rejected with {@code error}
+         */
+        void accept(long record, long line, String username, Row row, String error) throws SQLException {
+            if (username == null || !username.equals(groupUsername)) {
+                closeGroup();
+                groupUsername = username;
+            }
+            groupRecords.add(new long[]{record, line});
+            if (groupFailure != null) {
+                return;
+            }
+            if (error != null) {
+                groupFailure = new UserImportError(record, line, username, error);
+            } else if (group == null) {
+                startGroup(record, line, row);
+            } else if (row.address() == null) {
+                groupFailure = new UserImportError(record, line, username,
+                        "Repeated username without an address; each user's records must be consecutive");
+            } else {
+                group.addresses().add(row.address());
+            }
+        }
+
+        private void startGroup(long record, long line, Row row) {
+            ImportedUser user = row.user();
+            String failure = null;
+            if (user == null) {
+                failure = "password or password_hash is required on a user's first record";
+            } else if (usernames.contains(user.username())) {
+                failure = "Username appears earlier in this import";
+            } else {
+                for (String role : user.roles()) {
+                    if (!roleIds.containsKey(role)) {
+                        failure = "Unknown role: " + role;
+                        break;
+                    }
+                }
+            }
+            if (failure != null) {
+                groupFailure = new UserImportError(record, line, row.username(), failure);
+                return;
+            }
+            group = user;
+            if (row.address() != null) {
+                group.addresses().add(row.address());
+            }
+        }
+
+        private void closeGroup() throws SQLException {
+            if (groupRecords.isEmpty()) {
+                return;
+            }
+            long[] first = groupRecords.get(0);
+            long[] last = groupRecords.get(groupRecords.size() - 1);
+            if (groupFailure != null) {
+                reject(groupFailure);
+            } else {
+                group.records(first[0], groupRecords.stream().mapToLong(record -> record[1]).toArray());
+                users.add(group);
+                usernames.add(group.username());
+                String password = group.password();
+                if (password != null) {
+                    hashes.put(group, hashingExecutor.submit(() -> passwordHasher.hash(password)));
+                }
+            }
+            batchEnd = last[0];
+            groupUsername = null;
+            group = null;
+            groupFailure = null;
+            groupRecords.clear();
+            if (users.size() + errors.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Reports every record of the current user: the failure on its record, the rest as not imported
+         */
+        private void reject(UserImportError failure) {
+            for (long[] record : groupRecords) {
+                if (record[0] == failure.record()) {
+                    errors.add(failure);
+                } else {
+                    errors.add(new UserImportError(record[0], record[1], failure.username(),
+                            "Not imported: record " + failure.record() + " of this user was rejected"));
+                }
+            }
+        }
+
+        void finish() throws SQLException {
+            closeGroup();
+            flush();
+        }
+
+        private void flush() throws SQLException {
+            if (batchEnd <= committed) {
+                return;
+            }
+            List<ImportedUser> ready = new ArrayList<>(users.size());
+            for (ImportedUser user : users) {
+                Future<String> hash = hashes.get(user);
+                if (hash != null) {
+                    try {
+                        user.hashed(hash.get());
+                    } catch (ExecutionException e) {
+                        rejectUser(user, "Password could not be hashed: " + e.getCause().getMessage());
+                        continue;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while hashing passwords of import " + importId, e);
+                    }
+                }
+                ready.add(user);
+            }
+
+            List<ImportedUser> written;
+            try {
+                written = write(ready, true);
+            } catch (SQLException e) {
+                logger.warn("Batch of user import {} ending at record {} failed ({}); writing its users one by one with transaction ID: {}",
+                        importId, batchEnd, e.getMessage(), transactionId);
+                written = new ArrayList<>(ready.size());
+                for (ImportedUser user : ready) {
+                    try {
+                        written.addAll(write(List.of(user), false));
+                    } catch (SQLException userFailure) {
+                        rejectUser(user, "Could not be written: " + userFailure.getMessage());
+                    }
+                }
+                long rejected = errors.size();
+                int count = written.size();
+                transactions.execute(connection -> advance(connection, count, rejected));
+            }
+
+            committed = batchEnd;
+            usersImported += written.size();
+            recordsRejected += errors.size();
+            errors.sort(Comparator.comparingLong(UserImportError::record));
+            errors.forEach(errorSink);
+            logger.debug("User import {} committed through record {}: {} users, {} records rejected with transaction ID: {}",
+                    importId, committed, written.size(), errors.size(), transactionId);
+            users.clear();
+            hashes.clear();
+            usernames.clear();
+            errors.clear();
+        }
+
+        /**
+         * Inserts the users not already taken, and advances the checkpoint over the batch when asked to
+         * @return the users inserted
+         */
+        private List<ImportedUser> write(List<ImportedUser> batch, boolean advance) throws SQLException {
+            List<ImportedUser> inserted = new ArrayList<>(batch.size());
+            List<ImportedUser> taken = new ArrayList<>();
+            transactions.execute(connection -> {
+                inserted.clear();
+                taken.clear();
+                Set<String> existing = UserImportWriter.existingUsernames(connection,
+                        batch.stream().map(ImportedUser::username).toList());
+                for (ImportedUser user : batch) {
+                    (existing.contains(user.username()) ? taken : inserted).add(user);
+                }
+                long[] userIds = UserImportWriter.insert(connection, inserted, roleIds, transactionId);
+                for (int i = 0; i < userIds.length; i++) {
+                    listener.inserted(userIds[i], inserted.get(i).username());
+                }
+                if (advance) {
+                    advance(connection, inserted.size(), errors.size() + recordCount(taken));
+                }
+            });
+            for (ImportedUser user : taken) {
+                rejectUser(user, "Username already exists");
+            }
+            return inserted;
+        }
+
+        private void advance(Connection connection, long usersWritten, long rejected) throws SQLException {
+            if (!UserImportWriter.advanceCheckpoint(connection, importId, committed, batchEnd, usersWritten, rejected)) {
+                throw new ImportConflictException("Import " + importId + " was advanced by another run; run each import once at a time");
+            }
+        }
+
+        private void rejectUser(ImportedUser user, String message) {
+            long[] lines = user.lines();
+            for (int i = 0; i < lines.length; i++) {
+                errors.add(new UserImportError(user.firstRecord() + i, lines[i], user.username(), message));
+            }
+        }
+    }
+
+    private static long recordCount(List<ImportedUser> users) {
+        long count = 0;
+        for (ImportedUser user : users) {
+            count += user.lines().length;
+        }
+        return count;
+    }
+}
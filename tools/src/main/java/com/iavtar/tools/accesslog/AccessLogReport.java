@@ -0,0 +1,194 @@
+package com.iavtar.tools.accesslog;
+
+import com.iavtar.domain.accesslog.AccessLogFormat;
+import com.iavtar.domain.accesslog.AccessLogRecord;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads binary access log segments (see {@link AccessLogFormat}) offline, optionally converts them to CSV,
+ * and prints per-route latency and DB time percentiles.
+ * <p>
+ * Arguments are segment files or directories of them; directories are read in file name order, which is
+ * write order. Percentiles are exact (nearest rank over all records of a route), so a report over many
+ * millions of records needs a correspondingly large heap.
+ * <pre>
+ * java -cp tools.jar:... com.iavtar.tools.accesslog.AccessLogReport logs/access
+ * java -cp tools.jar:... com.iavtar.tools.accesslog.AccessLogReport --csv=access.csv logs/access/access-20250101-120000-000-000.seg
+ * </pre>
+ * {@code --csv=-} writes the CSV to standard output and skips the report.
+ */
+public class AccessLogReport {
+
+    private static final String CSV_HEADER = "timestamp,transaction_id,method,route,status,principal,latency_ms,db_ms,statements";
+
+    /** Per-route samples, grown as records are read */
+    private static final class RouteStats {
+        private long[] latencies = new long[64];
+        private long[] dbTimes = new long[64];
+        private long statements;
+        private int count;
+        private int serverErrors;
+
+        void add(AccessLogRecord record) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+                dbTimes = Arrays.copyOf(dbTimes, count * 2);
+            }
+            latencies[count] = record.latencyNanos();
+            dbTimes[count] = record.dbNanos();
+            statements += record.statements();
+            if (record.status() >= 500) {
+                serverErrors++;
+            }
+            count++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String csv = null;
+        List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--csv=")) {
+                csv = arg.substring("--csv=".length());
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            } else {
+                inputs.add(Path.of(arg));
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("usage: AccessLogReport [--csv=<file>|-] <segment or directory>...");
+            System.exit(2);
+        }
+
+        List<Path> segments = segments(inputs);
+        boolean csvToStdout = "-".equals(csv);
+        Map<String, RouteStats> routes = new TreeMap<>();
+        long records = 0;
+        try (Writer csvWriter = csv == null ? null : new BufferedWriter(csvToStdout
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Path.of(csv), StandardCharsets.UTF_8), 1 << 16)) {
+            if (csvWriter != null) {
+                csvWriter.write(CSV_HEADER);
+                csvWriter.write('\n');
+            }
+            for (Path segment : segments) {
+                records += read(segment, routes, csvWriter);
+            }
+        }
+        if (csvToStdout) {
+            return;
+        }
+        System.out.printf("%d records in %d segments%n%n", records, segments.size());
+        print(System.out, routes);
+    }
+
+    private static List<Path> segments(List<Path> inputs) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.list(input)) {
+                    files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().forEach(segments::add);
+                }
+            } else {
+                segments.add(input);
+            }
+        }
+        return segments;
+    }
+
+    private static long read(Path segment, Map<String, RouteStats> routes, Writer csv) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            AccessLogFormat.checkHeader(buffer);
+            int capacity = AccessLogFormat.capacity(channel.size());
+            int index = 0;
+            for (AccessLogRecord record; index < capacity && (record = AccessLogFormat.read(buffer, index)) != null; index++) {
+                routes.computeIfAbsent(record.method() + " " + record.route(), route -> new RouteStats()).add(record);
+                if (csv != null) {
+                    writeCsv(csv, record);
+                }
+            }
+            return index;
+        } catch (IllegalArgumentException e) {
+            System.err.printf("skipping %s: %s%n", segment, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static void writeCsv(Writer csv, AccessLogRecord record) throws IOException {
+        csv.write(Instant.ofEpochMilli(record.timestampMillis()).toString());
+        csv.write(',');
+        csv.write(escape(record.transactionId()));
+        csv.write(',');
+        csv.write(record.method());
+        csv.write(',');
+        csv.write(escape(record.route()));
+        csv.write(',');
+        csv.write(Integer.toString(record.status()));
+        csv.write(',');
+        csv.write(escape(record.principal()));
+        csv.write(',');
+        csv.write(millis(record.latencyNanos()));
+        csv.write(',');
+        csv.write(millis(record.dbNanos()));
+        csv.write(',');
+        csv.write(Integer.toString(record.statements()));
+        csv.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void print(PrintStream out, Map<String, RouteStats> routes) {
+        out.printf("%-48s %8s %6s %9s %9s %9s %9s %9s %9s %9s %6s%n", "route", "count", "5xx",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "db p50", "db p99", "sql");
+        for (Map.Entry<String, RouteStats> entry : routes.entrySet()) {
+            RouteStats stats = entry.getValue();
+            long[] latencies = Arrays.copyOf(stats.latencies, stats.count);
+            long[] dbTimes = Arrays.copyOf(stats.dbTimes, stats.count);
+            Arrays.sort(latencies);
+            Arrays.sort(dbTimes);
+            out.printf("%-48s %8d %6d %9s %9s %9s %9s %9s %9s %9s %6.1f%n", entry.getKey(), stats.count, stats.serverErrors,
+                    millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.90)),
+                    millis(percentile(latencies, 0.99)), millis(percentile(latencies, 0.999)),
+                    millis(latencies[latencies.length - 1]),
+                    millis(percentile(dbTimes, 0.50)), millis(percentile(dbTimes, 0.99)),
+                    (double) stats.statements / stats.count);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+}
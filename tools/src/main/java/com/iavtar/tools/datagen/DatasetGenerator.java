@@ -0,0 +1,235 @@
+package com.iavtar.tools.datagen;
+
+import com.iavtar.domain.util.TransactionId;
+import com.iavtar.service.activity.ActivityBackfill;
+import com.iavtar.tools.datagen.SyntheticData.SyntheticUser;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loads a realistic user dataset into the application's database over JDBC.
+ * <p>
+ * Creates {@code --users} users, each with a profile, 1 to 3 addresses and skewed role memberships,
+ * signed up over {@code --from}..{@code --to} with matching transaction IDs (see {@link SyntheticData}).
+ * At about 5.3 rows per user, 2 million users is roughly 10 million rows. The same seed always produces
+ * the same data. Rows are appended after the highest existing keys, so the tool can also top up a database
+ * that already holds data.
+ * <p>
+ * Every user's password is {@code --user-password}. To avoid hashing millions of times, a small pool of
+ * BCrypt hashes of it is computed once, with salts from the seed, and shared between users.
+ * <p>
+ * If the application has already started on the database, the new users and roles are added to its
+ * activity rollups; otherwise the application backfills them from {@code created_at} when it first starts.
+ * <pre>
+ * java -cp tools.jar:... com.iavtar.tools.datagen.DatasetGenerator \
+ *      --url=jdbc:h2:file:./data/ecom_service --users=2000000 --threads=8 --seed=42
+ * java -cp tools.jar:... com.iavtar.tools.datagen.DatasetGenerator \
+ *      --url=jdbc:mysql://localhost:3306/ecom_service_dev --username=root --password=toor --users=2000000
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    private static final int PASSWORD_HASHES = 32;
+    /** The application's default {@code activity-rollups.minute-retention-days}; older minutes are purged */
+    private static final int MINUTE_ROLLUP_DAYS = 7;
+
+    public static void main(String[] args) throws Exception {
+        DatasetOptions options = DatasetOptions.parse(args);
+
+        if (options.updateSchema()) {
+            System.out.printf("updating schema on %s%n", options.url());
+            SchemaInitializer.update(options);
+        }
+
+        System.out.printf("hashing %d password variants at BCrypt strength %d%n", PASSWORD_HASHES, options.bcryptStrength());
+        SyntheticData data = new SyntheticData(options, passwordHashes(options));
+
+        long[] roleIds;
+        long userBaseId;
+        long profileBaseId;
+        long addressBaseId;
+        long roleBaseId;
+        try (Connection connection = connect(options)) {
+            roleBaseId = maxId(connection, "roles");
+            roleIds = ensureRoles(connection, options);
+            userBaseId = maxId(connection, "user");
+            profileBaseId = maxId(connection, "profile");
+            addressBaseId = maxId(connection, "address") + 1;
+        }
+
+        System.out.printf("generating %d users with seed %d on %d threads%n", options.users(), options.seed(), options.threads());
+        long start = System.nanoTime();
+        long rows = load(options, data, roleIds, userBaseId, profileBaseId, addressBaseId);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        if (options.isH2()) {
+            try (Connection connection = connect(options)) {
+                restartIdentities(connection);
+            }
+        }
+        try (Connection connection = connect(options)) {
+            addToActivityRollups(connection, userBaseId, roleBaseId);
+        }
+        System.out.printf("loaded %d users, %d rows in %.1f s (%.0f rows/s)%n", options.users(), rows, seconds, rows / seconds);
+    }
+
+    private static long load(DatasetOptions options, SyntheticData data, long[] roleIds,
+                             long userBaseId, long profileBaseId, long addressBaseId) throws Exception {
+        AtomicLong nextIndex = new AtomicLong();
+        LongAdder usersWritten = new LongAdder();
+        LongAdder rowsWritten = new LongAdder();
+
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        progress.scheduleAtFixedRate(() -> {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("  %,d / %,d users, %,d rows, %.0f rows/s%n",
+                    usersWritten.sum(), options.users(), rowsWritten.sum(), rowsWritten.sum() / seconds);
+        }, 5, 5, TimeUnit.SECONDS);
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.threads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < options.threads(); i++) {
+                futures.add(workers.submit(() -> {
+                    try (UserBatchWriter writer = new UserBatchWriter(connect(options), roleIds, addressBaseId)) {
+                        List<SyntheticUser> batch = new ArrayList<>(options.batchSize());
+                        long first;
+                        while ((first = nextIndex.getAndAdd(options.batchSize())) < options.users()) {
+                            long last = Math.min(first + options.batchSize(), options.users());
+                            batch.clear();
+                            for (long index = first; index < last; index++) {
+                                batch.add(data.user(index, userBaseId + index + 1, profileBaseId + index + 1));
+                            }
+                            rowsWritten.add(writer.write(first, batch));
+                            usersWritten.add(last - first);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Let the other workers stop at their next batch
+                    nextIndex.set(Long.MAX_VALUE / 2);
+                    throw e;
+                }
+            }
+        } finally {
+            workers.shutdown();
+            progress.shutdownNow();
+        }
+        return rowsWritten.sum();
+    }
+
+    /**
+     * Looks up the dataset's roles by name, creating the missing ones; returns their keys by Zipf rank
+     */
+    private static long[] ensureRoles(Connection connection, DatasetOptions options) throws SQLException {
+        List<String> names = SyntheticData.roleNames(options.roles());
+        long[] ids = new long[names.size()];
+        long nextId = maxId(connection, "roles") + 1;
+        LocalDateTime createdAt = LocalDateTime.ofInstant(options.from(), ZoneOffset.UTC);
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM roles WHERE name = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO roles (id, name, description, active, created_at, transaction_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)")) {
+            for (int rank = 0; rank < names.size(); rank++) {
+                select.setString(1, names.get(rank));
+                try (ResultSet result = select.executeQuery()) {
+                    if (result.next()) {
+                        ids[rank] = result.getLong(1);
+                        continue;
+                    }
+                }
+                ids[rank] = nextId++;
+                insert.setLong(1, ids[rank]);
+                insert.setString(2, names.get(rank));
+                insert.setString(3, "Generated role " + names.get(rank));
+                insert.setBoolean(4, true);
+                insert.setTimestamp(5, Timestamp.valueOf(createdAt));
+                insert.setString(6, TransactionId.of(options.from().toEpochMilli() - TransactionId.EPOCH, 0, rank).toString());
+                insert.executeUpdate();
+            }
+        }
+        return ids;
+    }
+
+    private static void addToActivityRollups(Connection connection, long userBaseId, long roleBaseId) throws SQLException {
+        if (!ActivityBackfill.hasRollups(connection)) {
+            System.out.println("activity rollups are empty; the application backfills them on its next start");
+            return;
+        }
+        connection.setAutoCommit(false);
+        try {
+            int buckets = ActivityBackfill.backfill(connection, userBaseId, roleBaseId, null,
+                    LocalDateTime.now().minusDays(MINUTE_ROLLUP_DAYS).truncatedTo(ChronoUnit.MINUTES));
+            connection.commit();
+            System.out.printf("added the new users and roles to %d activity rollup buckets%n", buckets);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    /**
+     * H2 identity columns do not move past explicitly inserted keys, so the application's next insert
+     * would collide; MySQL adjusts AUTO_INCREMENT by itself
+     */
+    private static void restartIdentities(Connection connection) throws SQLException {
+        for (String table : List.of("user", "profile", "address", "roles")) {
+            long next = maxId(connection, table) + 1;
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            }
+        }
+    }
+
+    /**
+     * BCrypt hashes of the user password with salts derived from the seed, so reruns are identical
+     */
+    private static String[] passwordHashes(DatasetOptions options) throws NoSuchAlgorithmException {
+        SecureRandom saltSource = SecureRandom.getInstance("SHA1PRNG");
+        saltSource.setSeed(options.seed());
+        String[] hashes = new String[PASSWORD_HASHES];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = BCrypt.hashpw(options.userPassword(), BCrypt.gensalt(options.bcryptStrength(), saltSource));
+        }
+        return hashes;
+    }
+
+    private static Connection connect(DatasetOptions options) throws SQLException {
+        return DriverManager.getConnection(options.url(), options.username(), options.password());
+    }
+}
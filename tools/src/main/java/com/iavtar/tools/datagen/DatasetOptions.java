@@ -0,0 +1,75 @@
+package com.iavtar.tools.datagen;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line settings of a dataset generation run; arguments are {@code --key=value}.
+ */
+record DatasetOptions(String url,
+                      String username,
+                      String password,
+                      long users,
+                      long seed,
+                      int threads,
+                      int batchSize,
+                      int roles,
+                      Instant from,
+                      Instant to,
+                      String usernamePrefix,
+                      String userPassword,
+                      int bcryptStrength,
+                      boolean updateSchema) {
+
+    static DatasetOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        DatasetOptions parsed = new DatasetOptions(
+                SchemaInitializer.jdbcUrl(options.getOrDefault("url", "jdbc:h2:file:./data/ecom_service")),
+                options.getOrDefault("username", "sa"),
+                options.getOrDefault("password", ""),
+                Long.parseLong(options.getOrDefault("users", "1000000")),
+                Long.parseLong(options.getOrDefault("seed", "42")),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(options.getOrDefault("batch-size", "1000")),
+                Integer.parseInt(options.getOrDefault("roles", "20")),
+                startOfDay(options.getOrDefault("from", "2024-01-01")),
+                startOfDay(options.getOrDefault("to", "2026-01-01")),
+                options.getOrDefault("username-prefix", "user"),
+                options.getOrDefault("user-password", "password"),
+                Integer.parseInt(options.getOrDefault("bcrypt-strength", "10")),
+                Boolean.parseBoolean(options.getOrDefault("update-schema", "true")));
+        if (parsed.users <= 0 || parsed.threads <= 0 || parsed.batchSize <= 0) {
+            throw new IllegalArgumentException("users, threads and batch-size must be positive");
+        }
+        if (parsed.roles < SyntheticData.BUILT_IN_ROLES.size()) {
+            throw new IllegalArgumentException("roles must be at least " + SyntheticData.BUILT_IN_ROLES.size());
+        }
+        if (!parsed.from.isBefore(parsed.to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        return parsed;
+    }
+
+    boolean isH2() {
+        return url.startsWith("jdbc:h2:");
+    }
+
+    private static Instant startOfDay(String date) {
+        return LocalDate.parse(date).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
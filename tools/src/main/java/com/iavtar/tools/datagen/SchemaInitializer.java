@@ -0,0 +1,64 @@
+package com.iavtar.tools.datagen;
+
+import com.iavtar.domain.entity.Address;
+import com.iavtar.domain.entity.Profile;
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.domain.entity.UserImportCheckpoint;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+
+/**
+ * Brings the target schema up to date with the entity mappings, as {@code ddl-auto: update} does when
+ * the application starts, so an empty database can be loaded before the application has ever run.
+ * Uses Spring Boot's naming strategies so table and column names match the application's.
+ */
+public final class SchemaInitializer {
+
+    private SchemaInitializer() {
+    }
+
+    static void update(DatasetOptions options) {
+        update(options.url(), options.username(), options.password());
+    }
+
+    public static void update(String url, String username, String password) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, url)
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, username)
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, password)
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName())
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "update")
+                .applySetting(AvailableSettings.HBM2DDL_HALT_ON_ERROR, true)
+                .build();
+        // Schema management runs while the session factory is built; nothing else is needed from it
+        try (SessionFactory ignored = new MetadataSources(registry)
+                .addAnnotatedClasses(User.class, Profile.class, Address.class, Role.class, UserImportCheckpoint.class)
+                .buildMetadata()
+                .buildSessionFactory()) {
+            // schema is up to date
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    /**
+     * Adds the driver settings the application relies on (H2) or that batching needs (MySQL)
+     * when the URL does not set them
+     */
+    public static String jdbcUrl(String url) {
+        if (url.startsWith("jdbc:h2:") && !url.contains("NON_KEYWORDS")) {
+            return url + ";NON_KEYWORDS=USER";
+        }
+        if (url.startsWith("jdbc:mysql:") && !url.contains("rewriteBatchedStatements")) {
+            return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        }
+        return url;
+    }
+}
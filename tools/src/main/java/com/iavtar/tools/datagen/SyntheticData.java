@@ -0,0 +1,202 @@
+package com.iavtar.tools.datagen;
+
+import com.iavtar.domain.enums.AddressType;
+import com.iavtar.domain.util.TransactionId;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic users.
+ * <p>
+ * Every value of user {@code n} comes from a random generator seeded with {@code (seed, n)} alone, so a
+ * dataset is identical for a given seed however the work is split across threads and batches.
+ * Distributions:
+ * <ul>
+ *   <li>sign-up times grow linearly over the range (more recent users than old ones); the transaction
+ *       ID encodes the same instant</li>
+ *   <li>1 to 3 addresses per profile, 1.8 on average</li>
+ *   <li>every user has USER plus up to 4 more roles (0.5 on average), drawn from a Zipf distribution over
+ *       the other roles, so a few teams are large and ADMIN is the rarest</li>
+ *   <li>5% of users inactive</li>
+ * </ul>
+ */
+final class SyntheticData {
+
+    static final int MAX_ADDRESSES = 3;
+    static final int MAX_ROLES_PER_USER = 5;
+
+    /** Named roles, most common first; generated team roles fill the middle and ADMIN is the rarest */
+    static final List<String> BUILT_IN_ROLES = List.of("USER", "MANAGER", "SUPPORT", "AUDITOR", "ADMIN");
+
+    private static final double ZIPF_EXPONENT = 1.2;
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Aditi", "Alex", "Amelia", "Ana", "Arjun", "Ava", "Carlos", "Chen", "Chloe", "Daniel", "Diya",
+            "Elena", "Emma", "Ethan", "Fatima", "Grace", "Hana", "Ivan", "Jin", "Kabir", "Layla", "Leo", "Lucas",
+            "Maria", "Mateo", "Mei", "Mia", "Noah", "Olivia", "Omar", "Priya", "Rahul", "Rohan", "Sara", "Sofia",
+            "Tariq", "Wei", "Yuki", "Zara"};
+    private static final String[] LAST_NAMES = {
+            "Ahmed", "Brown", "Chen", "Das", "Fernandes", "Garcia", "Gupta", "Hernandez", "Ito", "Iyer", "Jones",
+            "Kim", "Kumar", "Lee", "Lopez", "Martin", "Mehta", "Miller", "Nguyen", "Novak", "Patel", "Reddy",
+            "Rossi", "Sato", "Shah", "Silva", "Singh", "Smith", "Tanaka", "Taylor", "Verma", "Wang", "Williams",
+            "Wilson", "Yadav", "Zhang"};
+    private static final String[] EMAIL_DOMAINS = {"example.com", "example.org", "example.net", "mail.example.com"};
+    private static final String[] STREETS = {
+            "MG Road", "Main Street", "High Street", "Park Avenue", "Station Road", "Church Street", "Lake View Road",
+            "Market Road", "Hill Road", "Ring Road", "Oak Lane", "Maple Drive", "Cedar Court", "River Road"};
+    private static final String[] LOCALITIES = {
+            "Indiranagar", "Koramangala", "Andheri West", "Bandra", "Salt Lake", "Banjara Hills", "Downtown",
+            "Midtown", "Old Town", "Riverside", "Westside", "Northgate"};
+    private static final String[] LANDMARKS = {
+            "Near City Mall", "Opposite Metro Station", "Behind Central Park", "Next to Post Office", "Near Bus Stand"};
+    /** city, state, country, dialling code; weighted by repetition */
+    private static final String[][] CITIES = {
+            {"Bengaluru", "Karnataka", "India", "+91"}, {"Bengaluru", "Karnataka", "India", "+91"},
+            {"Mumbai", "Maharashtra", "India", "+91"}, {"Mumbai", "Maharashtra", "India", "+91"},
+            {"Delhi", "Delhi", "India", "+91"}, {"Hyderabad", "Telangana", "India", "+91"},
+            {"Kolkata", "West Bengal", "India", "+91"}, {"Pune", "Maharashtra", "India", "+91"},
+            {"New York", "New York", "United States", "+1"}, {"Austin", "Texas", "United States", "+1"},
+            {"London", "England", "United Kingdom", "+44"}, {"Berlin", "Berlin", "Germany", "+49"},
+            {"Singapore", "Singapore", "Singapore", "+65"}, {"Tokyo", "Tokyo", "Japan", "+81"}};
+    private static final AddressType[] ADDRESS_TYPES = {AddressType.HOME, AddressType.OFFICE, AddressType.OTHER};
+
+    private final long seed;
+    private final long fromMillis;
+    private final long rangeMillis;
+    private final String usernamePrefix;
+    private final String[] passwordHashes;
+    private final double[] roleCumulative;
+
+    SyntheticData(DatasetOptions options, String[] passwordHashes) {
+        this.seed = options.seed();
+        this.fromMillis = options.from().toEpochMilli();
+        this.rangeMillis = options.to().toEpochMilli() - fromMillis;
+        this.usernamePrefix = options.usernamePrefix();
+        this.passwordHashes = passwordHashes;
+        this.roleCumulative = zipfCumulative(options.roles());
+        if (fromMillis < TransactionId.EPOCH) {
+            throw new IllegalArgumentException("Time range must start on or after " + Instant.ofEpochMilli(TransactionId.EPOCH));
+        }
+    }
+
+    /**
+     * Role names by Zipf rank for a dataset with {@code count} roles
+     */
+    static List<String> roleNames(int count) {
+        List<String> names = new ArrayList<>(count);
+        names.addAll(BUILT_IN_ROLES.subList(0, BUILT_IN_ROLES.size() - 1));
+        for (int team = 1; names.size() < count - 1; team++) {
+            names.add(String.format(Locale.ROOT, "TEAM_%02d", team));
+        }
+        names.add(BUILT_IN_ROLES.get(BUILT_IN_ROLES.size() - 1));
+        return names;
+    }
+
+    private static double[] zipfCumulative(int count) {
+        double[] cumulative = new double[count];
+        double total = 0;
+        for (int rank = 0; rank < count; rank++) {
+            total += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < count; rank++) {
+            cumulative[rank] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * User number {@code index} (0-based) of the dataset; {@code userId} and {@code profileId} are the
+     * primary keys it is written under
+     */
+    SyntheticUser user(long index, long userId, long profileId) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+
+        long createdAtMillis = fromMillis + (long) (Math.sqrt(random.nextDouble()) * rangeMillis);
+        String transactionId = TransactionId.of(createdAtMillis - TransactionId.EPOCH,
+                random.nextInt(TransactionId.MAX_NODE_ID + 1), random.nextInt(TransactionId.MAX_SEQUENCE + 1)).toString();
+
+        String firstname = pick(random, FIRST_NAMES);
+        String lastname = pick(random, LAST_NAMES);
+        String[] home = pick(random, CITIES);
+        String email = (firstname + "." + lastname + userId).toLowerCase(Locale.ROOT) + "@" + pick(random, EMAIL_DOMAINS);
+        String phone = String.valueOf(6_000_000_000L + random.nextLong(4_000_000_000L));
+
+        int addressCount = 1 + (random.nextInt(100) < 60 ? 1 : 0) + (random.nextInt(100) < 33 ? 1 : 0);
+        List<SyntheticAddress> addresses = new ArrayList<>(addressCount);
+        for (int i = 0; i < addressCount; i++) {
+            String[] city = i == 0 ? home : pick(random, CITIES);
+            addresses.add(new SyntheticAddress(ADDRESS_TYPES[i],
+                    (1 + random.nextInt(400)) + ", " + pick(random, STREETS),
+                    random.nextInt(100) < 30 ? "Floor " + (1 + random.nextInt(20)) : null,
+                    pick(random, LOCALITIES),
+                    random.nextInt(100) < 50 ? pick(random, LANDMARKS) : null,
+                    city[0], city[1], city[2],
+                    String.valueOf(100_000 + random.nextInt(900_000))));
+        }
+
+        return new SyntheticUser(userId, usernamePrefix + "_" + userId,
+                passwordHashes[random.nextInt(passwordHashes.length)],
+                random.nextInt(100) >= 5,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneOffset.UTC),
+                transactionId,
+                profileId, firstname, lastname, email, phone, home[3],
+                addresses, roleRanks(random));
+    }
+
+    /**
+     * Distinct role ranks: USER (rank 0), then a geometric number of Zipf-distributed extra ranks
+     */
+    private int[] roleRanks(SplittableRandom random) {
+        int count = 1;
+        while (count < Math.min(MAX_ROLES_PER_USER, roleCumulative.length) && random.nextInt(100) < 35) {
+            count++;
+        }
+        int[] ranks = new int[count];
+        int chosen = 1;
+        while (chosen < count) {
+            int rank = zipfRank(random.nextDouble());
+            boolean duplicate = false;
+            for (int i = 0; i < chosen; i++) {
+                duplicate |= ranks[i] == rank;
+            }
+            if (!duplicate) {
+                ranks[chosen++] = rank;
+            }
+        }
+        return ranks;
+    }
+
+    private int zipfRank(double uniform) {
+        int low = 0;
+        int high = roleCumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (roleCumulative[mid] < uniform) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    record SyntheticUser(long id, String username, String passwordHash, boolean active, LocalDateTime createdAt,
+                         String transactionId, long profileId, String firstname, String lastname, String email,
+                         String phone, String countryCode, List<SyntheticAddress> addresses, int[] roleRanks) {
+    }
+
+    record SyntheticAddress(AddressType type, String street1, String street2, String locality, String landmark,
+                            String city, String state, String country, String pin) {
+    }
+}
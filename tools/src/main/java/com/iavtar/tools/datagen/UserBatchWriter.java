@@ -0,0 +1,141 @@
+package com.iavtar.tools.datagen;
+
+import com.iavtar.domain.util.ContactKeys;
+import com.iavtar.tools.datagen.SyntheticData.SyntheticAddress;
+import com.iavtar.tools.datagen.SyntheticData.SyntheticUser;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes users with their profile, addresses and role memberships in JDBC batches, one transaction per call.
+ * <p>
+ * Keys are assigned by the caller, so nothing has to be read back and each table is one batch in
+ * foreign-key order. Not thread-safe; each loader thread owns one writer and its connection.
+ */
+final class UserBatchWriter implements AutoCloseable {
+
+    private static final String INSERT_PROFILE =
+            "INSERT INTO profile (id, firstname, lastname, email, phone, country_code, email_key, phone_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER =
+            "INSERT INTO user (id, username, password, profile_id, active, created_at, transaction_id, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_ADDRESS =
+            "INSERT INTO address (id, profile_id, type, street1, street2, locality, landmark, city, state, country, pin)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+
+    private final Connection connection;
+    private final PreparedStatement profiles;
+    private final PreparedStatement users;
+    private final PreparedStatement addresses;
+    private final PreparedStatement userRoles;
+    private final long[] roleIds;
+    private final long addressBaseId;
+
+    /**
+     * @param roleIds role primary keys by Zipf rank
+     * @param addressBaseId address keys are {@code addressBaseId + userIndex * MAX_ADDRESSES + n}
+     */
+    UserBatchWriter(Connection connection, long[] roleIds, long addressBaseId) throws SQLException {
+        this.connection = connection;
+        this.roleIds = roleIds;
+        this.addressBaseId = addressBaseId;
+        connection.setAutoCommit(false);
+        profiles = connection.prepareStatement(INSERT_PROFILE);
+        users = connection.prepareStatement(INSERT_USER);
+        addresses = connection.prepareStatement(INSERT_ADDRESS);
+        userRoles = connection.prepareStatement(INSERT_USER_ROLE);
+    }
+
+    /**
+     * Inserts the users and commits; returns the number of rows written
+     *
+     * @param firstIndex dataset index of {@code batch.get(0)}
+     */
+    long write(long firstIndex, List<SyntheticUser> batch) throws SQLException {
+        long rows = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            SyntheticUser user = batch.get(i);
+
+            profiles.setLong(1, user.profileId());
+            profiles.setString(2, user.firstname());
+            profiles.setString(3, user.lastname());
+            profiles.setString(4, user.email());
+            profiles.setString(5, user.phone());
+            profiles.setString(6, user.countryCode());
+            setNullableString(profiles, 7, ContactKeys.canonicalEmail(user.email()));
+            Long phoneKey = ContactKeys.phoneNumber(user.phone(), user.countryCode());
+            if (phoneKey == null) {
+                profiles.setNull(8, Types.BIGINT);
+            } else {
+                profiles.setLong(8, phoneKey);
+            }
+            profiles.addBatch();
+
+            users.setLong(1, user.id());
+            users.setString(2, user.username());
+            users.setString(3, user.passwordHash());
+            users.setLong(4, user.profileId());
+            users.setBoolean(5, user.active());
+            users.setTimestamp(6, Timestamp.valueOf(user.createdAt()));
+            users.setString(7, user.transactionId());
+            users.addBatch();
+            rows += 2;
+
+            long addressId = addressBaseId + (firstIndex + i) * SyntheticData.MAX_ADDRESSES;
+            for (SyntheticAddress address : user.addresses()) {
+                addresses.setLong(1, addressId++);
+                addresses.setLong(2, user.profileId());
+                addresses.setString(3, address.type().name());
+                addresses.setString(4, address.street1());
+                setNullableString(addresses, 5, address.street2());
+                addresses.setString(6, address.locality());
+                setNullableString(addresses, 7, address.landmark());
+                addresses.setString(8, address.city());
+                addresses.setString(9, address.state());
+                addresses.setString(10, address.country());
+                addresses.setString(11, address.pin());
+                addresses.addBatch();
+                rows++;
+            }
+
+            for (int rank : user.roleRanks()) {
+                userRoles.setLong(1, user.id());
+                userRoles.setLong(2, roleIds[rank]);
+                userRoles.addBatch();
+                rows++;
+            }
+        }
+
+        try {
+            profiles.executeBatch();
+            users.executeBatch();
+            addresses.executeBatch();
+            userRoles.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+        return rows;
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (connection; profiles; users; addresses; userRoles) {
+            // closes the statements, then the connection
+        }
+    }
+}
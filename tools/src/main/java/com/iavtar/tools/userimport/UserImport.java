@@ -0,0 +1,121 @@
+package com.iavtar.tools.userimport;
+
+import com.iavtar.domain.util.TransactionId;
+import com.iavtar.service.PasswordHasher;
+import com.iavtar.service.userimport.JdbcTransactions;
+import com.iavtar.service.userimport.UserImportError;
+import com.iavtar.service.userimport.UserImportResult;
+import com.iavtar.service.userimport.UserImporter;
+import com.iavtar.tools.datagen.SchemaInitializer;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports users, profiles and addresses from a CSV file straight into the application's database, with
+ * the same parsing, validation, batching and checkpoints as {@code POST /api/users/import}.
+ * <p>
+ * Plain-text passwords are hashed as {@code {bcrypt}} at {@code --bcrypt-strength} on {@code --threads}
+ * threads. Rerunning with the same {@code --import-id} (by default the file name) resumes after the last
+ * committed batch. Rejected records are written to {@code --errors} (by default {@code <file>.errors.csv}),
+ * appended to on a resumed run. Running nodes do not see the new usernames in their username filters
+ * until they restart; the unique constraint still rejects duplicates.
+ * <pre>
+ * java -cp tools.jar:... com.iavtar.tools.userimport.UserImport \
+ *      --url=jdbc:h2:file:./data/ecom_service --file=users.csv
+ * java -cp tools.jar:... com.iavtar.tools.userimport.UserImport \
+ *      --url=jdbc:mysql://localhost:3306/ecom_service_dev --username=root --password=toor \
+ *      --file=users.csv --import-id=users-2026-01 --errors=users-rejected.csv --threads=8
+ * </pre>
+ */
+public class UserImport {
+
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+
+    public static void main(String[] args) throws Exception {
+        UserImportOptions options = UserImportOptions.parse(args);
+
+        if (options.updateSchema()) {
+            System.out.printf("updating schema on %s%n", options.url());
+            SchemaInitializer.update(options.url(), options.username(), options.password());
+        }
+
+        int strength = options.bcryptStrength();
+        PasswordHasher hasher = password -> BCRYPT_PREFIX + BCrypt.hashpw(password, BCrypt.gensalt(strength));
+        String transactionId = TransactionId.of(System.currentTimeMillis() - TransactionId.EPOCH, 0, 0).toString();
+
+        ExecutorService hashing = Executors.newFixedThreadPool(options.threads());
+        boolean newReport = !Files.exists(options.errors());
+        try (Connection connection = DriverManager.getConnection(options.url(), options.username(), options.password());
+             Reader csv = Files.newBufferedReader(options.file(), StandardCharsets.UTF_8);
+             Writer errors = new BufferedWriter(Files.newBufferedWriter(options.errors(), StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            connection.setAutoCommit(false);
+            if (newReport) {
+                errors.write(UserImportError.CSV_HEADER + "\n");
+            }
+            UserImporter importer = new UserImporter(transactions(connection), hasher, hashing,
+                    options.batchSize(), options.maxRecordChars());
+
+            System.out.printf("importing %s as %s with transaction ID %s%n", options.file(), options.importId(), transactionId);
+            UserImportResult result = importer.run(options.importId(), transactionId, csv,
+                    error -> writeLine(errors, error.toCsvLine()), (userId, username) -> { });
+
+            if (result.resumedAfterRecord() > 0) {
+                System.out.printf("resumed after record %d%n", result.resumedAfterRecord());
+            }
+            double seconds = result.durationMs() / 1e3;
+            long records = result.recordsRead() - result.resumedAfterRecord();
+            System.out.printf("read %d records: %d users imported, %d records rejected (see %s) in %.1f s (%.0f records/s)%n",
+                    result.recordsRead(), result.usersImported(), result.recordsRejected(), options.errors(),
+                    seconds, records / Math.max(seconds, 1e-3));
+        } finally {
+            hashing.shutdownNow();
+        }
+    }
+
+    /**
+     * Transactions on the tool's single connection
+     */
+    private static JdbcTransactions transactions(Connection connection) {
+        return work -> {
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        };
+    }
+
+    private static void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Where the error report of {@code file} goes by default
+     */
+    static Path defaultErrors(Path file) {
+        return file.resolveSibling(file.getFileName() + ".errors.csv");
+    }
+}
@@ -0,0 +1,63 @@
+package com.iavtar.tools.userimport;
+
+import com.iavtar.tools.datagen.SchemaInitializer;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line settings of a user import; arguments are {@code --key=value}.
+ */
+record UserImportOptions(String url,
+                         String username,
+                         String password,
+                         Path file,
+                         String importId,
+                         Path errors,
+                         int threads,
+                         int batchSize,
+                         int maxRecordChars,
+                         int bcryptStrength,
+                         boolean updateSchema) {
+
+    static UserImportOptions parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        String file = options.get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("--file is required");
+        }
+        Path path = Path.of(file);
+        UserImportOptions parsed = new UserImportOptions(
+                SchemaInitializer.jdbcUrl(options.getOrDefault("url", "jdbc:h2:file:./data/ecom_service")),
+                options.getOrDefault("username", "sa"),
+                options.getOrDefault("password", ""),
+                path,
+                options.getOrDefault("import-id", path.getFileName().toString()),
+                Path.of(options.getOrDefault("errors", UserImport.defaultErrors(path).toString())),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(options.getOrDefault("batch-size", "1000")),
+                Integer.parseInt(options.getOrDefault("max-record-chars", "65536")),
+                Integer.parseInt(options.getOrDefault("bcrypt-strength", "10")),
+                Boolean.parseBoolean(options.getOrDefault("update-schema", "true")));
+        if (parsed.threads <= 0 || parsed.batchSize <= 0 || parsed.maxRecordChars <= 0) {
+            throw new IllegalArgumentException("threads, batch-size and max-record-chars must be positive");
+        }
+        if (parsed.importId.isEmpty() || parsed.importId.length() > 64) {
+            throw new IllegalArgumentException("import-id must be 1-64 characters");
+        }
+        return parsed;
+    }
+}
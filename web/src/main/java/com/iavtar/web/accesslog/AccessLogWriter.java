@@ -0,0 +1,223 @@
+package com.iavtar.web.accesslog;
+
+import com.iavtar.domain.accesslog.AccessLogFormat;
+import com.iavtar.domain.accesslog.AccessLogRecord;
+import com.iavtar.domain.util.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Appends one fixed-size binary record per request to memory-mapped segment files.
+ * <p>
+ * Request threads only {@link #offer} a record into a lock-free ring buffer; a single writer thread drains
+ * it into the current segment (see {@link AccessLogFormat}), so the request path never blocks on I/O or a
+ * lock. When the buffer is full the record is dropped and counted. A full segment is flushed and the next
+ * one is created; beyond {@code access-log.max-segments} the oldest are deleted. Segments are read offline
+ * with the {@code AccessLogReport} tool.
+ */
+@Component
+public class AccessLogWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    static final String SEGMENT_PREFIX = "access-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final DateTimeFormatter SEGMENT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final MpscRingBuffer<AccessLogRecord> queue;
+
+    private final LongAdder dropped = new LongAdder();
+    private volatile long written;
+    private volatile boolean running;
+    private Thread writer;
+
+    // Writer thread state
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentCapacity;
+    private int segmentIndex;
+    private int sequence;
+
+    @Autowired
+    public AccessLogWriter(@Value("${access-log.enabled:false}") boolean enabled,
+                           @Value("${access-log.directory:logs/access}") String directory,
+                           @Value("${access-log.segment-size-mb:64}") int segmentSizeMb,
+                           @Value("${access-log.max-segments:16}") int maxSegments,
+                           @Value("${access-log.queue-capacity:65536}") int queueCapacity) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = Math.max(1, segmentSizeMb) * 1024L * 1024L;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.queue = enabled ? new MpscRingBuffer<>(queueCapacity) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a record for writing; never blocks
+     * @return false if the record was dropped because the writer is behind or not running
+     */
+    public boolean offer(AccessLogRecord record) {
+        if (!running || !queue.offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create access log directory " + directory.toAbsolutePath(), e);
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::drainLoop);
+        logger.info("Access log writing {} MB segments to {}", segmentBytes / (1024 * 1024), directory.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        try {
+            while (running) {
+                if (queue.drain(this::append, DRAIN_BATCH) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            while (queue.drain(this::append, DRAIN_BATCH) > 0) {
+                // records offered before stop
+            }
+        } catch (RuntimeException e) {
+            running = false;
+            logger.error("Access log writer stopped: {}", e.getMessage(), e);
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void append(AccessLogRecord record) {
+        if (segment == null || segmentIndex == segmentCapacity) {
+            openSegment();
+        }
+        AccessLogFormat.write(segment, segmentIndex++, record);
+        written++;
+    }
+
+    private void openSegment() {
+        closeSegment();
+        Path file = directory.resolve(SEGMENT_PREFIX + LocalDateTime.now().format(SEGMENT_TIME)
+                + String.format("-%03d", sequence++ % 1000) + SEGMENT_SUFFIX);
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create access log segment " + file, e);
+        }
+        AccessLogFormat.writeHeader(segment, System.currentTimeMillis());
+        segmentCapacity = AccessLogFormat.capacity(segmentBytes);
+        segmentIndex = 0;
+        logger.debug("Opened access log segment {}", file);
+        deleteOldSegments();
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        segment.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close access log segment: {}", e.getMessage());
+        }
+        segment = null;
+        channel = null;
+    }
+
+    private void deleteOldSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = files
+                    .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete old access log segments: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Records written to segments
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Records dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Records waiting for the writer thread
+     */
+    public int getQueued() {
+        return queue != null ? queue.size() : 0;
+    }
+}
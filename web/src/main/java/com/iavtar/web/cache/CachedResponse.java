@@ -0,0 +1,23 @@
+package com.iavtar.web.cache;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Serialized JSON body and its strong ETag.
+ */
+public record CachedResponse(String eTag, byte[] body) {
+
+    /**
+     * 200 with the ETag; Spring answers a matching If-None-Match with 304 and no body.
+     * {@code no-cache} makes clients revalidate on every poll instead of reusing a stale copy.
+     */
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
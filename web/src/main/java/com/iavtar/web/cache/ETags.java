@@ -0,0 +1,63 @@
+package com.iavtar.web.cache;
+
+import com.iavtar.domain.entity.Role;
+import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.UserFields;
+import com.iavtar.web.fields.SparseFields;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Strong ETags derived from entity versions, so computing one never needs the serialized body.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String forRole(Role role) {
+        return "\"role-" + role.getId() + "-v" + role.getVersion() + "\"";
+    }
+
+    /**
+     * The user's version moves with its own row and its role memberships; the role fingerprint
+     * covers renamed or deactivated roles.
+     */
+    public static String forUser(User user) {
+        return "\"user-" + user.getId() + "-v" + user.getVersion() + "-" + Long.toHexString(fingerprint(user.getRoles())) + "\"";
+    }
+
+    /**
+     * ETag of a sparse user read; the role fingerprint is only part of it when roles were requested
+     */
+    @SuppressWarnings("unchecked")
+    public static String forUser(UserFields user, Set<String> fields) {
+        String eTag = "\"user-" + user.id() + "-v" + user.version();
+        if (user.values().get("roles") instanceof List<?> roles) {
+            eTag += "-" + Long.toHexString(fingerprint((List<Role>) roles));
+        }
+        return SparseFields.eTag(eTag + "\"", fields);
+    }
+
+    /**
+     * Order-independent hash of the roles' (id, version) pairs; changes when a role is added,
+     * removed or updated
+     */
+    public static long fingerprint(Collection<Role> roles) {
+        long hash = 0xCBF29CE484222325L;
+        for (Role role : roles.stream().sorted(Comparator.comparing(Role::getId)).toList()) {
+            hash = mix(hash, role.getId());
+            hash = mix(hash, role.getVersion());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001B3L;
+        return hash ^ (hash >>> 29);
+    }
+}
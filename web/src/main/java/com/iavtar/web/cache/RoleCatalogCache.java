@@ -0,0 +1,175 @@
+package com.iavtar.web.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.entity.Role;
+import com.iavtar.service.RoleCatalogVersion;
+import com.iavtar.service.RoleService;
+import com.iavtar.web.fields.SparseFields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Pre-serialized role catalog for {@code GET /api/roles}, {@code /api/roles/active} and {@code /api/roles/{id}}.
+ * <p>
+ * One snapshot holds the JSON bytes and ETag of each view. It is reloaded when {@link RoleCatalogVersion}
+ * moves, i.e. after a role write on this node commits or the invalidation bus reads one made on another
+ * node, and in any case once it is older than {@code role-catalog.max-staleness-ms}.
+ * Between reloads a poll, whether answered with 200 or 304, costs no query and no serialization.
+ * Sparse views ({@code fields=}) are cut from the snapshot's JSON trees, without a query.
+ */
+@Component
+public class RoleCatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleCatalogCache.class);
+
+    private final RoleService roleService;
+    private final RoleCatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final long maxStalenessNanos;
+    private final Set<String> roleFields;
+
+    private volatile Snapshot snapshot;
+
+    public RoleCatalogCache(RoleService roleService,
+                            RoleCatalogVersion catalogVersion,
+                            ObjectMapper objectMapper,
+                            @Value("${role-catalog.max-staleness-ms:30000}") long maxStalenessMs) {
+        this.roleService = roleService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxStalenessNanos = maxStalenessMs * 1_000_000L;
+        this.roleFields = SparseFields.properties(objectMapper, Role.class);
+    }
+
+    /**
+     * All roles; {@code fields} empty for the full representation
+     */
+    public CachedResponse allRoles(Set<String> fields) {
+        Snapshot current = current();
+        if (fields.isEmpty()) {
+            return current.all();
+        }
+        return sparse(current.all().eTag(), current.trees().values(), fields);
+    }
+
+    /**
+     * Active roles; {@code fields} empty for the full representation
+     */
+    public CachedResponse activeRoles(Set<String> fields) {
+        Snapshot current = current();
+        if (fields.isEmpty()) {
+            return current.active();
+        }
+        List<JsonNode> active = current.trees().values().stream()
+                .filter(tree -> tree.path("active").asBoolean())
+                .toList();
+        return sparse(current.active().eTag(), active, fields);
+    }
+
+    /**
+     * The cached role, or empty if it is not in the current snapshot (unknown, or created on another node)
+     */
+    public Optional<CachedResponse> role(Long id, Set<String> fields) {
+        Snapshot current = current();
+        CachedResponse full = current.byId().get(id);
+        if (full == null || fields.isEmpty()) {
+            return Optional.ofNullable(full);
+        }
+        checkFields(fields);
+        return Optional.of(new CachedResponse(SparseFields.eTag(full.eTag(), fields),
+                serialize(SparseFields.retain(current.trees().get(id), fields))));
+    }
+
+    /**
+     * Serialize a role loaded outside the catalog with the same ETag scheme
+     */
+    public CachedResponse render(Role role, Set<String> fields) {
+        if (fields.isEmpty()) {
+            return render(role);
+        }
+        checkFields(fields);
+        return new CachedResponse(SparseFields.eTag(ETags.forRole(role), fields),
+                serialize(SparseFields.retain(objectMapper.valueToTree(role), fields)));
+    }
+
+    private CachedResponse render(Role role) {
+        return new CachedResponse(ETags.forRole(role), serialize(role));
+    }
+
+    private CachedResponse sparse(String fullETag, Collection<JsonNode> trees, Set<String> fields) {
+        checkFields(fields);
+        List<JsonNode> sparse = trees.stream().<JsonNode>map(tree -> SparseFields.retain(tree, fields)).toList();
+        return new CachedResponse(SparseFields.eTag(fullETag, fields), serialize(sparse));
+    }
+
+    private void checkFields(Set<String> fields) {
+        SparseFields.check(fields, roleFields, "role");
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (!isFresh(current)) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null
+                && current.catalogVersion() == catalogVersion.current()
+                && System.nanoTime() - current.loadedAt() < maxStalenessNanos;
+    }
+
+    private Snapshot load() {
+        // Read the version first: a write committing during the load bumps it again and forces another reload
+        long version = catalogVersion.current();
+        long loadedAt = System.nanoTime();
+        List<Role> roles = roleService.findAllRoles();
+        List<Role> active = roles.stream().filter(Role::isActive).toList();
+
+        Map<Long, CachedResponse> byId = new LinkedHashMap<>(roles.size() * 2);
+        Map<Long, JsonNode> trees = new LinkedHashMap<>(roles.size() * 2);
+        for (Role role : roles) {
+            byId.put(role.getId(), render(role));
+            trees.put(role.getId(), objectMapper.valueToTree(role));
+        }
+        long fingerprint = ETags.fingerprint(roles);
+        CachedResponse all = new CachedResponse("\"roles-" + Long.toHexString(fingerprint) + "\"", serialize(roles));
+        CachedResponse activeView = new CachedResponse("\"roles-active-" + Long.toHexString(fingerprint) + "\"", serialize(active));
+
+        logger.info("Role catalog loaded with {} roles and ETag {} for transaction ID: {}",
+                roles.size(), all.eTag(), TransactionContext.getTransactionId());
+        return new Snapshot(version, loadedAt, all, activeView, byId, trees);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize role catalog", e);
+        }
+    }
+
+    private record Snapshot(long catalogVersion, long loadedAt, CachedResponse all, CachedResponse active,
+                            Map<Long, CachedResponse> byId, Map<Long, JsonNode> trees) {
+    }
+}
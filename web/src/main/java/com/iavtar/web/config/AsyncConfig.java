@@ -0,0 +1,48 @@
+package com.iavtar.web.config;
+
+import com.iavtar.domain.context.TransactionContext;
+import org.slf4j.MDC;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.Map;
+
+/**
+ * Enables @Async execution on Spring Boot's auto-configured applicationTaskExecutor.
+ * When spring.threads.virtual.enabled is true, Boot backs that executor (and Tomcat's
+ * request handling) with virtual threads instead of a platform thread pool.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Carries the submitting request's context and MDC into @Async tasks; Boot applies a
+     * single TaskDecorator bean to the auto-configured executor
+     */
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return task -> {
+            Runnable scoped = TransactionContext.wrap(task);
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            if (mdc == null) {
+                return scoped;
+            }
+            return () -> {
+                Map<String, String> previous = MDC.getCopyOfContextMap();
+                MDC.setContextMap(mdc);
+                try {
+                    scoped.run();
+                } finally {
+                    if (previous == null) {
+                        MDC.clear();
+                    } else {
+                        MDC.setContextMap(previous);
+                    }
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.iavtar.web.config;
+
+import com.iavtar.infrastructure.repository.IdempotencyRecordRepository;
+import com.iavtar.service.idempotency.DatabaseIdempotencyStore;
+import com.iavtar.service.idempotency.IdempotencyStore;
+import com.iavtar.service.idempotency.InMemoryIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Chooses where idempotency keys are kept: {@code memory} for a single node, {@code database} when
+ * retries may reach a different node than the first attempt
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyRecordRepository repository,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${idempotency.store:memory}") String store,
+                                             @Value("${idempotency.max-entries:10000}") int maxEntries,
+                                             @Value("${idempotency.ttl-ms:86400000}") long ttlMs,
+                                             @Value("${idempotency.in-flight-timeout-ms:60000}") long inFlightTimeoutMs) {
+        return switch (store) {
+            case "memory" -> new InMemoryIdempotencyStore(maxEntries, ttlMs, inFlightTimeoutMs);
+            case "database" -> new DatabaseIdempotencyStore(repository, transactionManager, ttlMs, inFlightTimeoutMs);
+            default -> throw new IllegalArgumentException("idempotency.store must be memory or database, not " + store);
+        };
+    }
+}
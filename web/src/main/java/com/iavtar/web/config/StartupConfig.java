@@ -0,0 +1,26 @@
+package com.iavtar.web.config;
+
+import com.iavtar.web.controller.AuthController;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Startup behaviour for the fast-startup profile, which turns on {@code spring.main.lazy-initialization}.
+ * Without lazy initialization this configuration has no effect.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keeps the login path eager under lazy initialization, so the first login does not pay for
+     * creating it; everything else is created on first use
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter loginPathEagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AuthController.class, UserDetailsService.class,
+                PasswordEncoder.class);
+    }
+}
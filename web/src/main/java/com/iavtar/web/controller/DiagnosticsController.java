@@ -0,0 +1,56 @@
+package com.iavtar.web.controller;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.web.diagnostics.PinnedThreadMonitor;
+import com.iavtar.web.diagnostics.VirtualThreadPinningCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for runtime diagnostics endpoints
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+    
+    private final PinnedThreadMonitor pinnedThreadMonitor;
+    private final VirtualThreadPinningCheck pinningCheck;
+    
+    @Autowired
+    public DiagnosticsController(PinnedThreadMonitor pinnedThreadMonitor, VirtualThreadPinningCheck pinningCheck) {
+        this.pinnedThreadMonitor = pinnedThreadMonitor;
+        this.pinningCheck = pinningCheck;
+    }
+    
+    /**
+     * Get JFR-based report of pinned virtual threads, aggregated by call site
+     */
+    @GetMapping("/virtual-threads/pinned")
+    public ResponseEntity<Map<String, Object>> getPinnedThreadReport() {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.info("Received pinned virtual thread report request with transaction ID: {}", transactionId);
+        
+        return ResponseEntity.ok(pinnedThreadMonitor.getReport());
+    }
+    
+    /**
+     * Get pinning hazards found by the startup bytecode check
+     */
+    @GetMapping("/virtual-threads/hazards")
+    public ResponseEntity<List<VirtualThreadPinningCheck.PinningHazard>> getPinningHazards() {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.info("Received virtual thread pinning hazards request with transaction ID: {}", transactionId);
+        
+        return ResponseEntity.ok(pinningCheck.getHazards());
+    }
+}
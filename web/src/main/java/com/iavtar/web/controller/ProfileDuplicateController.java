@@ -0,0 +1,54 @@
+package com.iavtar.web.controller;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.projection.ProfileMatch;
+import com.iavtar.service.duplicates.DuplicateProfileReport;
+import com.iavtar.service.duplicates.DuplicateProfileService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller for finding profiles that share a customer's email or phone
+ */
+@RestController
+@RequestMapping("/api/users/duplicates")
+public class ProfileDuplicateController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileDuplicateController.class);
+
+    private final DuplicateProfileService duplicateProfileService;
+
+    @Autowired
+    public ProfileDuplicateController(DuplicateProfileService duplicateProfileService) {
+        this.duplicateProfileService = duplicateProfileService;
+    }
+
+    /**
+     * Profiles, with their users, whose canonical email or phone equals the given one
+     */
+    @GetMapping
+    public ResponseEntity<List<ProfileMatch>> findMatches(@RequestParam(required = false) String email,
+                                                          @RequestParam(required = false) String phone,
+                                                          @RequestParam(required = false) String countryCode) {
+        logger.info("Received duplicate profile lookup request with transaction ID: {}", TransactionContext.getTransactionId());
+        return ResponseEntity.ok(duplicateProfileService.findMatches(email, phone, countryCode));
+    }
+
+    /**
+     * Scan all profiles for duplicate clusters, backfilling their email and phone keys
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<DuplicateProfileReport> scan() {
+        logger.info("Received duplicate profile scan request with transaction ID: {}", TransactionContext.getTransactionId());
+        return ResponseEntity.ok(duplicateProfileService.scan());
+    }
+}
@@ -4,6 +4,8 @@ import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.Role;
 import com.iavtar.domain.entity.User;
 import com.iavtar.service.RoleService;
+import com.iavtar.web.cache.RoleCatalogCache;
+import com.iavtar.web.fields.SparseFields;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +23,12 @@ public class RoleController {
     private static final Logger logger = LoggerFactory.getLogger(RoleController.class);
     
     private final RoleService roleService;
+    private final RoleCatalogCache roleCatalogCache;
     
     @Autowired
-    public RoleController(RoleService roleService) {
+    public RoleController(RoleService roleService, RoleCatalogCache roleCatalogCache) {
         this.roleService = roleService;
+        this.roleCatalogCache = roleCatalogCache;
     }
     
     @PostMapping
@@ -39,14 +43,17 @@ public class RoleController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Role> getRoleById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getRoleById(@PathVariable Long id,
+                                              @RequestParam(required = false) String fields) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Received get role by ID request: {} with transaction ID: {}", id, transactionId);
         
-        return roleService.findById(id)
-                .map(role -> {
+        Set<String> selected = SparseFields.parse(fields);
+        return roleCatalogCache.role(id, selected)
+                .or(() -> roleService.findById(id).map(role -> roleCatalogCache.render(role, selected)))
+                .map(response -> {
                     logger.info("Role found with ID: {} and transaction ID: {}", id, transactionId);
-                    return ResponseEntity.ok(role);
+                    return response.toResponseEntity();
                 })
                 .orElseGet(() -> {
                     logger.warn("Role not found with ID: {} for transaction ID: {}", id, transactionId);
@@ -71,25 +78,19 @@ public class RoleController {
     }
     
     @GetMapping
-    public ResponseEntity<List<Role>> getAllRoles() {
+    public ResponseEntity<byte[]> getAllRoles(@RequestParam(required = false) String fields) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Received get all roles request with transaction ID: {}", transactionId);
         
-        List<Role> roles = roleService.findAllRoles();
-        logger.info("Retrieved {} roles with transaction ID: {}", roles.size(), transactionId);
-        
-        return ResponseEntity.ok(roles);
+        return roleCatalogCache.allRoles(SparseFields.parse(fields)).toResponseEntity();
     }
     
     @GetMapping("/active")
-    public ResponseEntity<List<Role>> getActiveRoles() {
+    public ResponseEntity<byte[]> getActiveRoles(@RequestParam(required = false) String fields) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Received get active roles request with transaction ID: {}", transactionId);
         
-        List<Role> roles = roleService.findActiveRoles();
-        logger.info("Retrieved {} active roles with transaction ID: {}", roles.size(), transactionId);
-        
-        return ResponseEntity.ok(roles);
+        return roleCatalogCache.activeRoles(SparseFields.parse(fields)).toResponseEntity();
     }
     
     @PutMapping("/{id}")
@@ -2,7 +2,11 @@ package com.iavtar.web.controller;
 
 import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.enums.ActivityGranularity;
+import com.iavtar.domain.projection.AuditRecord;
 import com.iavtar.service.TransactionAuditService;
+import com.iavtar.service.activity.ActivityHistogram;
+import com.iavtar.service.activity.ActivityRollupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +30,9 @@ public class TransactionAuditController {
     @Autowired
     private TransactionAuditService transactionAuditService;
     
+    @Autowired
+    private ActivityRollupService activityRollupService;
+    
     /**
      * Get audit trail for a specific transaction ID
      */
@@ -43,6 +50,45 @@ public class TransactionAuditController {
         return ResponseEntity.ok(auditTrail);
     }
     
+    /**
+     * Get the user and role writes of a transaction, including archived ones
+     */
+    @GetMapping("/changes/{transactionId}")
+    public ResponseEntity<List<AuditRecord>> getChanges(@PathVariable String transactionId) {
+        String currentTransactionId = TransactionContext.getTransactionId();
+        logger.info("Received changes request for transaction ID: {} with current transaction ID: {}", 
+                   transactionId, currentTransactionId);
+        
+        List<AuditRecord> changes = transactionAuditService.getChangesByTransactionId(transactionId);
+        
+        logger.info("Returning {} changes for transaction ID: {} with current transaction ID: {}", 
+                   changes.size(), transactionId, currentTransactionId);
+        
+        return ResponseEntity.ok(changes);
+    }
+    
+    /**
+     * Get the user and role writes made in a date range, oldest first, including archived ones
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<AuditRecord>> getChangesByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "1000") int limit) {
+        
+        String currentTransactionId = TransactionContext.getTransactionId();
+        logger.info("Received changes by date range request from {} to {} with current transaction ID: {}", 
+                   startDate, endDate, currentTransactionId);
+        
+        List<AuditRecord> changes = transactionAuditService.getChangesByDateRange(startDate, endDate,
+                Math.max(1, Math.min(limit, 10000)));
+        
+        logger.info("Returning {} changes for date range with current transaction ID: {}", 
+                   changes.size(), currentTransactionId);
+        
+        return ResponseEntity.ok(changes);
+    }
+    
     /**
      * Get transactions by date range
      */
@@ -63,6 +109,27 @@ public class TransactionAuditController {
         return ResponseEntity.ok(transactions);
     }
     
+    /**
+     * Get users created, role changes and logins per minute, hour or day, from pre-aggregated rollups
+     */
+    @GetMapping("/activity")
+    public ResponseEntity<ActivityHistogram> getActivityHistogram(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "HOUR") ActivityGranularity granularity) {
+        
+        String currentTransactionId = TransactionContext.getTransactionId();
+        logger.info("Received activity histogram request from {} to {} per {} with current transaction ID: {}", 
+                   startDate, endDate, granularity, currentTransactionId);
+        
+        ActivityHistogram histogram = activityRollupService.histogram(startDate, endDate, granularity);
+        
+        logger.info("Returning {} activity buckets with current transaction ID: {}", 
+                   histogram.buckets(), currentTransactionId);
+        
+        return ResponseEntity.ok(histogram);
+    }
+    
     /**
      * Get transaction statistics
      */
@@ -2,14 +2,21 @@ package com.iavtar.web.controller;
 
 import com.iavtar.domain.context.TransactionContext;
 import com.iavtar.domain.entity.User;
+import com.iavtar.domain.projection.UserFields;
 import com.iavtar.service.UserService;
+import com.iavtar.service.UsernameBloomFilterService;
+import com.iavtar.web.cache.ETags;
+import com.iavtar.web.fields.SparseFields;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,10 +25,12 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
     
     private final UserService userService;
+    private final UsernameBloomFilterService usernameBloomFilter;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UsernameBloomFilterService usernameBloomFilter) {
         this.userService = userService;
+        this.usernameBloomFilter = usernameBloomFilter;
     }
 
     @PostMapping
@@ -36,14 +45,28 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Received get user by ID request: {} with transaction ID: {}", id, transactionId);
         
+        Set<String> selected = SparseFields.parse(fields);
+        if (!selected.isEmpty()) {
+            SparseFields.check(selected, UserFields.FIELDS, "user");
+            return userService.findFieldsById(id, selected)
+                    .map(user -> {
+                        logger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
+                        return ResponseEntity.ok().eTag(ETags.forUser(user, selected)).cacheControl(CacheControl.noCache()).body(user.values());
+                    })
+                    .orElseGet(() -> {
+                        logger.warn("User not found with ID: {} for transaction ID: {}", id, transactionId);
+                        return ResponseEntity.notFound().build();
+                    });
+        }
         return userService.findById(id)
                 .map(user -> {
                     logger.info("User found with ID: {} and transaction ID: {}", id, transactionId);
-                    return ResponseEntity.ok(user);
+                    return ResponseEntity.ok().eTag(ETags.forUser(user)).cacheControl(CacheControl.noCache()).body(user);
                 })
                 .orElseGet(() -> {
                     logger.warn("User not found with ID: {} for transaction ID: {}", id, transactionId);
@@ -52,14 +75,28 @@ public class UserController {
     }
 
     @GetMapping("/username/{username}")
-    public ResponseEntity<User> getUserByUsername(@PathVariable String username) {
+    public ResponseEntity<?> getUserByUsername(@PathVariable String username,
+                                               @RequestParam(required = false) String fields) {
         String transactionId = TransactionContext.getTransactionId();
         logger.info("Received get user by username request: {} with transaction ID: {}", username, transactionId);
         
+        Set<String> selected = SparseFields.parse(fields);
+        if (!selected.isEmpty()) {
+            SparseFields.check(selected, UserFields.FIELDS, "user");
+            return userService.findFieldsByUsername(username, selected)
+                    .map(user -> {
+                        logger.info("User found with username: {} and transaction ID: {}", username, transactionId);
+                        return ResponseEntity.ok().eTag(ETags.forUser(user, selected)).cacheControl(CacheControl.noCache()).body(user.values());
+                    })
+                    .orElseGet(() -> {
+                        logger.warn("User not found with username: {} for transaction ID: {}", username, transactionId);
+                        return ResponseEntity.notFound().build();
+                    });
+        }
         return userService.findByUsername(username)
                 .map(user -> {
                     logger.info("User found with username: {} and transaction ID: {}", username, transactionId);
-                    return ResponseEntity.ok(user);
+                    return ResponseEntity.ok().eTag(ETags.forUser(user)).cacheControl(CacheControl.noCache()).body(user);
                 })
                 .orElseGet(() -> {
                     logger.warn("User not found with username: {} for transaction ID: {}", username, transactionId);
@@ -111,4 +148,12 @@ public class UserController {
         
         return ResponseEntity.ok(exists);
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/username-filter/statistics")
+    public ResponseEntity<Map<String, Object>> getUsernameFilterStatistics() {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.info("Received username filter statistics request with transaction ID: {}", transactionId);
+        
+        return ResponseEntity.ok(usernameBloomFilter.getStatistics());
+    }
+}
@@ -0,0 +1,95 @@
+package com.iavtar.web.controller;
+
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.exception.InvalidImportException;
+import com.iavtar.service.userimport.UserImportError;
+import com.iavtar.service.userimport.UserImportResult;
+import com.iavtar.service.userimport.UserImportService;
+import com.iavtar.web.filter.TransactionContextFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller for bulk user imports: the CSV request body is read as it arrives, never held whole
+ */
+@RestController
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportController.class);
+
+    private final UserImportService userImportService;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public UserImportController(UserImportService userImportService,
+                                @Value("${user-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userImportService = userImportService;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import users, profiles and addresses from a {@code text/csv} body. Rerunning with the same
+     * {@code importId} resumes after the records already committed; it defaults to the transaction ID.
+     */
+    @PostMapping(consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<Map<String, Object>> importUsers(@RequestParam(required = false) String importId,
+                                                           HttpServletRequest request) throws IOException, SQLException {
+        String transactionId = TransactionContext.getTransactionId();
+        if (importId == null) {
+            importId = transactionId;
+        } else if (!TransactionContextFilter.isAcceptable(importId)) {
+            throw new InvalidImportException("importId must be 1-64 letters, digits or . _ : -");
+        }
+        logger.info("Received user import request {} with transaction ID: {}", importId, transactionId);
+
+        List<Map<String, Object>> errors = new ArrayList<>();
+        UserImportResult result;
+        try (Reader csv = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            result = userImportService.importUsers(importId, csv, error -> {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(toMap(error));
+                }
+            });
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("importId", result.importId());
+        response.put("resumedAfterRecord", result.resumedAfterRecord());
+        response.put("recordsRead", result.recordsRead());
+        response.put("usersImported", result.usersImported());
+        response.put("recordsRejected", result.recordsRejected());
+        response.put("durationMs", result.durationMs());
+        response.put("errors", errors);
+        response.put("errorsTruncated", result.recordsRejected() > errors.size());
+        return ResponseEntity.ok(response);
+    }
+
+    private static Map<String, Object> toMap(UserImportError error) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("record", error.record());
+        entry.put("line", error.line());
+        entry.put("username", error.username());
+        entry.put("error", error.message());
+        return entry;
+    }
+}
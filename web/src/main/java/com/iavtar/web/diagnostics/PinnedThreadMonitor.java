@@ -0,0 +1,164 @@
+package com.iavtar.web.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events in-process and aggregates them by call site.
+ * <p>
+ * Only started when virtual threads are enabled. The stream records pins longer than the configured
+ * threshold with their stack traces; the first frame in application code identifies the site.
+ */
+@Component
+public class PinnedThreadMonitor implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 256;
+    private static final int SAMPLE_FRAMES = 16;
+
+    private final boolean virtualThreadsEnabled;
+    private final boolean enabled;
+    private final Duration threshold;
+
+    private final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private final LongAdder droppedEvents = new LongAdder();
+    private volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                               @Value("${virtual-threads.pinned-monitor.enabled:true}") boolean enabled,
+                               @Value("${virtual-threads.pinned-monitor.threshold-ms:20}") long thresholdMillis) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!virtualThreadsEnabled || !enabled || stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::record);
+            recording.startAsync();
+            stream = recording;
+            logger.info("Pinned virtual thread monitor started with threshold {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Could not start JFR pinned virtual thread monitor: {}", e.getMessage());
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        List<String> frames = frames(event.getStackTrace());
+        String site = site(frames);
+        PinnedSite stats = sites.get(site);
+        if (stats == null) {
+            if (sites.size() >= MAX_SITES) {
+                droppedEvents.increment();
+                return;
+            }
+            stats = sites.computeIfAbsent(site, key -> new PinnedSite(frames));
+        }
+        stats.record(event.getDuration().toNanos());
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        List<String> frames = new ArrayList<>(SAMPLE_FRAMES);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frames.size() == SAMPLE_FRAMES) {
+                break;
+            }
+            if (frame.isJavaFrame()) {
+                frames.add(frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber());
+            }
+        }
+        return frames;
+    }
+
+    private static String site(List<String> frames) {
+        for (String frame : frames) {
+            if (frame.startsWith("com.iavtar.")) {
+                return frame;
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0);
+    }
+
+    /**
+     * Pinned-thread report ordered by total pinned time, worst first
+     */
+    public Map<String, Object> getReport() {
+        List<Map<String, Object>> report = new ArrayList<>();
+        sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, PinnedSite> e) -> e.getValue().totalNanos.get()).reversed())
+                .forEach(entry -> {
+                    PinnedSite stats = entry.getValue();
+                    Map<String, Object> site = new LinkedHashMap<>();
+                    site.put("site", entry.getKey());
+                    site.put("count", stats.count.sum());
+                    site.put("totalMillis", stats.totalNanos.get() / 1_000_000.0);
+                    site.put("maxMillis", stats.maxNanos.get() / 1_000_000.0);
+                    site.put("stackTrace", stats.sampleFrames);
+                    report.add(site);
+                });
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("virtualThreadsEnabled", virtualThreadsEnabled);
+        response.put("recording", stream != null);
+        response.put("thresholdMillis", threshold.toMillis());
+        response.put("droppedEvents", droppedEvents.sum());
+        response.put("sites", report);
+        return response;
+    }
+
+    @Override
+    public void destroy() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private static final class PinnedSite {
+        private final List<String> sampleFrames;
+        private final LongAdder count = new LongAdder();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        PinnedSite(List<String> sampleFrames) {
+            this.sampleFrames = List.copyOf(sampleFrames);
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.iavtar.web.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.FieldVisitor;
+import org.springframework.asm.Handle;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Startup check for code that pins virtual threads to their carrier.
+ * <p>
+ * On JDK 21-23 a virtual thread that blocks inside a {@code synchronized} method or block cannot
+ * unmount, so a JDBC driver that synchronizes around socket I/O serializes requests onto the small
+ * carrier pool. The check scans the bytecode of the application and of the JDBC driver in use for
+ * {@code synchronized} methods and {@code monitorenter} instructions, and flags static
+ * {@link ThreadLocal} fields, which are cheap per platform thread but are re-created for every
+ * virtual thread.
+ * <p>
+ * Synchronized code only pins for long when it blocks, so a hazard is logged at WARN only if the
+ * synchronized code calls something that can block: I/O, {@code wait}, locks, JDBC or the persistence
+ * layer, or the driver's own classes. Calls are followed through the scanned classes, including calls
+ * through their interfaces, but not into library code. Others, such as synchronized getters, are logged
+ * at INFO.
+ */
+@Component
+public class VirtualThreadPinningCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningCheck.class);
+
+    private static final String APPLICATION_CLASSES = "classpath*:com/iavtar/**/*.class";
+    private static final String THREAD_LOCAL_DESCRIPTOR = "Ljava/lang/ThreadLocal;";
+    private static final String INHERITABLE_THREAD_LOCAL_DESCRIPTOR = "Ljava/lang/InheritableThreadLocal;";
+    private static final String APPLICATION_PACKAGE = "com/iavtar/";
+
+    private static final List<String> BLOCKING_OWNERS = List.of(
+            "java/io/", "java/net/", "java/nio/channels/", "java/nio/file/", "java/sql/", "javax/sql/",
+            "java/util/concurrent/locks/", "jakarta/persistence/", "org/hibernate/",
+            "org/springframework/jdbc/", "org/springframework/data/", "com/iavtar/infrastructure/repository/");
+    private static final List<String> IN_MEMORY_IO = List.of(
+            "java/io/ByteArray", "java/io/CharArray", "java/io/String");
+
+    public enum HazardType {
+        RUNTIME, SYNCHRONIZED_METHOD, SYNCHRONIZED_BLOCK, THREAD_LOCAL
+    }
+
+    /**
+     * @param blocking whether the synchronized code calls something that can block
+     */
+    public record PinningHazard(HazardType type, String location, String detail, boolean blocking) {
+    }
+
+    private final DataSource dataSource;
+    private final boolean virtualThreadsEnabled;
+    private final boolean enabled;
+    private final PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+
+    private volatile List<PinningHazard> hazards = List.of();
+
+    @Autowired
+    public VirtualThreadPinningCheck(DataSource dataSource,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                                     @Value("${virtual-threads.pinning-check.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkOnStartup() {
+        if (!virtualThreadsEnabled || !enabled) {
+            return;
+        }
+        List<PinningHazard> found = scan();
+        hazards = Collections.unmodifiableList(found);
+
+        boolean synchronizedPins = Runtime.version().feature() < 24;
+        for (PinningHazard hazard : found) {
+            boolean severe = hazard.type() == HazardType.RUNTIME || (synchronizedPins && hazard.blocking());
+            if (severe) {
+                logger.warn("Virtual thread pinning hazard [{}] {} - {}", hazard.type(), hazard.location(), hazard.detail());
+            } else {
+                logger.info("Virtual thread hazard [{}] {} - {}", hazard.type(), hazard.location(), hazard.detail());
+            }
+        }
+        logger.info("Virtual thread pinning check found {} hazards (JDK {}, synchronized pins carriers: {})",
+                found.size(), Runtime.version().feature(), synchronizedPins);
+    }
+
+    /**
+     * Scans application and JDBC driver bytecode for pinning hazards
+     * @return hazards in scan order
+     */
+    public List<PinningHazard> scan() {
+        List<PinningHazard> found = new ArrayList<>();
+        if (Runtime.version().feature() < 24) {
+            found.add(new PinningHazard(HazardType.RUNTIME, "JDK " + Runtime.version(),
+                    "synchronized blocks pin virtual threads before JDK 24 (JEP 491)", true));
+        }
+        scanClasses(APPLICATION_CLASSES, true, null, found);
+
+        String driverPackage = jdbcDriverPackage();
+        if (driverPackage != null) {
+            logger.debug("Scanning JDBC driver package {} for pinning hazards", driverPackage);
+            String driverPath = driverPackage.replace('.', '/');
+            scanClasses("classpath*:" + driverPath + "/*.class", false, driverPath + "/", found);
+        }
+        return found;
+    }
+
+    /**
+     * Hazards found by the last startup check
+     */
+    public List<PinningHazard> getHazards() {
+        return hazards;
+    }
+
+    private String jdbcDriverPackage() {
+        try (Connection connection = dataSource.getConnection()) {
+            Connection physical = connection.isWrapperFor(Connection.class)
+                    ? connection.unwrap(Connection.class) : connection;
+            return physical.getClass().getPackageName();
+        } catch (SQLException e) {
+            logger.warn("Could not resolve JDBC driver for pinning check: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param driverPath package path whose classes count as JDBC calls, or null
+     */
+    private void scanClasses(String pattern, boolean includeThreadLocals, String driverPath, List<PinningHazard> found) {
+        CallGraph graph = new CallGraph(driverPath);
+        try {
+            for (Resource resource : resolver.getResources(pattern)) {
+                try (InputStream in = resource.getInputStream()) {
+                    new ClassReader(in).accept(new HazardVisitor(includeThreadLocals, graph, found), ClassReader.SKIP_DEBUG);
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Skipping unreadable class {}: {}", resource, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not scan {} for pinning hazards: {}", pattern, e.getMessage());
+        }
+        graph.addHazards(found);
+    }
+
+    /**
+     * Calls made by the methods of the scanned classes. A call to a scanned class resolves to the method in
+     * that class, its superclasses and every scanned subtype, so calls through a service interface reach
+     * the implementation.
+     */
+    private static final class CallGraph {
+
+        private final String driverPath;
+        private final Map<String, ScannedClass> classes = new LinkedHashMap<>();
+        private final Map<String, List<String>> subtypes = new HashMap<>();
+
+        CallGraph(String driverPath) {
+            this.driverPath = driverPath;
+        }
+
+        ScannedClass add(String name, String superName, String[] interfaces) {
+            ScannedClass scanned = new ScannedClass(name, superName);
+            classes.put(name, scanned);
+            if (superName != null) {
+                subtypes.computeIfAbsent(superName, key -> new ArrayList<>()).add(name);
+            }
+            for (String type : interfaces) {
+                subtypes.computeIfAbsent(type, key -> new ArrayList<>()).add(name);
+            }
+            return scanned;
+        }
+
+        boolean isScanned(String owner) {
+            return owner.startsWith(APPLICATION_PACKAGE) || driverPath != null && owner.startsWith(driverPath);
+        }
+
+        boolean isBlocking(String owner, String name) {
+            if (driverPath != null && owner.startsWith(driverPath)) {
+                return true;
+            }
+            for (String inMemory : IN_MEMORY_IO) {
+                if (owner.startsWith(inMemory)) {
+                    return false;
+                }
+            }
+            for (String blocking : BLOCKING_OWNERS) {
+                if (owner.startsWith(blocking)) {
+                    return true;
+                }
+            }
+            return switch (owner) {
+                case "java/lang/Object" -> name.equals("wait");
+                case "java/lang/Thread" -> name.equals("sleep") || name.equals("join");
+                case "java/util/concurrent/Future", "java/util/concurrent/CompletableFuture",
+                     "java/util/concurrent/FutureTask", "java/util/concurrent/ForkJoinTask" ->
+                        name.equals("get") || name.equals("join");
+                default -> owner.startsWith("java/util/concurrent/")
+                        && (name.equals("take") || name.equals("put") || name.equals("await") || name.equals("acquire"));
+            };
+        }
+
+        void addHazards(List<PinningHazard> found) {
+            for (ScannedClass scanned : classes.values()) {
+                for (MethodCalls calls : scanned.methods.values()) {
+                    String location = scanned.name.replace('/', '.') + "." + calls.name;
+                    if (calls.synchronizedMethod) {
+                        found.add(hazard(HazardType.SYNCHRONIZED_METHOD, location, "synchronized method",
+                                blockingCall(calls.blockingCall, calls.callees)));
+                    }
+                    if (calls.synchronizedBlock) {
+                        found.add(hazard(HazardType.SYNCHRONIZED_BLOCK, location, "synchronized block",
+                                blockingCall(calls.blockBlockingCall, calls.blockCallees)));
+                    }
+                }
+            }
+        }
+
+        /**
+         * The first blocking call made directly or through scanned methods, or null
+         */
+        private String blockingCall(String direct, Set<MethodRef> callees) {
+            if (direct != null) {
+                return direct;
+            }
+            Set<MethodRef> visited = new HashSet<>();
+            Deque<MethodRef> pending = new ArrayDeque<>(callees);
+            while (!pending.isEmpty()) {
+                MethodRef callee = pending.pop();
+                if (!visited.add(callee)) {
+                    continue;
+                }
+                for (MethodCalls target : targets(callee)) {
+                    if (target.blockingCall != null) {
+                        return target.blockingCall;
+                    }
+                    pending.addAll(target.callees);
+                }
+            }
+            return null;
+        }
+
+        private List<MethodCalls> targets(MethodRef callee) {
+            List<MethodCalls> targets = new ArrayList<>();
+            // Declared or inherited
+            for (String type = callee.owner(); type != null && classes.containsKey(type); type = classes.get(type).superName) {
+                MethodCalls declared = classes.get(type).methods.get(callee.method());
+                if (declared != null) {
+                    targets.add(declared);
+                    break;
+                }
+            }
+            // Overridden or implemented
+            Set<String> visited = new HashSet<>();
+            Deque<String> pending = new ArrayDeque<>(subtypes.getOrDefault(callee.owner(), List.of()));
+            while (!pending.isEmpty()) {
+                String type = pending.pop();
+                if (!visited.add(type)) {
+                    continue;
+                }
+                MethodCalls overriding = classes.get(type).methods.get(callee.method());
+                if (overriding != null) {
+                    targets.add(overriding);
+                }
+                pending.addAll(subtypes.getOrDefault(type, List.of()));
+            }
+            return targets;
+        }
+
+        private static PinningHazard hazard(HazardType type, String location, String kind, String blockingCall) {
+            return blockingCall != null
+                    ? new PinningHazard(type, location, kind + " pins the carrier while it blocks in " + blockingCall, true)
+                    : new PinningHazard(type, location, kind + " makes no blocking call", false);
+        }
+    }
+
+    private record MethodRef(String owner, String method) {
+    }
+
+    private static final class ScannedClass {
+
+        private final String name;
+        private final String superName;
+        private final Map<String, MethodCalls> methods = new LinkedHashMap<>();
+
+        ScannedClass(String name, String superName) {
+            this.name = name;
+            this.superName = superName;
+        }
+    }
+
+    private static final class MethodCalls {
+
+        private final String name;
+        private final boolean synchronizedMethod;
+        private final Set<MethodRef> callees = new HashSet<>();
+        private final Set<MethodRef> blockCallees = new HashSet<>();
+        private boolean synchronizedBlock;
+        private String blockingCall;
+        private String blockBlockingCall;
+
+        MethodCalls(String name, boolean synchronizedMethod) {
+            this.name = name;
+            this.synchronizedMethod = synchronizedMethod;
+        }
+    }
+
+    private static final class HazardVisitor extends ClassVisitor {
+
+        private final boolean includeThreadLocals;
+        private final CallGraph graph;
+        private final List<PinningHazard> found;
+        private ScannedClass scanned;
+
+        HazardVisitor(boolean includeThreadLocals, CallGraph graph, List<PinningHazard> found) {
+            super(Opcodes.ASM9);
+            this.includeThreadLocals = includeThreadLocals;
+            this.graph = graph;
+            this.found = found;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.scanned = graph.add(name, superName, interfaces);
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+            boolean threadLocal = THREAD_LOCAL_DESCRIPTOR.equals(descriptor)
+                    || INHERITABLE_THREAD_LOCAL_DESCRIPTOR.equals(descriptor);
+            if (includeThreadLocals && threadLocal && (access & Opcodes.ACC_STATIC) != 0) {
+                found.add(new PinningHazard(HazardType.THREAD_LOCAL, scanned.name.replace('/', '.') + "." + name,
+                        "static ThreadLocal is instantiated per virtual thread; prefer scoped request context", false));
+            }
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodCalls calls = new MethodCalls(name, (access & Opcodes.ACC_SYNCHRONIZED) != 0);
+            scanned.methods.put(name + descriptor, calls);
+            return new MethodVisitor(Opcodes.ASM9) {
+                private int monitorDepth;
+
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER) {
+                        calls.synchronizedBlock = true;
+                        monitorDepth++;
+                    } else if (opcode == Opcodes.MONITOREXIT && monitorDepth > 0) {
+                        // Exception handlers exit monitors a second time; bytecode order is only an approximation
+                        monitorDepth--;
+                    }
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String called, String calledDescriptor, boolean isInterface) {
+                    call(owner, called, calledDescriptor);
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String called, String calledDescriptor, Handle bootstrap, Object... arguments) {
+                    // Lambda bodies and method references
+                    for (Object argument : arguments) {
+                        if (argument instanceof Handle handle) {
+                            call(handle.getOwner(), handle.getName(), handle.getDesc());
+                        }
+                    }
+                }
+
+                private void call(String owner, String called, String calledDescriptor) {
+                    boolean inBlock = monitorDepth > 0;
+                    if (graph.isBlocking(owner, called)) {
+                        String call = owner.replace('/', '.') + "." + called;
+                        if (calls.blockingCall == null) {
+                            calls.blockingCall = call;
+                        }
+                        if (inBlock && calls.blockBlockingCall == null) {
+                            calls.blockBlockingCall = call;
+                        }
+                    } else if (graph.isScanned(owner)) {
+                        MethodRef callee = new MethodRef(owner, called + calledDescriptor);
+                        calls.callees.add(callee);
+                        if (inBlock) {
+                            calls.blockCallees.add(callee);
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.iavtar.web.exception;
+
+import com.iavtar.domain.exception.DomainException;
+import com.iavtar.domain.exception.DuplicateResourceException;
+import com.iavtar.domain.exception.ImportConflictException;
+import com.iavtar.domain.exception.InvalidCredentialsException;
+import com.iavtar.domain.exception.ResourceNotFoundException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * HTTP status and JSON body for each {@link DomainException}.
+ * <p>
+ * Bodies have the same fields as the other error responses, but are written straight to bytes: the
+ * status and reason part of each body is prepared once per exception type, leaving only the timestamp,
+ * message, transaction ID and path to append. That keeps a rejected request (an unknown ID, a bad login)
+ * free of maps and object-mapper work.
+ */
+public final class DomainErrorResponses {
+
+    /** Status of a domain exception, with its {@code "status":...,"error":...,"message":} fragment */
+    private record Template(HttpStatus status, String fragment) {
+
+        Template(HttpStatus status) {
+            this(status, "\",\"status\":" + status.value() + ",\"error\":\"" + status.getReasonPhrase() + "\",\"message\":\"");
+        }
+    }
+
+    private static final Map<Class<? extends DomainException>, Template> TEMPLATES = Map.of(
+            ResourceNotFoundException.class, new Template(HttpStatus.NOT_FOUND),
+            DuplicateResourceException.class, new Template(HttpStatus.CONFLICT),
+            InvalidCredentialsException.class, new Template(HttpStatus.UNAUTHORIZED),
+            ImportConflictException.class, new Template(HttpStatus.CONFLICT));
+
+    private static final Template DEFAULT = new Template(HttpStatus.BAD_REQUEST);
+
+    private DomainErrorResponses() {
+    }
+
+    public static HttpStatus status(DomainException ex) {
+        return template(ex).status();
+    }
+
+    /**
+     * JSON error body for {@code ex}, as UTF-8
+     */
+    public static byte[] body(DomainException ex, String transactionId, String path) {
+        StringBuilder json = new StringBuilder(192)
+                .append("{\"timestamp\":\"").append(LocalDateTime.now())
+                .append(template(ex).fragment());
+        appendEscaped(json, ex.getMessage()).append("\",\"transactionId\":");
+        if (transactionId == null) {
+            json.append("null");
+        } else {
+            appendEscaped(json.append('"'), transactionId).append('"');
+        }
+        appendEscaped(json.append(",\"path\":\""), path).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Template template(DomainException ex) {
+        for (Class<?> type = ex.getClass(); type != DomainException.class; type = type.getSuperclass()) {
+            Template template = TEMPLATES.get(type);
+            if (template != null) {
+                return template;
+            }
+        }
+        return DEFAULT;
+    }
+
+    private static StringBuilder appendEscaped(StringBuilder json, String value) {
+        if (value == null) {
+            return json;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json;
+    }
+}
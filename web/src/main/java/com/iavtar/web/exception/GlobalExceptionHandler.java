@@ -1,13 +1,15 @@
 package com.iavtar.web.exception;
 
 import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.domain.exception.DomainException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -21,8 +23,21 @@ public class GlobalExceptionHandler {
     
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<byte[]> handleDomainException(DomainException ex, HttpServletRequest request) {
+        String transactionId = TransactionContext.getTransactionId();
+        HttpStatus status = DomainErrorResponses.status(ex);
+        
+        // Expected outcome, already logged by the service that raised it
+        logger.debug("{} with transaction ID: {} - Error: {}", status.value(), transactionId, ex.getMessage());
+        
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(DomainErrorResponses.body(ex, transactionId, request.getRequestURI()));
+    }
+    
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex, WebRequest request) {
+    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex, HttpServletRequest request) {
         String transactionId = TransactionContext.getTransactionId();
         
         logger.error("Runtime exception occurred with transaction ID: {} - Error: {}", transactionId, ex.getMessage(), ex);
@@ -31,14 +46,15 @@ public class GlobalExceptionHandler {
             "Runtime Exception",
             ex.getMessage(),
             transactionId,
-            HttpStatus.INTERNAL_SERVER_ERROR.value()
+            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+            request.getRequestURI()
         );
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
     
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex, WebRequest request) {
+    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex, HttpServletRequest request) {
         String transactionId = TransactionContext.getTransactionId();
         
         logger.error("Generic exception occurred with transaction ID: {} - Error: {}", transactionId, ex.getMessage(), ex);
@@ -47,14 +63,15 @@ public class GlobalExceptionHandler {
             "Internal Server Error",
             "An unexpected error occurred",
             transactionId,
-            HttpStatus.INTERNAL_SERVER_ERROR.value()
+            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+            request.getRequestURI()
         );
         
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
     }
     
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+    public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex, HttpServletRequest request) {
         String transactionId = TransactionContext.getTransactionId();
         
         logger.warn("Illegal argument exception with transaction ID: {} - Error: {}", transactionId, ex.getMessage());
@@ -63,20 +80,21 @@ public class GlobalExceptionHandler {
             "Bad Request",
             ex.getMessage(),
             transactionId,
-            HttpStatus.BAD_REQUEST.value()
+            HttpStatus.BAD_REQUEST.value(),
+            request.getRequestURI()
         );
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
     
-    private Map<String, Object> createErrorResponse(String error, String message, String transactionId, int status) {
+    private Map<String, Object> createErrorResponse(String error, String message, String transactionId, int status, String path) {
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now().toString());
         response.put("status", status);
         response.put("error", error);
         response.put("message", message);
         response.put("transactionId", transactionId);
-        response.put("path", "/api/users"); // You can make this dynamic based on the request
+        response.put("path", path);
         
         return response;
     }
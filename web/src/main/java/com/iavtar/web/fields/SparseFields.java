@@ -0,0 +1,86 @@
+package com.iavtar.web.fields;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code fields=} query parameter of read endpoints: a comma-separated list of top-level
+ * properties to return, e.g. {@code ?fields=id,username,active}. Absent or blank means all fields.
+ */
+public final class SparseFields {
+
+    private SparseFields() {
+    }
+
+    /**
+     * Requested fields in request order; empty when the whole resource was asked for
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<String> parsed = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                parsed.add(name);
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    /**
+     * Names of the properties {@code type} serializes to, i.e. the fields that can be requested
+     */
+    public static Set<String> properties(ObjectMapper objectMapper, Class<?> type) {
+        return objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(type))
+                .findProperties().stream()
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the first requested field that is not in {@code available}
+     */
+    public static void check(Set<String> fields, Set<String> available, String resource) {
+        for (String field : fields) {
+            if (!available.contains(field)) {
+                throw new IllegalArgumentException("Unknown " + resource + " field: " + field);
+            }
+        }
+    }
+
+    /**
+     * Copy of a serialized object with only the requested properties, in request order
+     */
+    public static ObjectNode retain(JsonNode node, Set<String> fields) {
+        ObjectNode sparse = JsonNodeFactory.instance.objectNode();
+        for (String field : fields) {
+            JsonNode value = node.get(field);
+            if (value != null) {
+                sparse.set(field, value);
+            }
+        }
+        return sparse;
+    }
+
+    /**
+     * ETag of a sparse representation: the full representation's ETag plus a hash of the field list
+     */
+    public static String eTag(String fullETag, Set<String> fields) {
+        String fieldsHash = Integer.toHexString(String.join(",", fields).hashCode());
+        return fullETag.substring(0, fullETag.length() - 1) + "-f" + fieldsHash + "\"";
+    }
+}
@@ -0,0 +1,77 @@
+package com.iavtar.web.filter;
+
+import com.iavtar.domain.accesslog.AccessLogRecord;
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.infrastructure.sql.StatementCounter;
+import com.iavtar.infrastructure.sql.StatementTally;
+import com.iavtar.web.accesslog.AccessLogWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Hands one {@link AccessLogRecord} per request to the {@link AccessLogWriter}: route, status, principal,
+ * latency, and the time and number of SQL statements charged to the request.
+ * Runs inside {@link StatementBudgetFilter}, so the statement tally is still open when the chain returns;
+ * the principal is captured by {@link AccessLogPrincipalFilter} before Spring Security clears its context.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    static final String PRINCIPAL_ATTRIBUTE = AccessLogFilter.class.getName() + ".principal";
+
+    private final AccessLogWriter accessLogWriter;
+    private final StatementCounter statementCounter;
+
+    public AccessLogFilter(AccessLogWriter accessLogWriter, StatementCounter statementCounter) {
+        this.accessLogWriter = accessLogWriter;
+        this.statementCounter = statementCounter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !accessLogWriter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestContext context = TransactionContext.current();
+        if (context == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String transactionId = context.getTransactionId();
+        long timestampMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        statementCounter.begin(context);
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long latencyNanos = System.nanoTime() - startNanos;
+            StatementTally tally = statementCounter.peek(context);
+            long dbNanos = tally != null ? tally.getExecutionNanos() : 0;
+            int statements = tally != null ? tally.getCount() : 0;
+            statementCounter.end(context);
+            accessLogWriter.offer(new AccessLogRecord(timestampMillis, transactionId, request.getMethod(), route(request),
+                    status, (String) request.getAttribute(PRINCIPAL_ATTRIBUTE), latencyNanos, dbNanos, statements));
+        }
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,46 @@
+package com.iavtar.web.filter;
+
+import com.iavtar.web.accesslog.AccessLogWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the authenticated username for {@link AccessLogFilter}, which runs outside Spring Security and
+ * would otherwise find the security context already cleared
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 5)
+public class AccessLogPrincipalFilter extends OncePerRequestFilter {
+
+    private final AccessLogWriter accessLogWriter;
+
+    public AccessLogPrincipalFilter(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !accessLogWriter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            request.setAttribute(AccessLogFilter.PRINCIPAL_ATTRIBUTE, authentication.getName());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
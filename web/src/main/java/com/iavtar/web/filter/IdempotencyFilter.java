@@ -0,0 +1,239 @@
+package com.iavtar.web.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.service.idempotency.IdempotencyClaim;
+import com.iavtar.service.idempotency.IdempotencyStore;
+import com.iavtar.service.idempotency.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Makes retried POSTs safe: a request carrying an {@code Idempotency-Key} header (or, failing that,
+ * {@code X-Transaction-ID}) runs once, and retries with the same key get the recorded response back
+ * without running the handler again, marked with {@code Idempotent-Replayed: true}.
+ * <p>
+ * Only POSTs to {@code idempotency.paths} are covered. Keys are scoped to the caller, method and path, and
+ * bound to a keyed hash of the body: reusing a key for a different body is rejected with 422, and a retry
+ * arriving while the first attempt still runs gets 409 with {@code Retry-After}. Responses with status 500 and
+ * above are not recorded, so a retry after a server error runs again. Runs after Spring Security, so the
+ * caller is known and rejected requests never claim a key.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<String> paths;
+    private final boolean transactionIdFallback;
+    private final int maxRequestBytes;
+    private final int maxResponseBytes;
+    private final SecretKeySpec fingerprintKey;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder inProgress = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             ObjectMapper objectMapper,
+                             @Value("${idempotency.enabled:true}") boolean enabled,
+                             @Value("${idempotency.paths:/api/users,/api/auth/register,/api/roles/users/*/assign}") List<String> paths,
+                             @Value("${idempotency.transaction-id-fallback:true}") boolean transactionIdFallback,
+                             @Value("${idempotency.max-request-bytes:65536}") int maxRequestBytes,
+                             @Value("${idempotency.max-response-bytes:16384}") int maxResponseBytes,
+                             @Value("${idempotency.fingerprint-key:${jwt.secret}}") String fingerprintKey) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.paths = List.copyOf(paths);
+        this.transactionIdFallback = transactionIdFallback;
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxResponseBytes = maxResponseBytes;
+        this.fingerprintKey = new SecretKeySpec(fingerprintKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key != null && !TransactionContextFilter.isAcceptable(key)) {
+            reject(request, response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1-64 letters, digits or . _ : -");
+            return;
+        }
+        if (key == null && transactionIdFallback) {
+            String transactionId = request.getHeader(TransactionContextFilter.TRANSACTION_ID_HEADER);
+            key = TransactionContextFilter.isAcceptable(transactionId) ? transactionId : null;
+        }
+        if (key == null || request.getContentLengthLong() > maxRequestBytes) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        if (body.length > maxRequestBytes) {
+            reject(request, response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large for an idempotent request");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+
+        String transactionId = TransactionContext.getTransactionId();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String scopedKey = hmac((caller() + '\n' + request.getMethod() + ' ' + path + '\n' + key).getBytes(StandardCharsets.UTF_8));
+        IdempotencyClaim claim = store.claim(scopedKey, hmac(body));
+
+        switch (claim.outcome()) {
+            case COMPLETED -> {
+                replayed.increment();
+                logger.info("Replaying recorded response for idempotency key {} on {} with transaction ID: {}", key, path, transactionId);
+                StoredResponse stored = claim.response();
+                response.setStatus(stored.status());
+                if (stored.contentType() != null) {
+                    response.setContentType(stored.contentType());
+                }
+                response.setHeader(REPLAYED_HEADER, "true");
+                response.setContentLength(stored.body().length);
+                response.getOutputStream().write(stored.body());
+            }
+            case IN_PROGRESS -> {
+                inProgress.increment();
+                response.setHeader("Retry-After", "1");
+                reject(request, response, HttpStatus.CONFLICT, "A request with this idempotency key is still being processed");
+            }
+            case MISMATCH -> {
+                mismatched.increment();
+                reject(request, response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency key was already used for a different request");
+            }
+            case ACQUIRED -> execute(cachedRequest, response, filterChain, scopedKey);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String scopedKey)
+            throws ServletException, IOException {
+        executed.increment();
+        ContentCachingResponseWrapper recorded = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, recorded);
+            int status = recorded.getStatus();
+            if (status < 500 && recorded.getContentSize() <= maxResponseBytes) {
+                store.complete(scopedKey, new StoredResponse(status, recorded.getContentType(), recorded.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.release(scopedKey);
+            }
+            recorded.copyBodyToResponse();
+        }
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return "anonymous";
+        }
+        return "user:" + authentication.getName();
+    }
+
+    private String hmac(byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(fingerprintKey);
+            return HexFormat.of().formatHex(mac.doFinal(data));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        String transactionId = TransactionContext.getTransactionId();
+        logger.warn("Rejected {} {} with {}: {} with transaction ID: {}",
+                request.getMethod(), request.getRequestURI(), status.value(), message, transactionId);
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("timestamp", LocalDateTime.now().toString());
+        error.put("status", status.value());
+        error.put("error", status.getReasonPhrase());
+        error.put("message", message);
+        error.put("transactionId", transactionId);
+        error.put("path", request.getRequestURI());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    /**
+     * Requests that claimed a new key and ran
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * Retries answered with a recorded response
+     */
+    public long getReplayed() {
+        return replayed.sum();
+    }
+
+    /**
+     * Retries rejected because the first attempt was still running
+     */
+    public long getInProgress() {
+        return inProgress.sum();
+    }
+
+    /**
+     * Requests rejected because their key was used for a different request
+     */
+    public long getMismatched() {
+        return mismatched.sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.iavtar.web.filter;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import com.iavtar.infrastructure.sql.StatementCounter;
+import com.iavtar.infrastructure.sql.StatementTally;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of each request and warns when a request exceeds the statement budget
+ * or runs the same statement repeatedly (the usual shape of an N+1 over a lazy association).
+ * Runs inside {@link TransactionContextFilter} so the request's transaction ID is already bound.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    private static final int MAX_REPORTED_STATEMENTS = 3;
+    private static final int MAX_REPORTED_SQL_LENGTH = 200;
+
+    private final StatementCounter statementCounter;
+    private final boolean enabled;
+    private final int maxStatements;
+    private final int repeatedStatementThreshold;
+
+    public StatementBudgetFilter(StatementCounter statementCounter,
+                                 @Value("${sql-budget.enabled:true}") boolean enabled,
+                                 @Value("${sql-budget.max-statements:10}") int maxStatements,
+                                 @Value("${sql-budget.repeated-statement-threshold:5}") int repeatedStatementThreshold) {
+        this.statementCounter = statementCounter;
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestContext context = TransactionContext.current();
+        if (context == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        statementCounter.begin(context);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementTally tally = statementCounter.end(context);
+            if (tally != null) {
+                report(request, tally, context.getTransactionId());
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementTally tally, String transactionId) {
+        int count = tally.getCount();
+        List<Map.Entry<String, Integer>> repeated = tally.getRepeatedStatements(repeatedStatementThreshold);
+        if (count <= maxStatements && repeated.isEmpty()) {
+            logger.debug("{} {} executed {} SQL statements with transaction ID: {}",
+                    request.getMethod(), request.getRequestURI(), count, transactionId);
+            return;
+        }
+        StringBuilder details = new StringBuilder();
+        for (int i = 0; i < Math.min(repeated.size(), MAX_REPORTED_STATEMENTS); i++) {
+            Map.Entry<String, Integer> statement = repeated.get(i);
+            String sql = statement.getKey();
+            details.append("\n  ").append(statement.getValue()).append("x ")
+                    .append(sql.length() > MAX_REPORTED_SQL_LENGTH ? sql.substring(0, MAX_REPORTED_SQL_LENGTH) + "..." : sql);
+        }
+        logger.warn("{} {} executed {} SQL statements (budget {}, {} repeated at least {} times) with transaction ID: {}{}",
+                request.getMethod(), request.getRequestURI(), count, maxStatements, repeated.size(),
+                repeatedStatementThreshold, transactionId, details);
+    }
+}
@@ -0,0 +1,112 @@
+package com.iavtar.web.filter;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Single entry point for request context: resolves the transaction ID from X-Transaction-ID or
+ * X-Correlation-ID (generating one otherwise), binds an immutable {@link RequestContext} for the
+ * whole filter chain, and mirrors the ID into the MDC and the response header.
+ * <p>
+ * Runs before Spring Security so every filter, controller and service sees the same ID. The context
+ * is kept as a request attribute so error and async re-dispatches reuse it instead of minting a new one.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransactionContextFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionContextFilter.class);
+
+    public static final String TRANSACTION_ID_HEADER = "X-Transaction-ID";
+    public static final String CORRELATION_ID_HEADER = "X-Correlation-ID";
+    public static final String MDC_KEY = "transactionId";
+
+    private static final String CONTEXT_ATTRIBUTE = RequestContext.class.getName();
+    private static final int MAX_TRANSACTION_ID_LENGTH = 64;
+
+    private final Duration requestTimeout;
+
+    public TransactionContextFilter(@Value("${request-context.timeout-ms:30000}") long requestTimeoutMillis) {
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestContext context = (RequestContext) request.getAttribute(CONTEXT_ATTRIBUTE);
+        if (context == null) {
+            context = RequestContext.start(resolveTransactionId(request), requestTimeout);
+            request.setAttribute(CONTEXT_ATTRIBUTE, context);
+            response.setHeader(TRANSACTION_ID_HEADER, context.getTransactionId());
+        }
+
+        MDC.put(MDC_KEY, context.getTransactionId());
+        try (TransactionContext.Scope ignored = TransactionContext.open(context)) {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    @Override
+    protected void doFilterNestedErrorDispatch(HttpServletRequest request, HttpServletResponse response,
+                                               FilterChain filterChain) throws ServletException, IOException {
+        doFilterInternal(request, response, filterChain);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    private String resolveTransactionId(HttpServletRequest request) {
+        String transactionId = request.getHeader(TRANSACTION_ID_HEADER);
+        if (!isAcceptable(transactionId)) {
+            transactionId = request.getHeader(CORRELATION_ID_HEADER);
+        }
+        if (!isAcceptable(transactionId)) {
+            return null;
+        }
+        logger.debug("Using provided transaction ID: {}", transactionId);
+        return transactionId;
+    }
+
+    /**
+     * Client-supplied IDs end up in logs, SQL comments and response headers, so only short IDs made of
+     * letters, digits and . _ : - are accepted; anything else is replaced by a generated ID.
+     */
+    public static boolean isAcceptable(String transactionId) {
+        if (transactionId == null || transactionId.isEmpty() || transactionId.length() > MAX_TRANSACTION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < transactionId.length(); i++) {
+            char c = transactionId.charAt(i);
+            boolean allowed = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
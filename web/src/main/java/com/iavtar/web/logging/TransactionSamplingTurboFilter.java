@@ -0,0 +1,118 @@
+package com.iavtar.web.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limits repetitive INFO logging on hot paths.
+ * <p>
+ * Each logger under {@link #setLoggerPrefix loggerPrefix} may emit {@link #setInfoPerSecond infoPerSecond}
+ * INFO lines per second unconditionally. Above that budget only transactions selected by a stable hash of
+ * their transaction ID (MDC {@code transactionId}) keep logging, so a sampled request is logged in full
+ * across every logger rather than as scattered lines. WARN and ERROR are never filtered, and DEBUG/TRACE
+ * are left to the normal level checks.
+ * <p>
+ * Runs before the appenders, so a dropped line costs no formatting or allocation.
+ */
+public class TransactionSamplingTurboFilter extends TurboFilter {
+
+    private static final int SAMPLE_SCALE = 10_000;
+
+    private boolean enabled = true;
+    private String loggerPrefix = "com.iavtar";
+    private String mdcKey = "transactionId";
+    private int infoPerSecond = 100;
+    private int sampleThreshold = SAMPLE_SCALE / 100;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isInfoEnabled() checks, which must not spend the budget
+        if (!enabled || !isStarted() || level != Level.INFO || format == null || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!logger.isInfoEnabled()) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+        if (window.tryAcquire(System.currentTimeMillis() / 1000, infoPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (isSampled(MDC.get(mdcKey))) {
+            return FilterReply.NEUTRAL;
+        }
+        dropped.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean isSampled(String transactionId) {
+        if (transactionId == null) {
+            return false;
+        }
+        int hash = transactionId.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        return (hash & Integer.MAX_VALUE) % SAMPLE_SCALE < sampleThreshold;
+    }
+
+    /**
+     * INFO lines dropped since startup
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setMdcKey(String mdcKey) {
+        this.mdcKey = mdcKey;
+    }
+
+    /**
+     * INFO lines each logger may emit per second before sampling applies; 0 samples everything
+     */
+    public void setInfoPerSecond(int infoPerSecond) {
+        this.infoPerSecond = infoPerSecond;
+    }
+
+    /**
+     * Share of transactions logged in full once a logger is over budget, from 0.0 to 1.0
+     */
+    public void setSampleRate(double sampleRate) {
+        this.sampleThreshold = (int) Math.round(Math.max(0.0, Math.min(1.0, sampleRate)) * SAMPLE_SCALE);
+    }
+
+    /**
+     * Fixed one-second window; the count resets when the first caller of a new second wins the CAS
+     */
+    private static final class Window {
+
+        private final AtomicLong second = new AtomicLong(-1);
+        private final AtomicLong count = new AtomicLong();
+
+        boolean tryAcquire(long now, int limit) {
+            long current = second.get();
+            if (current != now && second.compareAndSet(current, now)) {
+                count.set(0);
+            }
+            return count.incrementAndGet() <= limit;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.web.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes binary access log throughput; a growing {@code outcome="dropped"} count means the writer
+ * thread cannot keep up and {@code access-log.queue-capacity} or the disk needs attention
+ */
+@Component
+public class AccessLogMetrics implements MeterBinder {
+
+    private final AccessLogWriter accessLogWriter;
+
+    public AccessLogMetrics(AccessLogWriter accessLogWriter) {
+        this.accessLogWriter = accessLogWriter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!accessLogWriter.isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("access.log.records", accessLogWriter, AccessLogWriter::getWritten)
+                .tag("outcome", "written")
+                .description("Access log records, by outcome")
+                .register(registry);
+        FunctionCounter.builder("access.log.records", accessLogWriter, AccessLogWriter::getDropped)
+                .tag("outcome", "dropped")
+                .description("Access log records, by outcome")
+                .register(registry);
+        Gauge.builder("access.log.queue.size", accessLogWriter, AccessLogWriter::getQueued)
+                .description("Access log records waiting for the writer thread")
+                .register(registry);
+    }
+}
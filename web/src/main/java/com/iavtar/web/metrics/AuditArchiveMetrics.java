@@ -0,0 +1,33 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.service.audit.AuditArchive;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the size of the audit archive on the node that writes it
+ */
+@Component
+public class AuditArchiveMetrics implements MeterBinder {
+
+    private final AuditArchive auditArchive;
+
+    public AuditArchiveMetrics(AuditArchive auditArchive) {
+        this.auditArchive = auditArchive;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!auditArchive.isEnabled()) {
+            return;
+        }
+        Gauge.builder("audit.archive.records", auditArchive, AuditArchive::getArchivedRecords)
+                .description("Change log entries moved to archive segments")
+                .register(registry);
+        Gauge.builder("audit.archive.segments", auditArchive, AuditArchive::getSegmentCount)
+                .description("Archive segment files")
+                .register(registry);
+    }
+}
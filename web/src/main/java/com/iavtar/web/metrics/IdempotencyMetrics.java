@@ -0,0 +1,38 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.web.filter.IdempotencyFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes what happened to POSTs carrying an idempotency key; {@code outcome="replayed"} counts
+ * retries answered without running the handler again
+ */
+@Component
+public class IdempotencyMetrics implements MeterBinder {
+
+    private final IdempotencyFilter idempotencyFilter;
+
+    public IdempotencyMetrics(IdempotencyFilter idempotencyFilter) {
+        this.idempotencyFilter = idempotencyFilter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map<String, ToDoubleFunction<IdempotencyFilter>> outcomes = Map.of(
+                "executed", IdempotencyFilter::getExecuted,
+                "replayed", IdempotencyFilter::getReplayed,
+                "in_progress", IdempotencyFilter::getInProgress,
+                "mismatch", IdempotencyFilter::getMismatched);
+        outcomes.forEach((outcome, count) ->
+                FunctionCounter.builder("idempotency.requests", idempotencyFilter, count)
+                        .tag("outcome", outcome)
+                        .description("POSTs with an idempotency key, by outcome")
+                        .register(registry));
+    }
+}
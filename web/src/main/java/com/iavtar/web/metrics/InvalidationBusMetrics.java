@@ -0,0 +1,48 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.service.invalidation.InvalidationBus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes change log traffic of the invalidation bus.
+ * <p>
+ * {@code invalidation_position} should move in step on every node; a node lagging behind the others
+ * serves stale role catalogs and username checks for that long.
+ */
+@Component
+public class InvalidationBusMetrics implements MeterBinder {
+
+    private final InvalidationBus invalidationBus;
+
+    public InvalidationBusMetrics(InvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("invalidation.entries", invalidationBus, InvalidationBus::getPublished)
+                .tag("direction", "published")
+                .description("Change log entries written by this node")
+                .register(registry);
+        FunctionCounter.builder("invalidation.entries", invalidationBus, InvalidationBus::getReceived)
+                .tag("direction", "received")
+                .description("Change log entries of other nodes read by this node")
+                .register(registry);
+        FunctionCounter.builder("invalidation.batches", invalidationBus, InvalidationBus::getRemoteBatches)
+                .description("Coalesced batches of other nodes' invalidations delivered to listeners")
+                .register(registry);
+        FunctionCounter.builder("invalidation.gaps.expired", invalidationBus, InvalidationBus::getExpiredGaps)
+                .description("Skipped change log IDs given up on after the gap timeout")
+                .register(registry);
+        Gauge.builder("invalidation.gaps.pending", invalidationBus, InvalidationBus::getPendingGaps)
+                .description("Skipped change log IDs still being re-checked")
+                .register(registry);
+        Gauge.builder("invalidation.position", invalidationBus, InvalidationBus::getPosition)
+                .description("Last change log ID read by this node")
+                .register(registry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.service.LookupCoalescer;
+import com.iavtar.service.LookupCoalescer.Lookup;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes, per coalesced lookup, the loads actually run and the calls that shared one.
+ * <p>
+ * {@code lookup_coalesced_total / (lookup_coalesced_total + lookup_executions_total)} is the share
+ * of database calls saved.
+ */
+@Component
+public class LookupCoalescingMetrics implements MeterBinder {
+
+    private final LookupCoalescer lookupCoalescer;
+
+    public LookupCoalescingMetrics(LookupCoalescer lookupCoalescer) {
+        this.lookupCoalescer = lookupCoalescer;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Lookup lookup : Lookup.values()) {
+            FunctionCounter.builder("lookup.executions", lookupCoalescer, coalescer -> coalescer.getExecutions(lookup))
+                    .tag("lookup", lookup.getTag())
+                    .description("Coalescable lookups that ran their own database call")
+                    .register(registry);
+            FunctionCounter.builder("lookup.coalesced", lookupCoalescer, coalescer -> coalescer.getCoalesced(lookup))
+                    .tag("lookup", lookup.getTag())
+                    .description("Lookups that shared an identical call already in flight")
+                    .register(registry);
+        }
+    }
+}
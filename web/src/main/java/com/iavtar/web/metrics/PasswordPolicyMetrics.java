@@ -0,0 +1,47 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.security.crypto.BCryptCalibration;
+import com.iavtar.security.service.PasswordRehashService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the BCrypt cost in force and how stored hashes are being brought up to it; a
+ * {@code security.password.rehash{outcome="upgraded"}} rate that stays high after a cost change means
+ * many users have not logged in since
+ */
+@Component
+public class PasswordPolicyMetrics implements MeterBinder {
+
+    private final BCryptCalibration bcryptCalibration;
+    private final PasswordRehashService passwordRehashService;
+
+    public PasswordPolicyMetrics(BCryptCalibration bcryptCalibration, PasswordRehashService passwordRehashService) {
+        this.bcryptCalibration = bcryptCalibration;
+        this.passwordRehashService = passwordRehashService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("security.password.bcrypt.strength", bcryptCalibration, BCryptCalibration::strength)
+                .description("BCrypt cost of new password hashes")
+                .tag("calibrated", Boolean.toString(bcryptCalibration.calibrated()))
+                .register(registry);
+        Map<String, ToDoubleFunction<PasswordRehashService>> outcomes = Map.of(
+                "upgraded", PasswordRehashService::getUpgraded,
+                "superseded", PasswordRehashService::getSuperseded,
+                "skipped", PasswordRehashService::getSkipped,
+                "failed", PasswordRehashService::getFailed);
+        outcomes.forEach((outcome, count) ->
+                FunctionCounter.builder("security.password.rehash", passwordRehashService, count)
+                        .tag("outcome", outcome)
+                        .description("Password hash upgrades after login, by outcome")
+                        .register(registry));
+    }
+}
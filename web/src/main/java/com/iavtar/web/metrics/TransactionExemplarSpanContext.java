@@ -0,0 +1,49 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.domain.context.RequestContext;
+import com.iavtar.domain.context.TransactionContext;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Supplies the current transaction ID to the Prometheus registry as the exemplar of histogram samples.
+ * <p>
+ * There is no distributed tracing here, so the transaction ID fills both {@code trace_id} and
+ * {@code span_id}. Only samples recorded once the request has run for at least
+ * {@code metrics.exemplars.slow-threshold-ms} are offered, so the exemplars on the upper buckets point
+ * at requests worth searching the logs for. Exemplars are only rendered in the OpenMetrics format
+ * ({@code Accept: application/openmetrics-text}).
+ */
+@Component
+public class TransactionExemplarSpanContext implements SpanContext {
+
+    private final Duration slowThreshold;
+
+    public TransactionExemplarSpanContext(@Value("${metrics.exemplars.slow-threshold-ms:250}") long slowThresholdMillis) {
+        this.slowThreshold = Duration.ofMillis(slowThresholdMillis);
+    }
+
+    @Override
+    public String getCurrentTraceId() {
+        RequestContext context = TransactionContext.current();
+        return context != null ? context.getTransactionId() : null;
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        return getCurrentTraceId();
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        RequestContext context = TransactionContext.current();
+        return context != null && context.elapsed().compareTo(slowThreshold) >= 0;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+    }
+}
@@ -0,0 +1,55 @@
+package com.iavtar.web.metrics;
+
+import com.iavtar.service.UsernameBloomFilterService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the username Bloom filter's lookup outcomes and hit ratio.
+ * <p>
+ * A hit is a lookup answered without touching the database (outcome {@code definite_negative}).
+ */
+@Component
+public class UsernameFilterMetrics implements MeterBinder {
+
+    private final UsernameBloomFilterService usernameBloomFilterService;
+
+    public UsernameFilterMetrics(UsernameBloomFilterService usernameBloomFilterService) {
+        this.usernameBloomFilterService = usernameBloomFilterService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lookups(registry, "definite_negative", UsernameBloomFilterService::getDefiniteNegatives);
+        lookups(registry, "confirmed_positive", UsernameBloomFilterService::getConfirmedPositives);
+        lookups(registry, "false_positive", UsernameBloomFilterService::getFalsePositives);
+        lookups(registry, "bypassed", UsernameBloomFilterService::getBypassedChecks);
+
+        Gauge.builder("username.filter.hit.ratio", usernameBloomFilterService, UsernameFilterMetrics::hitRatio)
+                .description("Share of username lookups answered without a database query")
+                .register(registry);
+        Gauge.builder("username.filter.memory", usernameBloomFilterService, UsernameBloomFilterService::getMemoryBytes)
+                .baseUnit("bytes")
+                .description("Memory used by the username Bloom filter")
+                .register(registry);
+    }
+
+    private void lookups(MeterRegistry registry, String outcome,
+                         ToDoubleFunction<UsernameBloomFilterService> count) {
+        FunctionCounter.builder("username.filter.lookups", usernameBloomFilterService, count)
+                .tag("outcome", outcome)
+                .description("Username existence checks by Bloom filter outcome")
+                .register(registry);
+    }
+
+    private static double hitRatio(UsernameBloomFilterService service) {
+        double hits = service.getDefiniteNegatives();
+        double total = hits + service.getConfirmedPositives() + service.getFalsePositives() + service.getBypassedChecks();
+        return total == 0 ? 0.0 : hits / total;
+    }
+}